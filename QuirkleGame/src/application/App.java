@@ -2,8 +2,15 @@ package application;
 
 import java.io.IOException;
 
+import java.util.Arrays;
+import java.util.function.Supplier;
+
 import client.Client;
+import game.Hand;
 import server.Server;
+import simulator.Simulator;
+import strategies.SmartStrategy;
+import strategies.StrategyInterface;
 
 /**
  * The main class of the application is the App.Java class. This class is the
@@ -35,8 +42,10 @@ public class App {
 
 		String appType = "";
 
-		while (!appType.equals("server") && !appType.equals("client")) {
-			appType = Util.readString("Would you like to run a client or a server?" + System.lineSeparator() + "> ");
+		while (!appType.equals("server") && !appType.equals("client")
+						&& !appType.equals("simulator")) {
+			appType = Util.readString("Would you like to run a client, a server or a simulator?"
+							+ System.lineSeparator() + "> ");
 		}
 
 		// Util.clearScreen();
@@ -49,6 +58,10 @@ public class App {
 			App.client();
 		}
 
+		if (appType.equals("simulator")) {
+			App.simulator();
+		}
+
 		Util.log("debug", "Threads started and main program finished.");
 
 	}
@@ -89,4 +102,37 @@ public class App {
 
 	}
 
+	/**
+	 * Starting the simulator, which plays games between two computer players
+	 * and prints the statistics.
+	 */
+	public static void simulator() {
+
+		int games = 0;
+
+		while (games < 1) {
+			games = Util.readInt("How many games should be played?" + System.lineSeparator() + "> ");
+		}
+
+		// Small sets are searched much faster: a limit of 1 plays thousands of
+		// games a minute, no limit only about a hundred.
+		int moveLimit = 0;
+
+		while (moveLimit < 1 || moveLimit > Hand.LIMIT) {
+			moveLimit = Util.readInt("How many moves may a set have (1 to " + Hand.LIMIT
+							+ ", fewer is faster)?" + System.lineSeparator() + "> ");
+		}
+
+		int limit = moveLimit;
+		Supplier<StrategyInterface> strategy = () -> {
+			SmartStrategy smart = new SmartStrategy();
+			smart.setMoveLimit(limit);
+			return smart;
+		};
+		Simulator simulator = new Simulator(Arrays.asList(strategy, strategy));
+		Util.println(simulator.run(games, System.nanoTime(), Runtime.getRuntime().availableProcessors())
+						.toString());
+
+	}
+
 }
@@ -26,6 +26,7 @@ import players.ClientPlayer;
 import players.ComputerPlayer;
 import players.HumanPlayer;
 import players.Player;
+import protocol.MoveCodec;
 import protocol.Protocol;
 import views.TextView;
 import views.View;
@@ -60,7 +61,7 @@ public class Client {
 		INITIALIZING, IN_LOBBY, IN_GAME, IN_TURN, WAITINGFORGAME, IN_GAME_INITIAL
 	};
 
-	public static final String[] FUNCTIONS = { "CHAT", "CHALLENGE", "LEADERBOARD" };
+	public static final String[] FUNCTIONS = { "CHAT", "CHALLENGE", "LEADERBOARD", "UTF8" };
 
 	public Status status;
 
@@ -325,9 +326,8 @@ public class Client {
 			String[] args = new String[this.turn.getMoves().size()];
 			for (int i = 0; i < this.turn.getMoves().size(); i++) {
 				Move m = this.turn.getMoves().get(i);
-				args[i] = m.getTile().toProtocol() + Protocol.Server.Settings.DELIMITER2
-								+ m.getPosition().getX() + Protocol.Server.Settings.DELIMITER2
-								+ m.getPosition().getY();
+				args[i] = MoveCodec.toProtocol(MoveCodec.pack(m.getTile().getType(),
+								m.getPosition().getX(), m.getPosition().getY()));
 			}
 			this.server.send(Protocol.Client.MAKEMOVE, args);
 		} else if (this.turn.isSwapRequest()) {
@@ -349,30 +349,35 @@ public class Client {
 	 * Turn object, but we assume the turn contains no faults, because the
 	 * server has checked it before. Or at least, should have.
 	 * 
-	 * @param args
-	 *            The server arguments.
+	 * @param player
+	 *            The name of the player who played the turn.
+	 * @param next
+	 *            The name of the player who plays next.
+	 * @param moves
+	 *            The moves of the turn, as move records (see MoveCodec), or
+	 *            none if the player swapped tiles.
 	 */
-	public synchronized void registerTurn(String[] args) {
+	public synchronized void registerTurn(String player, String next, int[] moves) {
 
 		this.status = Client.Status.IN_GAME;
 
 		// We construct a temporary player to perform the turn.
 		Player tempPlayer = new HumanPlayer("Temp", this);
-		tempPlayer.assignHand(new Hand());
+		tempPlayer.assignHand(new Hand(false));
 		Turn turn = new Turn(boardCopy, tempPlayer);
 
-		// There is more than two arguments, meaning tiles have been placed.
-		if (args.length > 2) {
-
-			for (int i = 2; i < args.length; i++) {
+		// There are moves, meaning tiles have been placed.
+		if (moves.length > 0) {
 
-				String arg = args[i];
-
-				String[] move = arg
-								.split("\\" + String.valueOf(Protocol.Server.Settings.DELIMITER2));
+			for (int move : moves) {
 
 				// For each move, extract the tile.
-				Tile tile = new Tile(move[0].charAt(0), move[0].charAt(1));
+				if (MoveCodec.getType(move) == Tile.NO_TYPE) {
+					Util.log("error", "Could not parse server move.");
+					continue;
+				}
+				Tile type = Tile.ofType(MoveCodec.getType(move));
+				Tile tile = new Tile(type.getColor(), type.getShape());
 
 				// Add the tile to the hand, so it can be played by the
 				// temporary player.
@@ -384,8 +389,8 @@ public class Client {
 				}
 
 				// Extract the coordinates.
-				int x = Integer.parseInt(move[1]);
-				int y = Integer.parseInt(move[2]);
+				int x = MoveCodec.getX(move);
+				int y = MoveCodec.getY(move);
 
 				// Try to add the move to the turn.
 				try {
@@ -414,7 +419,7 @@ public class Client {
 
 			// Notify view of what happened.
 			try {
-				this.getView().sendNotification(args[0] + " played " + (args.length - 2)
+				this.getView().sendNotification(player + " played " + moves.length
 								+ " tiles for " + turn.calculateScore() + " points.");
 			} catch (SquareOutOfBoundsException | IllegalMoveException e) {
 				Util.log(e);
@@ -422,8 +427,8 @@ public class Client {
 
 			// Try to keep track of the score.
 			try {
-				Integer score = scores.get(args[0]) + turn.calculateScore();
-				scores.put(args[0], score);
+				Integer score = scores.get(player) + turn.calculateScore();
+				scores.put(player, score);
 			} catch (SquareOutOfBoundsException | IllegalMoveException e) {
 				Util.log(e);
 			}
@@ -434,13 +439,13 @@ public class Client {
 			// tiles.
 		} else {
 
-			this.getView().sendNotification(args[0] + " swapped tiles.");
+			this.getView().sendNotification(player + " swapped tiles.");
 
 		}
 
 		// We need to keep track of tiles used in the previous turn so we can
 		// re-add them if something goes wrong.
-		if (!args[0].equals(this.name)) {
+		if (!player.equals(this.name)) {
 			try {
 				this.getPlayerHand().addTohand(usedInPrevious);
 			} catch (HandLimitReachedExeption e) {
@@ -449,12 +454,12 @@ public class Client {
 		}
 
 		// It is now our turn!
-		if (args[1].equals(this.name)) {
+		if (next.equals(this.name)) {
 			this.turn = new Turn(boardCopy, this.player);
 			this.turn.addObserver(getView());
 			this.turn.getBoardCopy().addObserver(getView());
 			this.player.giveTurn();
-		} else if (args[0].equals(this.name)) {
+		} else if (player.equals(this.name)) {
 			usedInPrevious.clear();
 		}
 
@@ -643,6 +648,15 @@ public class Client {
 		return this.boardCopy;
 	}
 
+	/**
+	 * Returns the number of players in the current game.
+	 * 
+	 * @return The number of players.
+	 */
+	public int getNumberOfPlayers() {
+		return this.scores.size();
+	}
+
 	/**
 	 * Return the player hand for this client.
 	 * 
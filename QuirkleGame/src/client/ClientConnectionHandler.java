@@ -2,9 +2,14 @@ package client;
 
 import java.io.IOException;
 import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 
 import application.Util;
 import networking.ConnectionHandler;
+import networking.OutboundQueue;
+import protocol.Command;
+import protocol.MoveCodec;
 import protocol.Protocol;
 
 /**
@@ -20,11 +25,12 @@ public class ClientConnectionHandler extends ConnectionHandler {
 
 	/**
 	 * Constructs a new Client connection handler, with a connection to the server and a Client object.
+	 * Sending waits when the server does not keep up, rather than dropping the connection.
 	 * @param socket The socket with the server connection.
 	 * @param client The Client.
 	 */
 	public ClientConnectionHandler(Socket socket, Client client) {
-		super(socket);
+		super(socket, OutboundQueue.Policy.BLOCK);
 		this.client = client;
 	}
 
@@ -35,6 +41,22 @@ public class ClientConnectionHandler extends ConnectionHandler {
 		super.run();
 	}
 
+	@Override
+	public void parse(Command command) {
+		// Moves are decoded from the command itself.
+		if (command.getName() == Protocol.Server.MOVE && command.getArgumentCount() >= 2) {
+			try {
+				client.registerTurn(command.getArgument(0), command.getArgument(1),
+								command.getMoves(2));
+			} catch (NumberFormatException e) {
+				Util.log("error", "Could not parse server move.");
+				Util.log(e);
+			}
+		} else {
+			super.parse(command);
+		}
+	}
+
 	@Override
 	public void parse(String command, String[] args) {
 		switch (command) {
@@ -69,6 +91,9 @@ public class ClientConnectionHandler extends ConnectionHandler {
 			client.endGame(args);
 			break;
 		case Protocol.Server.HALLO:
+			boolean compact = Arrays.asList(args).contains(Protocol.Server.Features.UTF8);
+			this.setCharset(Charset.forName(compact ? Protocol.Server.Settings.COMPACTENCODING
+							: Protocol.Server.Settings.ENCODING));
 			client.start();
 			break;
 		case Protocol.Server.INVITE:
@@ -78,7 +103,13 @@ public class ClientConnectionHandler extends ConnectionHandler {
 			client.leaderboard(args);
 			break;
 		case Protocol.Server.MOVE:
-			client.registerTurn(args);
+			try {
+				client.registerTurn(args[0], args[1],
+								MoveCodec.decode(Arrays.copyOfRange(args, 2, args.length)));
+			} catch (NumberFormatException e) {
+				Util.log("error", "Could not parse server move.");
+				Util.log(e);
+			}
 			break;
 		case Protocol.Server.OKWAITFOR:
 			client.getView().sendNotification(
@@ -1,5 +1,6 @@
 package game;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -19,7 +20,12 @@ import java.util.ArrayList;
  * randomly in an array, but rather added at the end all the time. Only when
  * invoking the swapTiles and takeFromBag methods involving hand mutations query
  * random tiles from the bag, to simulate randomly drawing from a bag in real
- * life.
+ * life. A drawn tile is replaced by the last tile in the array, so drawing
+ * takes constant time.
+ * 
+ * The random generator can be given to the bag. Using a generator with a fixed
+ * seed makes the order in which tiles are drawn reproducible, so that whole
+ * games can be replayed.
  * 
  * @author Jonathan Juursema & Peter Wessels
  *
@@ -28,17 +34,26 @@ public class Bag {
 
 	private Random randomGenerator;
 
-	private List<Tile> content;
+	private Tile[] content;
+	private int size;
 
 	/**
 	 * Initializes a new, empty, bag.
-	 * 
-	 * @param game
-	 *            The game to which this bag should be assigned.
 	 */
 	public Bag() {
-		this.content = new ArrayList<Tile>();
-		randomGenerator = new Random();
+		this(new Random());
+	}
+
+	/**
+	 * Initializes a new, empty, bag which draws tiles using the given random
+	 * generator.
+	 * 
+	 * @param randomGenerator
+	 *            The random generator, for example one with a fixed seed.
+	 */
+	public Bag(Random randomGenerator) {
+		this.content = new Tile[Game.DIFFERENTCOLORS * Game.DIFFERENTSHAPES * Game.TILESPERTYPE];
+		this.randomGenerator = randomGenerator;
 	}
 
 	/**
@@ -50,7 +65,7 @@ public class Bag {
 		for (char i = Tile.FIRSTCOLOR; i <= Tile.LASTCOLOR; i++) {
 			for (char j = Tile.FIRSTSHAPE; j <= Tile.LASTSHAPE; j++) {
 				for (char k = 0; k < Game.TILESPERTYPE; k++) {
-					this.content.add(new Tile(i, j));
+					this.content[this.size++] = new Tile(i, j);
 				}
 			}
 		}
@@ -59,8 +74,9 @@ public class Bag {
 	/**
 	 * Empties the bag.
 	 */
-	public void empty() {
-		this.content.clear();
+	public synchronized void empty() {
+		Arrays.fill(this.content, 0, this.size, null);
+		this.size = 0;
 	}
 
 	/**
@@ -68,8 +84,25 @@ public class Bag {
 	 * 
 	 * @return The number of tiles.
 	 */
-	public int getNumberOfTiles() {
-		return this.content.size();
+	public synchronized int getNumberOfTiles() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the number of tiles of the given type in the bag.
+	 * 
+	 * @param type
+	 *            The type of the tiles, see Tile.getType.
+	 * @return The number of tiles of that type.
+	 */
+	public synchronized int getNumberOfTiles(int type) {
+		int count = 0;
+		for (int i = 0; i < this.size; i++) {
+			if (this.content[i].getType() == type) {
+				count++;
+			}
+		}
+		return count;
 	}
 
 	/**
@@ -120,12 +153,13 @@ public class Bag {
 		if (amount > this.getNumberOfTiles()) {
 			throw new TooFewTilesInBagException(amount, this.getNumberOfTiles());
 		}
-		List<Tile> fromBag = new ArrayList<Tile>();
+		List<Tile> fromBag = new ArrayList<Tile>(amount);
 		for (int i = 0; i < amount; i++) {
-			Tile tile = this.content.get(randomGenerator.nextInt(this.getNumberOfTiles()));
+			int index = randomGenerator.nextInt(this.size);
+			Tile tile = this.content[index];
 			hand.addToHand(tile);
 			fromBag.add(tile);
-			this.removeFromBag(tile);
+			this.removeFromBag(index);
 		}
 		return fromBag;
 	}
@@ -140,7 +174,7 @@ public class Bag {
 	public synchronized void addToBag(Tile tile) throws TooManyTilesInBag {
 		if (this.getNumberOfTiles() + 1 <= Game.DIFFERENTCOLORS * Game.DIFFERENTSHAPES
 						* Game.TILESPERTYPE) {
-			this.content.add(tile);
+			this.content[this.size++] = tile;
 		} else {
 			throw new TooManyTilesInBag(this.getNumberOfTiles(), 1);
 		}
@@ -165,17 +199,16 @@ public class Bag {
 	}
 
 	/**
-	 * Remove the given Tile from the Bag.
+	 * Remove the Tile at the given index from the Bag, by moving the last Tile
+	 * in its place.
 	 * 
-	 * @param tile
-	 *            The Tile to be removed.
-	 * @throws TileNotInBagException
+	 * @param index
+	 *            The index of the Tile to be removed.
 	 */
-	private synchronized void removeFromBag(Tile tile) throws TileNotInBagException {
-		if (!this.content.contains(tile)) {
-			throw new TileNotInBagException(tile);
-		}
-		this.content.remove(tile);
+	private synchronized void removeFromBag(int index) {
+		this.size--;
+		this.content[index] = this.content[this.size];
+		this.content[this.size] = null;
 	}
 
 	/**
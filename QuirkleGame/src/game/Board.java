@@ -1,10 +1,10 @@
 package game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import java.util.Observable;
 
@@ -13,33 +13,166 @@ import server.Game;
 
 /**
  * A class representing a game board, used by the Game class. The board is
- * represented as a native 2D array of custom objects. We use a fixed array
- * because of the relative small size of the array and to keep things
- * simplified. All public methods of this class working with coordinates assume
- * board coordinates, allowing for negative integers. Internally, these are
- * converted back to array coordinates starting at 0.
+ * sparse: only occupied positions are stored, in a hash table keyed by the
+ * packed coordinates of the position. This way the memory used by a board
+ * scales with the amount of tiles placed instead of the theoretical size of the
+ * playing field, which matters since the server hosts many games at once. All
+ * public methods of this class working with coordinates assume board
+ * coordinates, allowing for negative integers. The playing field is still
+ * bounded to SIZE positions in both directions, centered around the origin.
+ * 
+ * BoardSquares handed out by the board are lightweight views which are
+ * constructed on request. Changing the Tile on such a BoardSquare does not
+ * change the board; use placeTile and removeTile for that.
+ * 
+ * Copies of a board are copy-on-write snapshots. A copy reads through to the
+ * table of the board it was copied from and only records its own placements
+ * and removals. The original board keeps its table frozen for as long as it is
+ * shared, and takes a private copy of it as soon as it is changed itself. So
+ * copying a board (for every Turn) only allocates an overlay, and reading the
+ * tiles of the copy does not copy anything.
+ * 
+ * The statistics and the frontier described below are shared the same way,
+ * but they are not layered: the first change to either board copies them as a
+ * whole. That costs time proportional to the number of tiles plus SIZE, once
+ * per board that is changed, so a Turn with moves still pays it.
+ * 
+ * The board also keeps track of its bounding box, the amount of tiles and the
+ * list of occupied positions. These are updated on every placement and
+ * removal, so reading them does not require a scan of the board. For the
+ * bounding box the amount of tiles per row and column is kept, so that the
+ * box can also shrink when tiles are removed again.
+ * 
+ * Finally the board keeps its frontier: the empty positions next to tiles,
+ * each with the set of tile types that may be placed there without breaking a
+ * row or column. Placing or removing a tile only changes the frontier on the
+ * position itself and on the first empty positions beyond the rows and columns
+ * through it, so only those are recalculated. Looking up possible places is
+ * therefore a matter of reading the frontier. The frontier is computed from
+ * the summaries of the rows and columns on the board (see LineSummary), which
+ * are cached for every occupied position and updated in the same way.
+ * 
+ * Searches can place tiles with pushTile, which records the change in a
+ * journal so that popTile can restore the previous state. This allows trying
+ * moves on a single board without copying it. The board also keeps a Zobrist
+ * hash of its tiles up to date, to recognise positions which were reached
+ * before.
  * 
  * @author Jonathan Juursema & Peter Wessels
  *
  */
 public class Board extends Observable {
 
-	private BoardSquare[][] board;
+	public static final int SIZE = 2 * Game.TILESPERTYPE * Game.DIFFERENTCOLORS
+					* Game.DIFFERENTSHAPES;
 
 	/**
-	 * Initializes a game board for a given game.
-	 * 
-	 * @param game
-	 *            The game. You lost it.
+	 * Marks positions in an overlay which are not decided by the overlay.
+	 */
+	private static final Tile ABSENT = new Tile(Tile.BLACK, Tile.DUMMY);
+
+	/*
+	 * The journal of a board that has not been pushed to yet.
+	 */
+	private static final int[] NOKEYS = new int[0];
+	private static final Tile[] NOTILES = new Tile[0];
+
+	/**
+	 * The tiles placed on this board. If this board is a snapshot, this is an
+	 * overlay on top of base, in which null values mark removed tiles.
+	 */
+	private TileTable tiles;
+
+	/**
+	 * The frozen table this board is a snapshot of, or null.
+	 */
+	private TileTable base;
+
+	/**
+	 * Whether tiles is used as the base of a snapshot and thus should be
+	 * copied before changing it.
+	 */
+	private boolean shared;
+
+	/*
+	 * Statistics on the occupied positions and the frontier. These are shared
+	 * with snapshots until either board changes.
+	 */
+	private int numberOfTiles;
+	private int[] occupied;
+	private int[] tilesPerColumn;
+	private int[] tilesPerRow;
+	private PositionTable lines;
+	private PositionTable frontier;
+	private boolean indexesShared;
+
+	private int minX;
+	private int maxX;
+	private int minY;
+	private int maxY;
+
+	/**
+	 * The Zobrist hash of the tiles on the board.
+	 */
+	private long hash;
+
+	/*
+	 * The journal of changes made through pushTile, so they can be undone by
+	 * popTile. Each entry holds the position and the Tile that was there.
+	 */
+	private int[] journalKeys = NOKEYS;
+	private Tile[] journalTiles = NOTILES;
+	private int journalSize;
+
+	/**
+	 * Initializes an empty game board.
 	 */
 	public Board() {
-		int arraySize = 2 * Game.TILESPERTYPE * Game.DIFFERENTCOLORS * Game.DIFFERENTSHAPES;
-		this.board = new BoardSquare[arraySize][arraySize];
-		for (int i = 0; i < arraySize; i++) {
-			for (int j = 0; j < arraySize; j++) {
-				this.board[i][j] = new BoardSquare(this, i - (board.length / 2), j - (board[0].length / 2));
-			}
-		}
+		this.tiles = new TileTable();
+		this.occupied = new int[Game.TILESPERTYPE * Game.DIFFERENTCOLORS * Game.DIFFERENTSHAPES];
+		this.tilesPerColumn = new int[SIZE];
+		this.tilesPerRow = new int[SIZE];
+		this.lines = new PositionTable();
+		this.frontier = new PositionTable();
+	}
+
+	/**
+	 * Initializes a board with the given table and nothing else, for copy to
+	 * share the rest of another board.
+	 * 
+	 * @param tiles
+	 *            The table of tiles.
+	 */
+	private Board(TileTable tiles) {
+		this.tiles = tiles;
+	}
+
+	/**
+	 * Packs a pair of board coordinates into a single integer. Coordinates
+	 * should be within bounds, see isOnBoard.
+	 * 
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @return The packed coordinates.
+	 */
+	public static int key(int x, int y) {
+		return (x + (SIZE / 2)) * SIZE + (y + (SIZE / 2));
+	}
+
+	/**
+	 * Checks whether the given coordinates lie within the playing field.
+	 * 
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @return True if both coordinates are within bounds.
+	 */
+	public static boolean isOnBoard(int x, int y) {
+		return x + (SIZE / 2) >= 0 && x + (SIZE / 2) < SIZE && y + (SIZE / 2) >= 0
+						&& y + (SIZE / 2) < SIZE;
 	}
 
 	/**
@@ -54,17 +187,10 @@ public class Board extends Observable {
 	 *             When a coordinate is out of bounds.
 	 */
 	/*
-	 * @ requires xcoord <= board.length || xcoord < 0 && ycoord <= board.length || y < 0 
+	 * @ requires xcoord <= SIZE || xcoord < 0 && ycoord <= SIZE || y < 0 
 	 pure */ public BoardSquare getSquare(int xcoord, int ycoord) throws SquareOutOfBoundsException {
-		int x = xcoord + (board.length / 2);
-		if (x >= board.length || x < 0) {
-			throw new SquareOutOfBoundsException(x, board.length, 'x');
-		}
-		int y = ycoord + (board[x].length / 2);
-		if (y >= board[x].length || y < 0) {
-			throw new SquareOutOfBoundsException(y, board[x].length, 'y');
-		}
-		return this.board[x][y];
+		this.checkBounds(xcoord, ycoord);
+		return new BoardSquare(this, xcoord, ycoord, this.lookup(Board.key(xcoord, ycoord)));
 	}
 
 	/**
@@ -80,9 +206,10 @@ public class Board extends Observable {
 	 *             When a coordinate is out of bounds.
 	 */
 	/*
-	 * @ requires xcoord <= board.length || xcoord < 0 && ycoord <= board.length || y < 0 
+	 * @ requires xcoord <= SIZE || xcoord < 0 && ycoord <= SIZE || y < 0 
 	 * pure */ public void placeTile(Tile tile, int x, int y) throws SquareOutOfBoundsException {
-		this.getSquare(x, y).placeTile(tile);
+		this.checkBounds(x, y);
+		this.write(Board.key(x, y), tile);
 
 		setChanged();
 		notifyObservers("placeTile");
@@ -101,16 +228,63 @@ public class Board extends Observable {
 	 *             When a coordinate is out of bounds.
 	 */
 	/*
-	 * @ requires xcoord <= board.length || xcoord < 0 && ycoord <= board.length || y < 0 
+	 * @ requires xcoord <= SIZE || xcoord < 0 && ycoord <= SIZE || y < 0 
 	 *   ensures this.getSquare.isEmpty()
 	 */
 	 public void removeTile(int x, int y) throws SquareOutOfBoundsException {
-		this.getSquare(x, y).removeTile();
+		this.checkBounds(x, y);
+		this.write(Board.key(x, y), null);
 
 		setChanged();
 		notifyObservers("removeTile");
 	 }
 
+	/**
+	 * Places a Tile on the board such that it can be undone with popTile. This
+	 * is meant for searching through moves on a single board: unlike placeTile
+	 * it does not notify observers. Everything the board keeps track of, like
+	 * its bounding box, frontier and line summaries, is restored on undo.
+	 * 
+	 * @param tile
+	 *            The Tile to be placed, or null to empty the position.
+	 * @param x
+	 *            The x coordinate of the Tile.
+	 * @param y
+	 *            The y coordinate of the Tile.
+	 * @return A token to pass to popTile to undo this and any later pushes.
+	 * @throws SquareOutOfBoundsException
+	 *             When a coordinate is out of bounds.
+	 */
+	public int pushTile(Tile tile, int x, int y) throws SquareOutOfBoundsException {
+		this.checkBounds(x, y);
+		int token = this.journalSize;
+		if (this.journalSize == this.journalKeys.length) {
+			int length = Math.max(8, this.journalKeys.length * 2);
+			this.journalKeys = Arrays.copyOf(this.journalKeys, length);
+			this.journalTiles = Arrays.copyOf(this.journalTiles, length);
+		}
+		int key = Board.key(x, y);
+		this.journalKeys[this.journalSize] = key;
+		this.journalTiles[this.journalSize] = this.write(key, tile);
+		this.journalSize++;
+		return token;
+	}
+
+	/**
+	 * Undoes the pushes made since the one which returned the given token,
+	 * including that push itself, in reverse order.
+	 * 
+	 * @param token
+	 *            A token returned by pushTile.
+	 */
+	public void popTile(int token) {
+		while (this.journalSize > token && this.journalSize > 0) {
+			this.journalSize--;
+			this.write(this.journalKeys[this.journalSize], this.journalTiles[this.journalSize]);
+			this.journalTiles[this.journalSize] = null;
+		}
+	}
+
 	/**
 	 * Retrieves the Tile that is currently on a specific position on the Board.
 	 * 
@@ -125,89 +299,409 @@ public class Board extends Observable {
 	 * @throws SquareOutOfBoundsException
 	 *             When a coordinate is out of bounds.
 	 */
-	/* @ requires xcoord <= board.length || xcoord < 0 && ycoord <= board.length || y < 0 pure
+	/* @ requires xcoord <= SIZE || xcoord < 0 && ycoord <= SIZE || y < 0 pure
 	 */ public Tile getTile(int x, int y) throws SquareOutOfBoundsException {
-		return this.getSquare(x, y).getTile();
+		this.checkBounds(x, y);
+		return this.lookup(Board.key(x, y));
 	}
 
 	/**
-	 * Overwrites the current board with a new board. This is useful after
-	 * making copies.
+	 * Returns whether a position on the board is empty. Positions outside the
+	 * playing field are considered empty.
 	 * 
-	 * @param theBoard
-	 *            The new BoardSquare array.
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @return True if no Tile is placed on the position.
 	 */
-	//@ requires theBoard.length != 0
-	//@ ensures board = theBoard 
-	public void setBoard(BoardSquare[][] theBoard) {
-		this.board = theBoard;
+	/*@ pure */ public boolean isEmpty(int x, int y) {
+		return !Board.isOnBoard(x, y) || this.lookup(Board.key(x, y)) == null;
 	}
 
 	/**
-	 * Returns a copy of the game board.
+	 * Returns the amount of tiles currently placed on the board.
+	 * 
+	 * @return The amount of tiles.
+	 */
+	/*@ pure */ public int getNumberOfTiles() {
+		return this.numberOfTiles;
+	}
+
+	/**
+	 * Returns the Zobrist hash of the board, see Zobrist. Boards with the same
+	 * types of tiles on the same positions have the same hash, regardless of
+	 * the order in which the tiles were placed.
+	 * 
+	 * @return The hash.
+	 */
+	/*@ pure */ public long getHash() {
+		return this.hash;
+	}
+
+	/**
+	 * Returns a copy of the game board. The copy is a copy-on-write snapshot:
+	 * changes to either board are not visible on the other, but no tiles are
+	 * copied until necessary. Observers and the journal of pushTile are not
+	 * copied.
 	 * 
-	 * @param theBoard
-	 *            The (empty) board to which BoardSquares should be associated.
 	 * @return A copy of the game board.
 	 */
-	//@ requires theBoard.length != 0
-	/*@ pure */
-	public BoardSquare[][] copy(Board theBoard) {
-		// We make a new 2D-array of board squares of the same size as our
-		// current board.
-		BoardSquare[][] boardCopy = new BoardSquare[this.board.length][this.board[0].length];
-		// We loop over every x-coordinate to copy every column.
-		for (int i = 0; i < this.board.length; i++) {
-			/*
-			 * We cannot just assign, because this would barely duplicate the
-			 * address. To truly copy, we construct a new BoardSquare with the
-			 * same properties.
-			 */
-			for (int j = 0; j < this.board[i].length; j++) {
-				boardCopy[i][j] = new BoardSquare(theBoard, this.board[i][j].getX(), this.board[i][j].getY(),
-						this.board[i][j].getTile());
+	public Board copy() {
+		Board copy;
+		if (this.base == null) {
+			// We share our table and freeze it until we change ourselves.
+			copy = new Board(new TileTable());
+			copy.base = this.tiles;
+			this.shared = true;
+		} else {
+			// We are a snapshot ourselves, so the copy can share our base and
+			// only needs our own (small) overlay.
+			copy = new Board(this.tiles.copy());
+			copy.base = this.base;
+		}
+		copy.numberOfTiles = this.numberOfTiles;
+		copy.occupied = this.occupied;
+		copy.tilesPerColumn = this.tilesPerColumn;
+		copy.tilesPerRow = this.tilesPerRow;
+		copy.lines = this.lines;
+		copy.frontier = this.frontier;
+		copy.minX = this.minX;
+		copy.maxX = this.maxX;
+		copy.minY = this.minY;
+		copy.maxY = this.maxY;
+		copy.hash = this.hash;
+		copy.indexesShared = true;
+		this.indexesShared = true;
+		return copy;
+	}
+
+	/**
+	 * Looks up the Tile on a position, taking the base of a snapshot into
+	 * account.
+	 * 
+	 * @param key
+	 *            The packed coordinates.
+	 * @return The Tile, or null if the position is empty.
+	 */
+	private Tile lookup(int key) {
+		if (this.base == null) {
+			return this.tiles.get(key);
+		}
+		Tile tile = this.tiles.get(key, ABSENT);
+		return tile == ABSENT ? this.base.get(key) : tile;
+	}
+
+	/**
+	 * Changes the Tile on a position, copying the table first when it is
+	 * shared with a snapshot.
+	 * 
+	 * @param key
+	 *            The packed coordinates.
+	 * @param tile
+	 *            The new Tile, or null to empty the position.
+	 * @return The Tile previously on the position, or null.
+	 */
+	private Tile write(int key, Tile tile) {
+		Tile previous = this.lookup(key);
+		if (this.shared) {
+			this.tiles = this.tiles.copy();
+			this.shared = false;
+		}
+
+		if (tile != null) {
+			this.tiles.put(key, tile);
+		} else if (this.base != null && this.base.get(key) != null) {
+			// The tile is on the base, so we remember the removal.
+			this.tiles.put(key, null);
+		} else {
+			this.tiles.remove(key);
+		}
+
+		if (previous != tile) {
+			if (previous != null && previous.getType() != Tile.NO_TYPE) {
+				this.hash ^= Zobrist.of(key, previous.getType());
+			}
+			if (tile != null && tile.getType() != Tile.NO_TYPE) {
+				this.hash ^= Zobrist.of(key, tile.getType());
+			}
+
+			this.unshareIndexes();
+			if (previous == null) {
+				this.occupy(key);
+			} else if (tile == null) {
+				this.vacate(key);
+			}
+			this.updateLines(key);
+			this.updateFrontier(key);
+		}
+		return previous;
+	}
+
+	/**
+	 * Updates the statistics after a tile has been placed on an empty
+	 * position.
+	 * 
+	 * @param key
+	 *            The packed coordinates of the position.
+	 */
+	private void occupy(int key) {
+		int column = key / SIZE;
+		int row = key % SIZE;
+
+		if (this.numberOfTiles == this.occupied.length) {
+			this.occupied = Arrays.copyOf(this.occupied, this.occupied.length * 2);
+		}
+		this.occupied[this.numberOfTiles] = key;
+
+		if (this.numberOfTiles == 0) {
+			this.minX = column;
+			this.maxX = column;
+			this.minY = row;
+			this.maxY = row;
+		} else {
+			this.minX = Math.min(this.minX, column);
+			this.maxX = Math.max(this.maxX, column);
+			this.minY = Math.min(this.minY, row);
+			this.maxY = Math.max(this.maxY, row);
+		}
+
+		this.numberOfTiles++;
+		this.tilesPerColumn[column]++;
+		this.tilesPerRow[row]++;
+	}
+
+	/**
+	 * Updates the statistics after a tile has been removed from a position.
+	 * 
+	 * @param key
+	 *            The packed coordinates of the position.
+	 */
+	private void vacate(int key) {
+		int column = key / SIZE;
+		int row = key % SIZE;
+
+		// Swap the position with the last one in the list.
+		for (int i = 0; i < this.numberOfTiles; i++) {
+			if (this.occupied[i] == key) {
+				this.occupied[i] = this.occupied[this.numberOfTiles - 1];
+				break;
+			}
+		}
+
+		this.numberOfTiles--;
+		this.tilesPerColumn[column]--;
+		this.tilesPerRow[row]--;
+
+		// Shrink the bounding box when an outer row or column became empty.
+		if (this.numberOfTiles > 0) {
+			while (this.tilesPerColumn[this.minX] == 0) {
+				this.minX++;
+			}
+			while (this.tilesPerColumn[this.maxX] == 0) {
+				this.maxX--;
+			}
+			while (this.tilesPerRow[this.minY] == 0) {
+				this.minY++;
+			}
+			while (this.tilesPerRow[this.maxY] == 0) {
+				this.maxY--;
 			}
 		}
-		// Finally, we construct a new Board using this copy of the board.
-		return boardCopy;
+	}
+
+	/**
+	 * Takes private copies of the statistics and the frontier if they are
+	 * shared with a snapshot. This is the part of a change that is
+	 * proportional to the board rather than to the change.
+	 */
+	private void unshareIndexes() {
+		if (this.indexesShared) {
+			this.occupied = this.occupied.clone();
+			this.tilesPerColumn = this.tilesPerColumn.clone();
+			this.tilesPerRow = this.tilesPerRow.clone();
+			this.lines = this.lines.copy();
+			this.frontier = this.frontier.copy();
+			this.indexesShared = false;
+		}
 	}
 
 	/**
 	 * Returns the minimal and maximal X and Y values that are occupied on the
-	 * board.
+	 * board. The origin is always included.
 	 * 
 	 * @return An array of integers, where the indexes map the values as
 	 *         follows: 0 > smallest X 1 > largest X 2 > smallest Y 3 > largest
 	 *         Y
 	 */
 	/*@ pure */ public int[] getMinMax() {
-		int minmax[] = new int[4];
-
-		for (int i = 0; i < this.board.length; i++) {
-			for (int j = 0; j < this.board[i].length; j++) {
-				BoardSquare s = this.board[i][j];
-				if (!s.isEmpty()) {
-					if (s.getX() > minmax[1]) {
-						minmax[1] = s.getX();
-					} else if (s.getX() < minmax[0]) {
-						minmax[0] = s.getX();
-					}
-					if (s.getY() > minmax[3]) {
-						minmax[3] = s.getY();
-					} else if (s.getY() < minmax[2]) {
-						minmax[2] = s.getY();
-					}
-				}
-			}
+		if (this.numberOfTiles == 0) {
+			return new int[4];
+		}
+		return new int[] { Math.min(this.getMinX(), 0), Math.max(this.getMaxX(), 0),
+				Math.min(this.getMinY(), 0), Math.max(this.getMaxY(), 0) };
+	}
+
+	/**
+	 * Returns the smallest occupied x coordinate. Only meaningful when the
+	 * board is not empty.
+	 * 
+	 * @return The smallest x coordinate.
+	 */
+	/*@ pure */ public int getMinX() {
+		return this.minX - (SIZE / 2);
+	}
+
+	/**
+	 * Returns the largest occupied x coordinate. Only meaningful when the board
+	 * is not empty.
+	 * 
+	 * @return The largest x coordinate.
+	 */
+	/*@ pure */ public int getMaxX() {
+		return this.maxX - (SIZE / 2);
+	}
+
+	/**
+	 * Returns the smallest occupied y coordinate. Only meaningful when the
+	 * board is not empty.
+	 * 
+	 * @return The smallest y coordinate.
+	 */
+	/*@ pure */ public int getMinY() {
+		return this.minY - (SIZE / 2);
+	}
+
+	/**
+	 * Returns the largest occupied y coordinate. Only meaningful when the board
+	 * is not empty.
+	 * 
+	 * @return The largest y coordinate.
+	 */
+	/*@ pure */ public int getMaxY() {
+		return this.maxY - (SIZE / 2);
+	}
+
+	/**
+	 * Returns the packed coordinates of an occupied position. Together with
+	 * getNumberOfTiles this allows walking over all tiles on the board. The
+	 * order of the positions is not defined and changes when tiles are
+	 * removed.
+	 * 
+	 * @param index
+	 *            The index, from 0 up to getNumberOfTiles().
+	 * @return The packed coordinates, see key.
+	 */
+	/*@ pure */ public int getOccupiedKey(int index) {
+		return this.occupied[index];
+	}
+
+	/**
+	 * Returns the BoardSquares of all occupied positions.
+	 * 
+	 * @return A list of occupied BoardSquares.
+	 */
+	/*@ pure */ public List<BoardSquare> getOccupiedSquares() {
+		List<BoardSquare> squares = new ArrayList<BoardSquare>(this.numberOfTiles);
+		for (int i = 0; i < this.numberOfTiles; i++) {
+			int key = this.occupied[i];
+			squares.add(new BoardSquare(this, Board.keyToX(key), Board.keyToY(key),
+							this.lookup(key)));
 		}
+		return squares;
+	}
+
+	/**
+	 * Returns the x coordinate of packed coordinates.
+	 * 
+	 * @param key
+	 *            The packed coordinates.
+	 * @return The x coordinate.
+	 */
+	public static int keyToX(int key) {
+		return key / SIZE - (SIZE / 2);
+	}
+
+	/**
+	 * Returns the y coordinate of packed coordinates.
+	 * 
+	 * @param key
+	 *            The packed coordinates.
+	 * @return The y coordinate.
+	 */
+	public static int keyToY(int key) {
+		return key % SIZE - (SIZE / 2);
+	}
 
-		return minmax;
+	/**
+	 * Throws an exception if the given coordinates are not on the playing
+	 * field.
+	 * 
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @throws SquareOutOfBoundsException
+	 *             When a coordinate is out of bounds.
+	 */
+	private void checkBounds(int x, int y) throws SquareOutOfBoundsException {
+		if (x + (SIZE / 2) >= SIZE || x + (SIZE / 2) < 0) {
+			throw new SquareOutOfBoundsException(x + (SIZE / 2), SIZE, 'x');
+		}
+		if (y + (SIZE / 2) >= SIZE || y + (SIZE / 2) < 0) {
+			throw new SquareOutOfBoundsException(y + (SIZE / 2), SIZE, 'y');
+		}
+	}
+
+
+	/**
+	 * Returns the set of tile types that may be placed on a position, as a bit
+	 * mask in which bit Tile.getType() is set for every type allowed. Only
+	 * empty positions next to a tile have a nonzero mask, except for the
+	 * origin when the board is empty.
+	 * 
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @return The bit mask of allowed tile types.
+	 */
+	/*@ pure */ public long getPossibleTypes(int x, int y) {
+		if (!Board.isOnBoard(x, y)) {
+			return 0;
+		}
+		if (this.isEmpty(0, 0)) {
+			return x == 0 && y == 0 ? LineSummary.ALL_TYPES : 0;
+		}
+		return this.frontier.get(Board.key(x, y));
+	}
+
+	/**
+	 * Returns the positions on which a tile can be placed, being the frontier
+	 * of the board or only the origin when the board is empty. The returned
+	 * array is a copy, so the board may be changed while using it.
+	 * 
+	 * @return The packed coordinates of the positions in ascending order, see
+	 *         key.
+	 */
+	/*@ pure */ public int[] getFrontier() {
+		if (this.isEmpty(0, 0)) {
+			return new int[] { Board.key(0, 0) };
+		}
+		int[] keys = new int[this.frontier.size()];
+		int count = 0;
+		for (int i = 0; i < this.frontier.capacity(); i++) {
+			if (this.frontier.keyAt(i) >= 0) {
+				keys[count++] = this.frontier.keyAt(i);
+			}
+		}
+		Arrays.sort(keys);
+		return keys;
 	}
 
 	/**
 	 * This method returns the possible places on which the tile can be placed.
-	 * The method uses the method getAllPossiblePlaces to return all the
-	 * possible BoardSquares to place an tile.
+	 * The places are looked up in the frontier of the board.
 	 * 
 	 * @param tile
 	 *            The tile on which the boardsquares can be placed.
@@ -215,19 +709,37 @@ public class Board extends Observable {
 	 * @throws SquareOutOfBoundsException
 	 */
 	public List<BoardSquare> getPossiblePlaceByTile(Tile tile) throws SquareOutOfBoundsException {
+		return this.getPossiblePlaceByType(tile.getType());
+	}
+
+	/**
+	 * This method returns the possible places on which a tile of the given
+	 * type can be placed, see Tile.getType.
+	 * 
+	 * @param type
+	 *            The type of the tile.
+	 * @return A list of boardsquares on which the tile can be placed.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public List<BoardSquare> getPossiblePlaceByType(int type) throws SquareOutOfBoundsException {
 		// Creates a new returnList
 		List<BoardSquare> retList = new ArrayList<BoardSquare>();
+		if (type == Tile.NO_TYPE) {
+			return retList;
+		}
 
-		// Loops over each possible boardsquares
-		for (Entry<BoardSquare, List<Tile>> entry : this.getAllPossiblePlaces().entrySet()) {
-			// For each boardsquare a list of tiles is retrieved.
-			// This loops over every potential tile
-			for (Tile t : entry.getValue()) {
-				// If the tile is exactly the same as the variable turn
-				if (t.getColor() == tile.getColor() && t.getShape() == tile.getShape()) {
-					// Then the tile will be added to the return list.
-					retList.add(entry.getKey());
-				}
+		// If the origin is empty this is the only place to place a tile.
+		if (this.isEmpty(0, 0)) {
+			retList.add(this.getSquare(0, 0));
+			return retList;
+		}
+
+		// Loops over the frontier and adds every position allowing the tile.
+		long types = 1L << type;
+		for (int i = 0; i < this.frontier.capacity(); i++) {
+			int key = this.frontier.keyAt(i);
+			if (key >= 0 && (this.frontier.valueAt(i) & types) != 0) {
+				retList.add(new BoardSquare(this, Board.keyToX(key), Board.keyToY(key), null));
 			}
 		}
 
@@ -260,16 +772,16 @@ public class Board extends Observable {
 
 		// Creates a new return list
 		List<BoardSquare> retList = new ArrayList<BoardSquare>();
+		if (tile.getType() == Tile.NO_TYPE) {
+			return retList;
+		}
+		long type = 1L << tile.getType();
+
 		// Loops over all boardsquares which can contain a tile according to the
-		// selectedMoves
-		for (Entry<BoardSquare, List<Tile>> entry : getPossiblePlacesByMoves(selectedMoves).entrySet()) {
-			// Loops over every Tile
-			for (Tile t : entry.getValue()) {
-				// If the tile t is the same as the selected tiles
-				if (t.getColor() == tile.getColor() && t.getShape() == tile.getShape()) {
-					// The tile will be added.
-					retList.add(entry.getKey());
-				}
+		// selectedMoves and keeps those allowing the tile.
+		for (BoardSquare b : getPossiblePlacesByMoves(selectedMoves).keySet()) {
+			if ((this.getPossibleTypes(b.getX(), b.getY()) & type) != 0) {
+				retList.add(b);
 			}
 		}
 
@@ -333,9 +845,10 @@ public class Board extends Observable {
 	}
 
 	/**
-	 * The main method with checks all the boardsquares that are selected and
-	 * generates a map with relates an empty boardsquare to possible tiles that
-	 * can be place.
+	 * Generates a map which relates empty boardsquares to the tiles that can
+	 * be placed on them. Without selected moves this is the whole frontier of
+	 * the board. With selected moves only the ends of the sequences through
+	 * the selected moves are considered, in the direction(s) the moves allow.
 	 * 
 	 * @param selected
 	 *            The selected moves
@@ -354,389 +867,261 @@ public class Board extends Observable {
 
 		// If the 0,0 boardsquare is empty this is the only place to place a
 		// tile.
-		if (this.getSquare(0, 0).isEmpty()) {
+		if (this.isEmpty(0, 0)) {
+			retList.put(this.getSquare(0, 0), Board.typesToTiles(LineSummary.ALL_TYPES));
+			return retList;
+		}
 
-			// All tiles will be added to the potential list of tiles
-			List<Tile> allTiles = new ArrayList<Tile>();
-			for (char i = Tile.FIRSTCOLOR; i <= Tile.LASTCOLOR; i++) {
-				for (char j = Tile.FIRSTSHAPE; j <= Tile.LASTSHAPE; j++) {
-					allTiles.add(new Tile(j, i));
+		if (selected == null || selected.size() == 0) {
+			// Every position in the frontier is a possible place.
+			for (int i = 0; i < this.frontier.capacity(); i++) {
+				int key = this.frontier.keyAt(i);
+				if (key >= 0) {
+					retList.put(new BoardSquare(this, Board.keyToX(key), Board.keyToY(key), null),
+									Board.typesToTiles(this.frontier.valueAt(i)));
 				}
 			}
-
-			retList.put(this.getSquare(0, 0), allTiles);
 			return retList;
 		}
 
-		// A list will be created to map the boardsquares to the potential
-		// tiles.
-		// First all the tiles will be checked in the X direction.
-		Map<BoardSquare, List<Tile>> possibleTilesX = new HashMap<BoardSquare, List<Tile>>();
-
-		// An ignore list will be created to add tiles that are already checked.
-		List<BoardSquare> igList = new ArrayList<BoardSquare>();
-
-		// If no moves are added the min and max coordinates are retrieved
-		int[] minmax = this.getMinMax();
-
-		// The list with all the to be checked coordinates
-		List<Integer> yList = new ArrayList<Integer>();
-		List<Integer> xList = new ArrayList<Integer>();
-
-		// If no moves are selected, the coordinats of the all boardsquares will
-		// be added.
-		if (selected == null || selected.size() == 0) {
-
-			for (int y = (minmax[3] + 1); y >= (minmax[2] - 1); y--) {
-				yList.add(y);
+		// Otherwise only the ends of the sequences through the moves are.
+		for (Move m : selected) {
+			int x = m.getPosition().getX();
+			int y = m.getPosition().getY();
+			if (!isColumn) {
+				this.addSequenceEnd(retList, x, y, -1, 0);
+				this.addSequenceEnd(retList, x, y, 1, 0);
 			}
-
-			for (int x = minmax[0] - 1; x <= (minmax[1] + 1); x++) {
-				xList.add(x);
+			if (!isRow) {
+				this.addSequenceEnd(retList, x, y, 0, -1);
+				this.addSequenceEnd(retList, x, y, 0, 1);
 			}
-		} else if (selected != null) {
-			// If moves are selected the coordinates of the moves will be added.
-			for (Move m : selected) {
-				if (!yList.contains(m.getPosition().getY())) {
-					yList.add(m.getPosition().getY());
-				}
-				if (!xList.contains(m.getPosition().getX())) {
-					xList.add(m.getPosition().getX());
-				}
-			}
-
 		}
 
-		// If the moves does not form a column or the moves does not form a
-		// sequence at all each row will be checked.
-		if (!isColumn) {
+		return retList;
+	}
 
-			for (Integer y : yList) {
-				for (Integer x : xList) {
-
-					// Sets the current boardsquare.
-					BoardSquare current = this.getSquare(x, y);
-
-					// If the current boardsquare is not empty and is not
-					// checked at all
-					if (!current.isEmpty() && !igList.contains(current)) {
-
-						// The boardsquares will be maped to the tiles
-						Map<BoardSquare, Tile> sequence = new HashMap<BoardSquare, Tile>();
-
-						// The most left boardsquare is retrieved here.
-						BoardSquare lefty = current.getNeighbour(3);
-
-						while (!lefty.isEmpty()) {
-							sequence.put(lefty, lefty.getTile());
-							lefty = lefty.getNeighbour(3);
-						}
-
-						BoardSquare emptyLeft = lefty;
-
-						// Put the current boardsquare to the sequence
-						sequence.put(current, current.getTile());
-
-						// And to the ignore list.
-						igList.add(current);
-
-						// Now the most right tile will be checked.
-						BoardSquare temp = this.getSquare(current.getX(), current.getY());
-
-						while (!temp.isEmpty()) {
-							sequence.put(temp, temp.getTile());
-							igList.add(temp);
-
-							temp = temp.getNeighbour(1);
-						}
-
-						BoardSquare emptyRight = temp;
-
-						// A list of nomiatedTiles will be created
-						List<Tile> nominatedTiles = new ArrayList<Tile>();
-
-						List<Character> colors = new ArrayList<Character>();
-						for (char i = Tile.FIRSTCOLOR; i <= Tile.LASTCOLOR; i++) {
-							colors.add(i);
-						}
-
-						List<Character> shapes = new ArrayList<Character>();
-						for (char j = Tile.FIRSTSHAPE; j <= Tile.LASTSHAPE; j++) {
-							shapes.add(j);
-						}
-
-						// The sequence will be examened
-						int count = 0;
-						Tile firstInSequence = null;
-						Tile secondInSequence = null;
-						boolean isSameColor = false;
-						for (Entry<BoardSquare, Tile> entry : sequence.entrySet()) {
-							if (count == 0) {
-								firstInSequence = entry.getValue();
-							}
-
-							if (count == 1) {
-								secondInSequence = entry.getValue();
-							}
-							count++;
-						}
-
-						// The identity of the sequence will be determined
-						if (count > 1 && (firstInSequence.getColor() == secondInSequence.getColor())) {
-							isSameColor = true;
-						} else if (count > 1 && (firstInSequence.getShape() == secondInSequence.getShape())) {
-							isSameColor = false;
-						}
-
-						// If the sequence is really a sequence
-						if (sequence.size() > 1 && sequence.size() < 6) {
-							// If the identity of the row is the same color
-							if (isSameColor) {
-								// Then the shapes currently in the sequence
-								// will be removed.
-								for (Entry<BoardSquare, Tile> entry : sequence.entrySet()) {
-									Character shapeToRemove = null;
-									for (Character shape : shapes) {
-										if (shape == entry.getValue().getShape()) {
-											shapeToRemove = shape;
-										}
-									}
-
-									shapes.remove(shapeToRemove);
-								}
-
-								for (Character shape : shapes) {
-									nominatedTiles.add(new Tile(firstInSequence.getColor(), shape));
-								}
-
-							} else {
-								// If the sequence have same shapes the colors
-								// will be removed
-								for (Entry<BoardSquare, Tile> entry : sequence.entrySet()) {
-									Character colorToRemove = null;
-									for (Character color : colors) {
-										if (color == entry.getValue().getColor()) {
-											colorToRemove = color;
-										}
-									}
-
-									colors.remove(colorToRemove);
-								}
-
-								for (Character color : colors) {
-									nominatedTiles.add(new Tile(color, firstInSequence.getShape()));
-								}
-							}
-
-							// Put the possible boardsquare mapped to the
-							// nominated tiles into the map
-							possibleTilesX.put(emptyLeft, nominatedTiles);
-							possibleTilesX.put(emptyRight, nominatedTiles);
-						} else if (sequence.size() == 1) {
-							// If the sequence is of size 1, all the tiles with
-							// the same color with the same shape will be added.
-							for (Character color : colors) {
-								if (firstInSequence.getColor() != color) {
-									nominatedTiles.add(new Tile(color, firstInSequence.getShape()));
-								}
-							}
-
-							for (Character shape : shapes) {
-								if (firstInSequence.getShape() != shape) {
-									nominatedTiles.add(new Tile(firstInSequence.getColor(), shape));
-								}
-							}
-
-							possibleTilesX.put(emptyLeft, nominatedTiles);
-							possibleTilesX.put(emptyRight, nominatedTiles);
-						} else if (sequence.size() == 6) {
-							// If the sequence is 6 tiles in size it is not
-							// possible to place any tiles.
-							possibleTilesX.put(emptyLeft, null);
-							possibleTilesX.put(emptyRight, null);
-						}
-					}
+	/**
+	 * Walks from a position in a direction until the first empty position and
+	 * adds that position to the map if any tile can be placed there.
+	 * 
+	 * @param places
+	 *            The map to add the position to.
+	 * @param x
+	 *            The x coordinate to start from.
+	 * @param y
+	 *            The y coordinate to start from.
+	 * @param dx
+	 *            The step in x direction.
+	 * @param dy
+	 *            The step in y direction.
+	 */
+	private void addSequenceEnd(Map<BoardSquare, List<Tile>> places, int x, int y, int dx, int dy) {
+		while (!this.isEmpty(x, y)) {
+			x += dx;
+			y += dy;
+		}
+		long types = this.getPossibleTypes(x, y);
+		if (types != 0) {
+			places.put(new BoardSquare(this, x, y, null), Board.typesToTiles(types));
+		}
+	}
 
-				}
+	/**
+	 * Updates the frontier around a position of which the Tile changed. Only
+	 * the position itself and the first empty positions beyond the sequences
+	 * through it can have changed.
+	 * 
+	 * @param key
+	 *            The packed coordinates of the position.
+	 */
+	private void updateFrontier(int key) {
+		int x = Board.keyToX(key);
+		int y = Board.keyToY(key);
+		this.refreshFrontier(x, y);
+		for (int direction = 0; direction < 4; direction++) {
+			int dx = direction == 1 ? 1 : direction == 3 ? -1 : 0;
+			int dy = direction == 0 ? 1 : direction == 2 ? -1 : 0;
+			int nx = x + dx;
+			int ny = y + dy;
+			while (!this.isEmpty(nx, ny)) {
+				nx += dx;
+				ny += dy;
 			}
+			this.refreshFrontier(nx, ny);
 		}
+	}
 
-		// The same goes for the tiles in Y direction.
-		Map<BoardSquare, List<Tile>> possibleTilesY = new HashMap<BoardSquare, List<Tile>>();
-		igList.clear();
-
-		if (!isRow) {
-
-			for (Integer x : xList) {
-				for (Integer y : yList) {
-
-					BoardSquare current = this.getSquare(x, y);
-
-					if (!current.isEmpty() && !igList.contains(current)) {
-
-						Map<BoardSquare, Tile> sequence = new HashMap<BoardSquare, Tile>();
-
-						BoardSquare upty = current.getNeighbour(0);
-
-						while (!upty.isEmpty()) {
-							sequence.put(upty, upty.getTile());
-							upty = upty.getNeighbour(0);
-						}
-						BoardSquare emptyUp = upty;
-
-						igList.add(current);
-						BoardSquare temp = this.getSquare(current.getX(), current.getY());
-
-						while (!temp.isEmpty()) {
-							sequence.put(temp, temp.getTile());
-							igList.add(temp);
-
-							temp = temp.getNeighbour(2);
-						}
-
-						BoardSquare emptyDown = temp;
-
-						List<Tile> nominatedTiles = new ArrayList<Tile>();
-
-						List<Character> colors = new ArrayList<Character>();
-						for (char i = Tile.FIRSTCOLOR; i <= Tile.LASTCOLOR; i++) {
-							colors.add(i);
-						}
-
-						List<Character> shapes = new ArrayList<Character>();
-						for (char j = Tile.FIRSTSHAPE; j <= Tile.LASTSHAPE; j++) {
-							shapes.add(j);
-						}
-
-						int count = 0;
-						Tile firstInSequence = null;
-						Tile secondInSequence = null;
-						boolean isSameColor = false;
-						for (Entry<BoardSquare, Tile> entry : sequence.entrySet()) {
-							if (count == 0) {
-								firstInSequence = entry.getValue();
-							}
-
-							if (count == 1) {
-								secondInSequence = entry.getValue();
-							}
-							count++;
-						}
-
-						if (count > 1 && (firstInSequence.getColor() == secondInSequence.getColor())) {
-							isSameColor = true;
-						} else if (count > 1 && (firstInSequence.getShape() == secondInSequence.getShape())) {
-							isSameColor = false;
-						}
-
-						if (sequence.size() > 1 && sequence.size() < 6) {
-							if (isSameColor) {
-								for (Entry<BoardSquare, Tile> entry : sequence.entrySet()) {
-									Character shapeToRemove = null;
-									for (Character shape : shapes) {
-										if (shape == entry.getValue().getShape()) {
-											shapeToRemove = shape;
-										}
-									}
-
-									shapes.remove(shapeToRemove);
-								}
-
-								for (Character shape : shapes) {
-									nominatedTiles.add(new Tile(firstInSequence.getColor(), shape));
-								}
-
-							} else {
-								for (Entry<BoardSquare, Tile> entry : sequence.entrySet()) {
-									Character colorToRemove = null;
-									for (Character color : colors) {
-										if (color == entry.getValue().getColor()) {
-											colorToRemove = color;
-										}
-									}
-
-									colors.remove(colorToRemove);
-								}
-
-								for (Character color : colors) {
-									nominatedTiles.add(new Tile(color, firstInSequence.getShape()));
-								}
-							}
-
-							possibleTilesY.put(emptyUp, nominatedTiles);
-							possibleTilesY.put(emptyDown, nominatedTiles);
-						} else if (sequence.size() == 1) {
-
-							for (Character color : colors) {
-								if (color != firstInSequence.getColor()) {
-									nominatedTiles.add(new Tile(color, firstInSequence.getShape()));
-								}
-							}
-
-							for (Character shape : shapes) {
-								if (shape != firstInSequence.getShape()) {
-									nominatedTiles.add(new Tile(firstInSequence.getColor(), shape));
-								}
-							}
-							possibleTilesY.put(emptyUp, nominatedTiles);
-							possibleTilesY.put(emptyDown, nominatedTiles);
-						} else if (sequence.size() == 6) {
-							possibleTilesY.put(emptyUp, null);
-							possibleTilesY.put(emptyDown, null);
-						}
-					}
-
-				}
-			}
+	/**
+	 * Recalculates the frontier entry of a single position from the sequences
+	 * it would join.
+	 * 
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 */
+	private void refreshFrontier(int x, int y) {
+		if (!Board.isOnBoard(x, y)) {
+			return;
+		}
+		int key = Board.key(x, y);
+		if (!this.isEmpty(x, y)) {
+			this.frontier.remove(key);
+			return;
 		}
 
-		// Creating a map for all possible places.
-		Map<BoardSquare, List<Tile>> possiblePlaces = new HashMap<BoardSquare, List<Tile>>();
+		int row = this.getRowSummary(x, y);
+		int column = this.getColumnSummary(x, y);
+		long types = LineSummary.allowedTypes(row) & LineSummary.allowedTypes(column);
+		if ((row == LineSummary.EMPTY && column == LineSummary.EMPTY) || types == 0) {
+			this.frontier.remove(key);
+		} else {
+			this.frontier.put(key, types);
+		}
+	}
 
-		// Put the boardsquares found in the array
-		possiblePlaces.putAll(possibleTilesX);
-		possiblePlaces.putAll(possibleTilesY);
+	/**
+	 * Updates the cached line summaries around a position of which the Tile
+	 * changed. The rows and columns through the position itself, or on both
+	 * sides of it when it became empty, are summarized again.
+	 * 
+	 * @param key
+	 *            The packed coordinates of the position.
+	 */
+	private void updateLines(int key) {
+		int x = Board.keyToX(key);
+		int y = Board.keyToY(key);
+		if (this.isEmpty(x, y)) {
+			this.lines.remove(key);
+			this.summarizeRun(x - 1, y, 1, 0);
+			this.summarizeRun(x + 1, y, 1, 0);
+			this.summarizeRun(x, y - 1, 0, 1);
+			this.summarizeRun(x, y + 1, 0, 1);
+		} else {
+			this.summarizeRun(x, y, 1, 0);
+			this.summarizeRun(x, y, 0, 1);
+		}
+	}
 
-		// Here all possible tiles will be checked if both boarsquares got
-		// duplicated entries. If so, only the tiles that are contained in the
-		// both lists will stay in the array.
-		for (Entry<BoardSquare, List<Tile>> entry : possibleTilesX.entrySet()) {
+	/**
+	 * Summarizes the run of tiles through an occupied position along one axis
+	 * and stores the summary for every position in the run. Row summaries are
+	 * kept in the lower half of the stored value, column summaries in the
+	 * upper half.
+	 * 
+	 * @param x
+	 *            The x coordinate of a position in the run.
+	 * @param y
+	 *            The y coordinate of a position in the run.
+	 * @param dx
+	 *            The step in x direction of the axis.
+	 * @param dy
+	 *            The step in y direction of the axis.
+	 */
+	private void summarizeRun(int x, int y, int dx, int dy) {
+		if (this.isEmpty(x, y)) {
+			return;
+		}
 
-			if (possibleTilesY.containsKey(entry.getKey())) {
+		// Find the start of the run.
+		while (!this.isEmpty(x - dx, y - dy)) {
+			x -= dx;
+			y -= dy;
+		}
 
-				List<Tile> tilesWithSameKey = new ArrayList<Tile>();
+		int summary = LineSummary.EMPTY;
+		int length = 0;
+		while (!this.isEmpty(x + length * dx, y + length * dy)) {
+			summary = LineSummary.add(summary,
+							this.lookup(Board.key(x + length * dx, y + length * dy)));
+			length++;
+		}
 
-				if (possibleTilesY.get(entry.getKey()) != null && entry.getValue() != null) {
-					for (Tile tilesInX : entry.getValue()) {
-						for (Tile tilesInY : possibleTilesY.get(entry.getKey())) {
+		int shift = dx != 0 ? 0 : 32;
+		for (int i = 0; i < length; i++) {
+			int key = Board.key(x + i * dx, y + i * dy);
+			long value = this.lines.get(key) & ~(0xFFFFFFFFL << shift);
+			this.lines.put(key, value | ((summary & 0xFFFFFFFFL) << shift));
+		}
+	}
 
-							if (tilesInX.getColor() == tilesInY.getColor()
-									&& tilesInX.getShape() == tilesInY.getShape()) {
-								tilesWithSameKey.add(tilesInY);
-							}
+	/**
+	 * Returns the summary of the row through a position. For an occupied
+	 * position this is the run of tiles it is part of. For an empty position
+	 * it is the run a tile placed there would join, without that tile.
+	 * 
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @return The line summary, see LineSummary.
+	 */
+	/*@ pure */ public int getRowSummary(int x, int y) {
+		return this.lineSummary(x, y, 1, 0);
+	}
 
-						}
-					}
-				}
-				possiblePlaces.put(entry.getKey(), tilesWithSameKey);
-			}
+	/**
+	 * Returns the summary of the column through a position. For an occupied
+	 * position this is the run of tiles it is part of. For an empty position
+	 * it is the run a tile placed there would join, without that tile.
+	 * 
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @return The line summary, see LineSummary.
+	 */
+	/*@ pure */ public int getColumnSummary(int x, int y) {
+		return this.lineSummary(x, y, 0, 1);
+	}
 
+	/**
+	 * Reads the summary of the line through a position along one axis from
+	 * the cache. For empty positions the summaries of the neighbouring runs
+	 * are combined.
+	 * 
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @param dx
+	 *            The step in x direction of the axis.
+	 * @param dy
+	 *            The step in y direction of the axis.
+	 * @return The line summary.
+	 */
+	private int lineSummary(int x, int y, int dx, int dy) {
+		int shift = dx != 0 ? 0 : 32;
+		if (!this.isEmpty(x, y)) {
+			return (int) (this.lines.get(Board.key(x, y)) >>> shift);
 		}
-
-		// All boardsquares with no possible tiles will be removed.
-		List<BoardSquare> removeNull = new ArrayList<BoardSquare>();
-		for (Entry<BoardSquare, List<Tile>> entry : possiblePlaces.entrySet()) {
-			if (entry.getValue() == null) {
-				removeNull.add(entry.getKey());
-			}
+		int summary = LineSummary.EMPTY;
+		if (!this.isEmpty(x - dx, y - dy)) {
+			summary = (int) (this.lines.get(Board.key(x - dx, y - dy)) >>> shift);
 		}
-
-		for (BoardSquare b : removeNull) {
-			possiblePlaces.remove(b);
+		if (!this.isEmpty(x + dx, y + dy)) {
+			summary = LineSummary.combine(summary,
+							(int) (this.lines.get(Board.key(x + dx, y + dy)) >>> shift));
 		}
+		return summary;
+	}
 
-		return possiblePlaces;
-
+	/**
+	 * Lists the canonical tile of every type in a bit mask of tile types.
+	 * 
+	 * @param types
+	 *            The bit mask of tile types.
+	 * @return A list of tiles.
+	 */
+	private static List<Tile> typesToTiles(long types) {
+		List<Tile> tiles = new ArrayList<Tile>(Long.bitCount(types));
+		while (types != 0) {
+			int type = Long.numberOfTrailingZeros(types);
+			tiles.add(Tile.ofType(type));
+			types &= types - 1;
+		}
+		return tiles;
 	}
 
 	/**
@@ -5,7 +5,9 @@ import exceptions.SquareOutOfBoundsException;
 /**
  * This class represents an layer between boards and tiles placed on these
  * boards. It offers some extra functionality related to neighbours and more
- * structured control of tiles placed on them.
+ * structured control of tiles placed on them. BoardSquares retrieved from a
+ * Board are created on request, so two BoardSquares are considered equal when
+ * they refer to the same position on the same board.
  * 
  * @author Jonathan Juursema & Peter Wessels
  *
@@ -153,6 +155,27 @@ public class BoardSquare {
 		return this.y;
 	}
 
+	/**
+	 * Two BoardSquares are equal if they describe the same position on the same
+	 * board.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof BoardSquare)) {
+			return false;
+		}
+		BoardSquare other = (BoardSquare) o;
+		return this.board == other.board && this.x == other.x && this.y == other.y;
+	}
+
+	/**
+	 * Returns a hash code based on the position of this BoardSquare.
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * this.x + this.y;
+	}
+
 	/**
 	 * Returns a textual representation of the board square.
 	 */
@@ -0,0 +1,224 @@
+package game;
+
+import exceptions.SquareOutOfBoundsException;
+import server.Game;
+
+/**
+ * A 64 bit hash of a position, being a board and a hand, that is the same for
+ * all positions that are equivalent under the symmetries of the game (see
+ * Canonicalizer), and that is updated as tiles are placed, removed, drawn and
+ * played.
+ *
+ * The names of the colors and shapes do not matter for the hash, only which
+ * tiles have the same color or shape: it is the sum of a value for every tile
+ * and for every pair of tiles, derived from their positions and whether they
+ * share their color or their shape. Tiles in the hand have a position of their
+ * own. This sum is kept for each of the eight rotations and reflections of the
+ * board, and the smallest of the eight is the hash. Changing a tile thus takes
+ * a value for every other tile, for each of the eight sums.
+ *
+ * Unlike a canonical form, different positions may have the same hash, just
+ * like with Zobrist hashing.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class CanonicalHash {
+
+	// The position of the tiles in the hand, which is not on the board.
+	private static final int HAND = Board.SIZE * Board.SIZE;
+	private static final int POSITIONS = HAND + 1;
+
+	// The relations of two tiles, and of a tile with itself.
+	private static final int SAMECOLOR = 1;
+	private static final int SAMESHAPE = 2;
+	private static final int SELF = 4;
+	private static final int RELATIONS = 5;
+
+	private final int[] keys = new int[Tile.TYPES * Game.TILESPERTYPE];
+	private final int[] types = new int[Tile.TYPES * Game.TILESPERTYPE];
+	private int size;
+	private final long[] hashes = new long[Canonicalizer.SYMMETRIES];
+
+	/**
+	 * Creates the hash of an empty board and an empty hand.
+	 */
+	public CanonicalHash() {
+	}
+
+	/**
+	 * Creates the hash of a position.
+	 *
+	 * @param board
+	 *            The board.
+	 * @param hand
+	 *            The hand.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public CanonicalHash(Board board, Hand hand) throws SquareOutOfBoundsException {
+		for (int i = 0; i < board.getNumberOfTiles(); i++) {
+			int key = board.getOccupiedKey(i);
+			this.add(key, board.getTile(Board.keyToX(key), Board.keyToY(key)).getType());
+		}
+		for (int i = 0; i < hand.getAmountOfTiles(); i++) {
+			this.add(HAND, hand.getTile(i).getType());
+		}
+	}
+
+	/**
+	 * Returns the hash of the position.
+	 *
+	 * @return The hash.
+	 */
+	public long getHash() {
+		long hash = this.hashes[0];
+		for (int symmetry = 1; symmetry < Canonicalizer.SYMMETRIES; symmetry++) {
+			hash = Math.min(hash, this.hashes[symmetry]);
+		}
+		return hash;
+	}
+
+	/**
+	 * Updates the hash for a tile placed on the board.
+	 *
+	 * @param tile
+	 *            The tile.
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 */
+	public void placeTile(Tile tile, int x, int y) {
+		this.add(Board.key(x, y), tile.getType());
+	}
+
+	/**
+	 * Updates the hash for a tile removed from the board.
+	 *
+	 * @param tile
+	 *            The tile.
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 */
+	public void removeTile(Tile tile, int x, int y) {
+		this.remove(Board.key(x, y), tile.getType());
+	}
+
+	/**
+	 * Updates the hash for a tile added to the hand.
+	 *
+	 * @param tile
+	 *            The tile.
+	 */
+	public void addToHand(Tile tile) {
+		this.add(HAND, tile.getType());
+	}
+
+	/**
+	 * Updates the hash for a tile removed from the hand.
+	 *
+	 * @param tile
+	 *            The tile.
+	 */
+	public void removeFromHand(Tile tile) {
+		this.remove(HAND, tile.getType());
+	}
+
+	/**
+	 * Adds a tile to the sums.
+	 *
+	 * @param key
+	 *            The packed coordinates of the tile (see Board.key), or HAND.
+	 * @param type
+	 *            The type of the tile.
+	 */
+	private void add(int key, int type) {
+		this.keys[this.size] = key;
+		this.types[this.size] = type;
+		this.size++;
+		this.update(this.size - 1, 1);
+	}
+
+	/**
+	 * Removes a tile from the sums. Nothing changes if there is no such tile.
+	 *
+	 * @param key
+	 *            The packed coordinates of the tile (see Board.key), or HAND.
+	 * @param type
+	 *            The type of the tile.
+	 */
+	private void remove(int key, int type) {
+		for (int i = 0; i < this.size; i++) {
+			if (this.keys[i] == key && this.types[i] == type) {
+				this.update(i, -1);
+				// Move the last tile into the gap.
+				this.size--;
+				this.keys[i] = this.keys[this.size];
+				this.types[i] = this.types[this.size];
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Adds or subtracts the values of a tile and of its pairs with all other
+	 * tiles to or from each of the sums.
+	 *
+	 * @param index
+	 *            The index of the tile.
+	 * @param sign
+	 *            1 to add, -1 to subtract.
+	 */
+	private void update(int index, int sign) {
+		for (int symmetry = 0; symmetry < Canonicalizer.SYMMETRIES; symmetry++) {
+			int key = CanonicalHash.transform(symmetry, this.keys[index]);
+			long sum = CanonicalHash.value(key, key, SELF);
+			for (int i = 0; i < this.size; i++) {
+				if (i != index) {
+					sum += CanonicalHash.value(key, CanonicalHash.transform(symmetry, this.keys[i]),
+									CanonicalHash.relation(this.types[index], this.types[i]));
+				}
+			}
+			this.hashes[symmetry] += sign * sum;
+		}
+	}
+
+	/**
+	 * Returns the packed coordinates of a position after a rotation or
+	 * reflection, see Canonicalizer.
+	 */
+	private static int transform(int symmetry, int key) {
+		if (key == HAND) {
+			return HAND;
+		}
+		int x = Board.keyToX(key);
+		int y = Board.keyToY(key);
+		return Board.key(Canonicalizer.getX(symmetry, x, y), Canonicalizer.getY(symmetry, x, y));
+	}
+
+	/**
+	 * Returns whether two tile types share their color and their shape.
+	 */
+	private static int relation(int first, int second) {
+		int relation = 0;
+		if (first / Tile.SHAPES == second / Tile.SHAPES) {
+			relation |= SAMECOLOR;
+		}
+		if (first % Tile.SHAPES == second % Tile.SHAPES) {
+			relation |= SAMESHAPE;
+		}
+		return relation;
+	}
+
+	/**
+	 * Returns the value of a pair of tiles, which does not depend on their
+	 * order.
+	 */
+	private static long value(int first, int second, int relation) {
+		long pair = (long) Math.min(first, second) * POSITIONS + Math.max(first, second);
+		return Zobrist.mix(pair * RELATIONS + relation);
+	}
+
+}
@@ -0,0 +1,431 @@
+package game;
+
+import java.util.Arrays;
+
+import exceptions.SquareOutOfBoundsException;
+
+/**
+ * Maps a position, being a board and a hand, to a canonical form. The game
+ * does not change when the six colors are renamed, when the six shapes are
+ * renamed, or when the board is rotated or reflected, so every position has up
+ * to 8 * 720 * 720 equivalent ones. Equivalent positions have the same
+ * canonical form, so tables keyed by it can share their entries.
+ *
+ * The rotations and reflections are taken around the origin, where the first
+ * tile of a game is always placed. For each of the eight, the tiles are listed
+ * in the order of their positions, and colors and shapes are numbered in the
+ * order in which they first appear; the colors and shapes only in the hand are
+ * numbered in the order that gives the smallest hand. The smallest of the
+ * eight results is the canonical form.
+ *
+ * Computing a canonical form takes a sort of the board for each symmetry. For
+ * hashing positions during a search, see CanonicalHash.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class Canonicalizer {
+
+	/**
+	 * The number of rotations and reflections of the board.
+	 */
+	public static final int SYMMETRIES = 8;
+
+	// The bits of a symmetry: swapping x and y, then negating x and y.
+	private static final int SWAP = 4;
+	private static final int MIRRORX = 1;
+	private static final int MIRRORY = 2;
+
+	/**
+	 * A transformation of a position: a rotation or reflection of the board
+	 * and a renaming of the colors and the shapes.
+	 */
+	public static class Transform {
+		private final int symmetry;
+		private final int[] colors;
+		private final int[] shapes;
+
+		/**
+		 * Creates a transform.
+		 *
+		 * @param symmetry
+		 *            The rotation or reflection, from 0 up to SYMMETRIES.
+		 * @param colors
+		 *            The new number of every color, (color - FIRSTCOLOR).
+		 * @param shapes
+		 *            The new number of every shape, (shape - FIRSTSHAPE).
+		 */
+		public Transform(int symmetry, int[] colors, int[] shapes) {
+			this.symmetry = symmetry;
+			this.colors = colors.clone();
+			this.shapes = shapes.clone();
+		}
+
+		/**
+		 * Returns the rotation or reflection of the board.
+		 *
+		 * @return The symmetry, from 0 up to SYMMETRIES.
+		 */
+		public int getSymmetry() {
+			return this.symmetry;
+		}
+
+		/**
+		 * Returns the x coordinate of a position after the transform.
+		 *
+		 * @param x
+		 *            The x coordinate.
+		 * @param y
+		 *            The y coordinate.
+		 * @return The transformed x coordinate.
+		 */
+		public int getX(int x, int y) {
+			return Canonicalizer.getX(this.symmetry, x, y);
+		}
+
+		/**
+		 * Returns the y coordinate of a position after the transform.
+		 *
+		 * @param x
+		 *            The x coordinate.
+		 * @param y
+		 *            The y coordinate.
+		 * @return The transformed y coordinate.
+		 */
+		public int getY(int x, int y) {
+			return Canonicalizer.getY(this.symmetry, x, y);
+		}
+
+		/**
+		 * Returns a tile type after the transform.
+		 *
+		 * @param type
+		 *            The type, see Tile.getType.
+		 * @return The transformed type.
+		 */
+		public int getType(int type) {
+			return this.colors[type / Tile.SHAPES] * Tile.SHAPES + this.shapes[type % Tile.SHAPES];
+		}
+
+		/**
+		 * Returns a tile after the transform.
+		 *
+		 * @param tile
+		 *            The tile.
+		 * @return The canonical tile of the transformed type.
+		 */
+		public Tile getTile(Tile tile) {
+			return Tile.ofType(this.getType(tile.getType()));
+		}
+
+		/**
+		 * Returns the transform that undoes this one, for instance to map a
+		 * turn found for the canonical form back to the original position.
+		 *
+		 * @return The inverse transform.
+		 */
+		public Transform inverse() {
+			int symmetry = this.symmetry;
+			if ((symmetry & SWAP) != 0) {
+				// After a swap the mirrors apply to the other axis.
+				symmetry = SWAP | ((symmetry & MIRRORX) << 1) | ((symmetry & MIRRORY) >> 1);
+			}
+			int[] colors = new int[Tile.COLORS];
+			for (int color = 0; color < Tile.COLORS; color++) {
+				colors[this.colors[color]] = color;
+			}
+			int[] shapes = new int[Tile.SHAPES];
+			for (int shape = 0; shape < Tile.SHAPES; shape++) {
+				shapes[this.shapes[shape]] = shape;
+			}
+			return new Transform(symmetry, colors, shapes);
+		}
+	}
+
+	/**
+	 * The canonical form of a position, with the transform that maps the
+	 * position onto it. Forms are equal if their positions are equivalent.
+	 */
+	public static class Form {
+		private final int[] board;
+		private final int[] hand;
+		private final Transform transform;
+
+		private Form(int[] board, int[] hand, Transform transform) {
+			this.board = board;
+			this.hand = hand;
+			this.transform = transform;
+		}
+
+		/**
+		 * Returns the transform that maps the position onto its canonical
+		 * form.
+		 *
+		 * @return The transform.
+		 */
+		public Transform getTransform() {
+			return this.transform;
+		}
+
+		/**
+		 * Returns the tiles on the board of the canonical form.
+		 *
+		 * @return The packed coordinates (see Board.key) and type of every
+		 *         tile, in the order of the coordinates.
+		 */
+		public int[] getBoard() {
+			return this.board.clone();
+		}
+
+		/**
+		 * Returns the tiles in the hand of the canonical form.
+		 *
+		 * @return The types of the tiles, in ascending order.
+		 */
+		public int[] getHand() {
+			return this.hand.clone();
+		}
+
+		/**
+		 * Returns a 64 bit hash of the canonical form, see Zobrist.
+		 *
+		 * @return The hash.
+		 */
+		public long getHash() {
+			long hash = 0;
+			for (int i = 0; i < this.board.length; i += 2) {
+				hash ^= Zobrist.of(this.board[i], this.board[i + 1]);
+			}
+			for (int type : this.hand) {
+				hash += Zobrist.of(type);
+			}
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Form && Arrays.equals(this.board, ((Form) other).board)
+							&& Arrays.equals(this.hand, ((Form) other).hand);
+		}
+
+		@Override
+		public int hashCode() {
+			long hash = this.getHash();
+			return (int) (hash ^ (hash >>> 32));
+		}
+	}
+
+	private Canonicalizer() {
+	}
+
+	/**
+	 * Returns the x coordinate of a position after a rotation or reflection.
+	 *
+	 * @param symmetry
+	 *            The rotation or reflection, from 0 up to SYMMETRIES.
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @return The transformed x coordinate.
+	 */
+	public static int getX(int symmetry, int x, int y) {
+		int result = (symmetry & SWAP) != 0 ? y : x;
+		return (symmetry & MIRRORX) != 0 ? -result : result;
+	}
+
+	/**
+	 * Returns the y coordinate of a position after a rotation or reflection.
+	 *
+	 * @param symmetry
+	 *            The rotation or reflection, from 0 up to SYMMETRIES.
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @return The transformed y coordinate.
+	 */
+	public static int getY(int symmetry, int x, int y) {
+		int result = (symmetry & SWAP) != 0 ? x : y;
+		return (symmetry & MIRRORY) != 0 ? -result : result;
+	}
+
+	/**
+	 * Determines the canonical form of a position.
+	 *
+	 * @param board
+	 *            The board.
+	 * @param hand
+	 *            The hand.
+	 * @return The canonical form.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public static Form canonicalize(Board board, Hand hand) throws SquareOutOfBoundsException {
+		int tiles = board.getNumberOfTiles();
+		long[] entries = new long[tiles];
+		Form best = null;
+		for (int symmetry = 0; symmetry < SYMMETRIES; symmetry++) {
+			// Sort the tiles by their transformed position.
+			for (int i = 0; i < tiles; i++) {
+				int key = board.getOccupiedKey(i);
+				int x = Board.keyToX(key);
+				int y = Board.keyToY(key);
+				int transformed = Board.key(Canonicalizer.getX(symmetry, x, y),
+								Canonicalizer.getY(symmetry, x, y));
+				entries[i] = ((long) transformed << 8) | board.getTile(x, y).getType();
+			}
+			Arrays.sort(entries);
+
+			int[] colors = new int[Tile.COLORS];
+			int[] shapes = new int[Tile.SHAPES];
+			Arrays.fill(colors, -1);
+			Arrays.fill(shapes, -1);
+			int[] encoded = new int[2 * tiles];
+			for (int i = 0; i < tiles; i++) {
+				encoded[2 * i] = (int) (entries[i] >>> 8);
+				encoded[2 * i + 1] = Canonicalizer.label((int) (entries[i] & 0xFF), colors, shapes);
+			}
+
+			int order = best == null ? -1 : Canonicalizer.compare(encoded, best.board);
+			if (order <= 0) {
+				Form form = Canonicalizer.canonicalizeHand(encoded, symmetry, colors, shapes, hand);
+				if (order < 0 || Canonicalizer.compare(form.hand, best.hand) < 0) {
+					best = form;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Numbers the hand for a numbering of the board, trying every order of the
+	 * tiles in the hand for numbering the colors and shapes that are not on
+	 * the board.
+	 *
+	 * @param encoded
+	 *            The numbered board.
+	 * @param symmetry
+	 *            The symmetry of the board.
+	 * @param colors
+	 *            The numbering of the colors on the board, -1 for the others.
+	 * @param shapes
+	 *            The numbering of the shapes on the board, -1 for the others.
+	 * @param hand
+	 *            The hand.
+	 * @return The form with the smallest hand.
+	 */
+	private static Form canonicalizeHand(int[] encoded, int symmetry, int[] colors, int[] shapes,
+					Hand hand) {
+		int[] types = new int[hand.getAmountOfTiles()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = hand.getTile(i).getType();
+		}
+		Form[] best = new Form[1];
+		Canonicalizer.permute(types, 0, encoded, symmetry, colors, shapes, best);
+		return best[0];
+	}
+
+	/**
+	 * Tries every order of the types from a given index on, keeping the form
+	 * with the smallest hand.
+	 */
+	private static void permute(int[] types, int from, int[] encoded, int symmetry, int[] colors,
+					int[] shapes, Form[] best) {
+		if (from < types.length) {
+			for (int i = from; i < types.length; i++) {
+				if (Canonicalizer.isRepeated(types, from, i)) {
+					continue;
+				}
+				Canonicalizer.swap(types, from, i);
+				Canonicalizer.permute(types, from + 1, encoded, symmetry, colors, shapes, best);
+				Canonicalizer.swap(types, from, i);
+			}
+			return;
+		}
+
+		int[] labelledColors = colors.clone();
+		int[] labelledShapes = shapes.clone();
+		int[] hand = new int[types.length];
+		for (int i = 0; i < types.length; i++) {
+			hand[i] = Canonicalizer.label(types[i], labelledColors, labelledShapes);
+		}
+		Arrays.sort(hand);
+		if (best[0] == null || Canonicalizer.compare(hand, best[0].hand) < 0) {
+			Canonicalizer.complete(labelledColors);
+			Canonicalizer.complete(labelledShapes);
+			best[0] = new Form(encoded, hand,
+							new Transform(symmetry, labelledColors, labelledShapes));
+		}
+	}
+
+	/**
+	 * Numbers the color and shape of a type if they have no number yet.
+	 *
+	 * @return The type with the numbered color and shape.
+	 */
+	private static int label(int type, int[] colors, int[] shapes) {
+		int color = type / Tile.SHAPES;
+		int shape = type % Tile.SHAPES;
+		if (colors[color] < 0) {
+			colors[color] = Canonicalizer.next(colors);
+		}
+		if (shapes[shape] < 0) {
+			shapes[shape] = Canonicalizer.next(shapes);
+		}
+		return colors[color] * Tile.SHAPES + shapes[shape];
+	}
+
+	/**
+	 * Numbers the colors or shapes that are not in the position, in order.
+	 */
+	private static void complete(int[] labels) {
+		for (int i = 0; i < labels.length; i++) {
+			if (labels[i] < 0) {
+				labels[i] = Canonicalizer.next(labels);
+			}
+		}
+	}
+
+	/**
+	 * Returns the lowest number not given out yet.
+	 */
+	private static int next(int[] labels) {
+		int next = 0;
+		for (int label : labels) {
+			next = Math.max(next, label + 1);
+		}
+		return next;
+	}
+
+	/**
+	 * Checks whether the type at an index has already been tried at the index
+	 * from, as trying the same type twice gives the same forms.
+	 */
+	private static boolean isRepeated(int[] types, int from, int index) {
+		for (int i = from; i < index; i++) {
+			if (types[i] == types[index]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void swap(int[] types, int first, int second) {
+		int type = types[first];
+		types[first] = types[second];
+		types[second] = type;
+	}
+
+	/**
+	 * Compares two arrays of the same length lexicographically.
+	 */
+	private static int compare(int[] first, int[] second) {
+		for (int i = 0; i < first.length; i++) {
+			if (first[i] != second[i]) {
+				return first[i] < second[i] ? -1 : 1;
+			}
+		}
+		return 0;
+	}
+
+}
@@ -1,6 +1,8 @@
 package game;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Observable;
 
@@ -12,17 +14,53 @@ import exceptions.TileNotInHandException;
  * player's tiles and the contents of the hand can be manipulated through
  * various functions.
  * 
+ * The tiles are kept in LIMIT slots. Next to the tiles, the hand counts the
+ * tiles of each type and keeps a bit mask of the types present, so questions
+ * like "which of my tiles fit this line" can be answered with a few bit
+ * operations (see getTypes and getTypesExtending) instead of walking the hand.
+ * 
  * @author Jonathan Juursema & Peter Wessels TODO: make exceptions
  */
 public class Hand extends Observable {
-	private List<Tile> tilesInHand = new ArrayList<Tile>();
 	public static final int LIMIT = 6;
 
+	private Tile[] slots = new Tile[LIMIT];
+	private int size;
+	private int[] typeCounts = new int[Tile.TYPES];
+	private long types;
+
+	/**
+	 * The hash of the types in the hand, kept up to date on every change.
+	 */
+	private long hash;
+
+	/**
+	 * The unmodifiable list handed out by getTilesInHand, or null if the hand
+	 * changed since.
+	 */
+	private List<Tile> tilesInHand;
+
+	/**
+	 * Whether observers are notified of changes to the hand.
+	 */
+	private boolean notifying;
+
 	/**
-	 * Constructor. Sets this.ownerPlayer to ownerPlayer.
+	 * Constructor. Creates an empty hand which notifies its observers.
 	 */
 	public Hand() {
+		this(true);
+	}
 
+	/**
+	 * Creates an empty hand. Hands used by the server or by strategies have
+	 * no use for notifications, so they can be turned off.
+	 * 
+	 * @param notifying
+	 *            Whether observers should be notified of changes.
+	 */
+	public Hand(boolean notifying) {
+		this.notifying = notifying;
 	}
 
 	/**
@@ -33,7 +71,7 @@ public class Hand extends Observable {
 	 */
 
 	public boolean hasInHand(Tile tile) {
-		return this.getTilesInHand().contains(tile);
+		return this.indexOf(tile) >= 0;
 	}
 
 	/**
@@ -47,7 +85,7 @@ public class Hand extends Observable {
 
 	public boolean hasInHand(List<Tile> tiles) {
 		for (Tile t : tiles) {
-			if (!this.getTilesInHand().contains(t)) {
+			if (this.indexOf(t) < 0) {
 				return false;
 			}
 		}
@@ -63,11 +101,12 @@ public class Hand extends Observable {
 	 */
 	public List<Tile> hardResetHand() {
 		List<Tile> returnList = new ArrayList<Tile>();
-		returnList.addAll(this.tilesInHand);
-		this.tilesInHand.clear();
+		returnList.addAll(this.getTilesInHand());
+		while (this.size > 0) {
+			this.removeAt(this.size - 1);
+		}
 
-		setChanged();
-		notifyObservers("handReset");
+		this.notifyChange("handReset");
 		return returnList;
 	}
 
@@ -82,13 +121,19 @@ public class Hand extends Observable {
 
 	public void addToHand(Tile tile) throws HandLimitReachedExeption {
 		if (this.getAmountOfTiles() + 1 <= Hand.LIMIT) {
-			this.tilesInHand.add(tile);
+			this.slots[this.size++] = tile;
+			// Adding rather than exclusive or, so equal types do not cancel.
+			this.hash += Zobrist.of(tile.getType());
+			if (tile.getType() != Tile.NO_TYPE) {
+				this.typeCounts[tile.getType()]++;
+				this.types |= 1L << tile.getType();
+			}
+			this.tilesInHand = null;
 		} else {
 			throw new HandLimitReachedExeption(this);
 		}
 
-		setChanged();
-		notifyObservers("addTileToHand");
+		this.notifyChange("addTileToHand");
 	}
 
 	/**
@@ -116,14 +161,14 @@ public class Hand extends Observable {
 	 */
 
 	public void removeFromHand(Tile tile) throws TileNotInHandException {
-		if (this.hasInHand(tile)) {
-			this.tilesInHand.remove(tile);
+		int index = this.indexOf(tile);
+		if (index >= 0) {
+			this.removeAt(index);
 		} else {
 			throw new TileNotInHandException(tile, this);
 		}
 
-		setChanged();
-		notifyObservers("hand");
+		this.notifyChange("hand");
 	}
 
 	/**
@@ -142,19 +187,99 @@ public class Hand extends Observable {
 			}
 		}
 
-		this.tilesInHand.removeAll(tileList);
+		for (Tile t : tileList) {
+			int index = this.indexOf(t);
+			if (index >= 0) {
+				this.removeAt(index);
+			}
+		}
 	}
 
 	/**
-	 * Returns the tiles that are currently in hand.
+	 * Returns the slot holding the given tile-object.
+	 * 
+	 * @param tile
+	 *            The tile-object.
+	 * @return The slot, or -1 if the tile is not in the hand.
+	 */
+	private int indexOf(Tile tile) {
+		for (int i = 0; i < this.size; i++) {
+			if (this.slots[i] == tile) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Removes the tile in a slot, moving the tiles after it one slot to the
+	 * front so the order of the hand is kept.
+	 * 
+	 * @param index
+	 *            The slot.
+	 */
+	private void removeAt(int index) {
+		Tile tile = this.slots[index];
+		System.arraycopy(this.slots, index + 1, this.slots, index, this.size - index - 1);
+		this.size--;
+		this.slots[this.size] = null;
+		this.hash -= Zobrist.of(tile.getType());
+		if (tile.getType() != Tile.NO_TYPE && --this.typeCounts[tile.getType()] == 0) {
+			this.types &= ~(1L << tile.getType());
+		}
+		this.tilesInHand = null;
+	}
+
+	/**
+	 * Notifies the observers of a change, unless notifications are turned off.
+	 * 
+	 * @param change
+	 *            The kind of change.
+	 */
+	private void notifyChange(String change) {
+		if (this.notifying) {
+			setChanged();
+			notifyObservers(change);
+		}
+	}
+
+	/**
+	 * Returns the tiles that are currently in hand. The list cannot be
+	 * changed and does not follow later changes to the hand.
 	 * 
 	 * @return An array with tile-objects.
 	 */
 
 	public List<Tile> getTilesInHand() {
+		if (this.tilesInHand == null) {
+			this.tilesInHand = Collections.unmodifiableList(
+							Arrays.asList(Arrays.copyOf(this.slots, this.size)));
+		}
 		return this.tilesInHand;
 	}
 
+	/**
+	 * Returns the tile in a slot of the hand.
+	 * 
+	 * @param index
+	 *            The slot, from 0 up to getAmountOfTiles().
+	 * @return The tile-object in that slot.
+	 */
+	public Tile getTile(int index) {
+		return this.slots[index];
+	}
+
+	/**
+	 * Returns the amount of tiles of the given type in the hand.
+	 * 
+	 * @param type
+	 *            The type, see Tile.getType.
+	 * @return The amount of tiles of that type.
+	 */
+	public int getAmountOfTiles(int type) {
+		return this.typeCounts[type];
+	}
+
 	/**
 	 * Returns a tile from the hand based on Protocol input.
 	 * 
@@ -163,8 +288,86 @@ public class Hand extends Observable {
 	 * @return The Tile in the users hand.
 	 */
 	public Tile getTileFromProtocol(String tile) {
+		return this.getTileOfType(Tile.getType(tile));
+	}
+
+	/**
+	 * Returns a tile of the given type from the hand.
+	 * 
+	 * @param type
+	 *            The type of the tile, see Tile.getType.
+	 * @return A Tile of that type in the hand, or null if there is none.
+	 */
+	public Tile getTileOfType(int type) {
+		for (int i = 0; i < this.size; i++) {
+			if (this.slots[i].getType() == type) {
+				return this.slots[i];
+			}
+		}
 		return null;
-		// TODO Implement
+	}
+
+	/**
+	 * Returns the types of the tiles in the hand.
+	 * 
+	 * @return A bit mask in which bit Tile.getType() is set for every type in
+	 *         the hand.
+	 */
+	public long getTypes() {
+		return this.types;
+	}
+
+	/**
+	 * Returns the colors of the tiles in the hand.
+	 * 
+	 * @return A bit mask in which bit (color - Tile.FIRSTCOLOR) is set for
+	 *         every color in the hand.
+	 */
+	public int getColors() {
+		int colors = 0;
+		for (int color = 0; color < Tile.COLORS; color++) {
+			if (((this.types >>> (color * Tile.SHAPES)) & ((1 << Tile.SHAPES) - 1)) != 0) {
+				colors |= 1 << color;
+			}
+		}
+		return colors;
+	}
+
+	/**
+	 * Returns the shapes of the tiles in the hand.
+	 * 
+	 * @return A bit mask in which bit (shape - Tile.FIRSTSHAPE) is set for
+	 *         every shape in the hand.
+	 */
+	public int getShapes() {
+		int shapes = 0;
+		for (int color = 0; color < Tile.COLORS; color++) {
+			shapes |= (int) (this.types >>> (color * Tile.SHAPES)) & ((1 << Tile.SHAPES) - 1);
+		}
+		return shapes;
+	}
+
+	/**
+	 * Returns the types of the tiles in the hand that can be added to a line.
+	 * 
+	 * @param summary
+	 *            The summary of the line, see LineSummary.
+	 * @return A bit mask in which bit Tile.getType() is set for every type in
+	 *         the hand that fits the line.
+	 */
+	public long getTypesExtending(int summary) {
+		return this.types & LineSummary.allowedTypes(summary);
+	}
+
+	/**
+	 * Returns a hash of the types of the tiles in the hand, see Zobrist. Hands
+	 * with the same types of tiles have the same hash, regardless of the order
+	 * of the tiles or which copies of a type they hold.
+	 * 
+	 * @return The hash.
+	 */
+	public long getHash() {
+		return this.hash;
 	}
 
 	/**
@@ -174,7 +377,7 @@ public class Hand extends Observable {
 	 */
 
 	public int getAmountOfTiles() {
-		return this.tilesInHand.size();
+		return this.size;
 	}
 
 	/**
@@ -0,0 +1,224 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * The keys of a small open-addressing hash table, with packed board
+ * coordinates (see Board.key) as keys. The table finds the slot of a key by
+ * linear probing; a subclass keeps the values in an array of its own, in the
+ * same slots as the keys. When entries move, because of a removal or because
+ * the table grows, the subclass is told to move its values along.
+ *
+ * Removing an entry shifts back the entries following it, so no tombstones
+ * are needed. A slot that is claimed for a new key therefore always holds the
+ * default value of the subclass.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+abstract class KeyTable {
+
+	/**
+	 * The key of a free slot.
+	 */
+	static final int FREE = -1;
+
+	/**
+	 * The capacity of a new table.
+	 */
+	static final int INITIAL_CAPACITY = 16;
+
+	private int[] keys;
+	private int size;
+
+	/**
+	 * Creates an empty table with a given capacity.
+	 *
+	 * @param capacity
+	 *            The capacity, which must be a power of two.
+	 */
+	KeyTable(int capacity) {
+		this.keys = new int[capacity];
+		Arrays.fill(this.keys, FREE);
+	}
+
+	/**
+	 * Creates a table with the same keys, in the same slots, as another.
+	 *
+	 * @param other
+	 *            The table to copy.
+	 */
+	KeyTable(KeyTable other) {
+		this.keys = other.keys.clone();
+		this.size = other.size;
+	}
+
+	/**
+	 * Returns the slot of a key.
+	 *
+	 * @param key
+	 *            The packed coordinate.
+	 * @return The slot, or -1 if the key is not in the table.
+	 */
+	final int find(int key) {
+		int mask = this.keys.length - 1;
+		for (int i = KeyTable.slot(key, mask);; i = (i + 1) & mask) {
+			if (this.keys[i] == key) {
+				return i;
+			} else if (this.keys[i] == FREE) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Returns the slot of a key, and claims a free slot for it if the key is
+	 * not in the table yet. This may grow the table.
+	 *
+	 * @param key
+	 *            The packed coordinate.
+	 * @return The slot.
+	 */
+	final int claim(int key) {
+		if ((this.size + 1) * 4 > this.keys.length * 3) {
+			this.grow();
+		}
+		int mask = this.keys.length - 1;
+		int i = KeyTable.slot(key, mask);
+		while (this.keys[i] != FREE) {
+			if (this.keys[i] == key) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		this.keys[i] = key;
+		this.size++;
+		return i;
+	}
+
+	/**
+	 * Removes the entry in a slot.
+	 *
+	 * @param slot
+	 *            The slot, as returned by find.
+	 */
+	final void removeAt(int slot) {
+		int mask = this.keys.length - 1;
+		int i = slot;
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			if (this.keys[j] == FREE) {
+				break;
+			}
+			int home = KeyTable.slot(this.keys[j], mask);
+			if ((j > i && (home <= i || home > j)) || (j < i && (home <= i && home > j))) {
+				this.keys[i] = this.keys[j];
+				this.move(j, i);
+				i = j;
+			}
+		}
+		this.keys[i] = FREE;
+		this.clear(i);
+		this.size--;
+	}
+
+	/**
+	 * Returns the number of entries in the table.
+	 *
+	 * @return The number of entries.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the number of slots in the table. Together with keyAt and the
+	 * valueAt of a subclass this allows iterating the table without allocating
+	 * an iterator.
+	 *
+	 * @return The number of slots.
+	 */
+	int capacity() {
+		return this.keys.length;
+	}
+
+	/**
+	 * Returns the key in a given slot.
+	 *
+	 * @param slot
+	 *            The slot.
+	 * @return The key, or a negative value if the slot is free.
+	 */
+	int keyAt(int slot) {
+		return this.keys[slot];
+	}
+
+	/**
+	 * Moves a value from one slot to another.
+	 *
+	 * @param from
+	 *            The slot the value is in.
+	 * @param to
+	 *            The slot the value moves to.
+	 */
+	abstract void move(int from, int to);
+
+	/**
+	 * Sets the value in a slot back to the default value.
+	 *
+	 * @param slot
+	 *            The slot.
+	 */
+	abstract void clear(int slot);
+
+	/**
+	 * Replaces the values by an array of a new capacity, and moves every value
+	 * to its new slot.
+	 *
+	 * @param capacity
+	 *            The new capacity.
+	 * @param slots
+	 *            For every old slot, the new slot of its value, or FREE if
+	 *            the old slot was free.
+	 */
+	abstract void resize(int capacity, int[] slots);
+
+	/**
+	 * Doubles the capacity of the table and rehashes all entries.
+	 */
+	private void grow() {
+		int[] oldKeys = this.keys;
+		int[] slots = new int[oldKeys.length];
+		this.keys = new int[oldKeys.length * 2];
+		Arrays.fill(this.keys, FREE);
+		int mask = this.keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			slots[i] = FREE;
+			if (oldKeys[i] != FREE) {
+				int j = KeyTable.slot(oldKeys[i], mask);
+				while (this.keys[j] != FREE) {
+					j = (j + 1) & mask;
+				}
+				this.keys[j] = oldKeys[i];
+				slots[i] = j;
+			}
+		}
+		this.resize(this.keys.length, slots);
+	}
+
+	/**
+	 * Determines the home slot of a key.
+	 *
+	 * @param key
+	 *            The key.
+	 * @param mask
+	 *            The table mask.
+	 * @return The home slot.
+	 */
+	private static int slot(int key, int mask) {
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+}
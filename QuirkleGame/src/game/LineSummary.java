@@ -0,0 +1,209 @@
+package game;
+
+import server.Game;
+
+/**
+ * This class provides functions to work with line summaries. A line summary
+ * describes a row or column of tiles in a single integer: the length of the
+ * line in the lowest byte, followed by a bit mask of the colors and a bit mask
+ * of the shapes in the line. This is all that is needed to decide whether a
+ * line is valid and what it scores, so these checks do not need to walk or
+ * collect any tiles.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class LineSummary {
+
+	private static final int LENGTH = 0xFF;
+	private static final int COLORS = 8;
+	private static final int SHAPES = 16;
+
+	/**
+	 * The summary of an empty line.
+	 */
+	public static final int EMPTY = 0;
+
+	/**
+	 * The bit mask containing every tile type.
+	 */
+	public static final long ALL_TYPES = (1L << (Game.DIFFERENTCOLORS * Game.DIFFERENTSHAPES)) - 1;
+
+	private LineSummary() {
+	}
+
+	/**
+	 * Returns the summary of a line consisting of a single tile.
+	 *
+	 * @param tile
+	 *            The tile.
+	 * @return The summary.
+	 */
+	public static int of(Tile tile) {
+		return LineSummary.ofType(tile.getType());
+	}
+
+	/**
+	 * Returns the summary of a line consisting of a single tile of the given
+	 * type, see Tile.getType.
+	 *
+	 * @param type
+	 *            The type of the tile.
+	 * @return The summary.
+	 */
+	public static int ofType(int type) {
+		return 1 | (1 << (type / Tile.SHAPES + COLORS)) | (1 << (type % Tile.SHAPES + SHAPES));
+	}
+
+	/**
+	 * Returns the summary of two lines joined together.
+	 *
+	 * @param first
+	 *            The summary of the first line.
+	 * @param second
+	 *            The summary of the second line.
+	 * @return The summary of the joined line.
+	 */
+	public static int combine(int first, int second) {
+		return ((first & LENGTH) + (second & LENGTH)) | ((first | second) & ~LENGTH);
+	}
+
+	/**
+	 * Returns the summary of a line with a tile added to it.
+	 *
+	 * @param summary
+	 *            The summary of the line.
+	 * @param tile
+	 *            The tile to add.
+	 * @return The summary of the line including the tile.
+	 */
+	public static int add(int summary, Tile tile) {
+		return LineSummary.combine(summary, LineSummary.of(tile));
+	}
+
+	/**
+	 * Returns the amount of tiles in a line.
+	 *
+	 * @param summary
+	 *            The summary of the line.
+	 * @return The length of the line.
+	 */
+	public static int getLength(int summary) {
+		return summary & LENGTH;
+	}
+
+	/**
+	 * Returns the colors in a line, as a bit mask in which bit (color -
+	 * Tile.FIRSTCOLOR) is set for every color present.
+	 *
+	 * @param summary
+	 *            The summary of the line.
+	 * @return The bit mask of colors.
+	 */
+	public static int getColors(int summary) {
+		return (summary >> COLORS) & LENGTH;
+	}
+
+	/**
+	 * Returns the shapes in a line, as a bit mask in which bit (shape -
+	 * Tile.FIRSTSHAPE) is set for every shape present.
+	 *
+	 * @param summary
+	 *            The summary of the line.
+	 * @return The bit mask of shapes.
+	 */
+	public static int getShapes(int summary) {
+		return (summary >> SHAPES) & LENGTH;
+	}
+
+	/**
+	 * Checks whether a line is valid according to the game rules. A line is
+	 * valid if all tiles share their color and have distinct shapes, or share
+	 * their shape and have distinct colors. Since no tile may occur twice, a
+	 * line has as many distinct shapes (or colors) as it has tiles.
+	 *
+	 * @param summary
+	 *            The summary of the line.
+	 * @return True if the line is valid.
+	 */
+	public static boolean isValid(int summary) {
+		int length = LineSummary.getLength(summary);
+		int colors = Integer.bitCount(LineSummary.getColors(summary));
+		int shapes = Integer.bitCount(LineSummary.getShapes(summary));
+		return length <= 1 || (colors == 1 && shapes == length)
+						|| (shapes == 1 && colors == length);
+	}
+
+	/**
+	 * Checks whether a line contains the same tile more than once. The tiles
+	 * in such a line share their color or shape, but there are fewer distinct
+	 * shapes or colors than tiles.
+	 *
+	 * @param summary
+	 *            The summary of the line.
+	 * @return True if some tile occurs twice in the line.
+	 */
+	public static boolean hasDuplicate(int summary) {
+		int length = LineSummary.getLength(summary);
+		int colors = Integer.bitCount(LineSummary.getColors(summary));
+		int shapes = Integer.bitCount(LineSummary.getShapes(summary));
+		return length > 1 && ((colors == 1 && shapes < length) || (shapes == 1 && colors < length));
+	}
+
+	/**
+	 * Returns the score of a line according to the game rules. A line of a
+	 * single tile does not score, a complete line (a Qwirkle) scores double.
+	 *
+	 * @param summary
+	 *            The summary of the line.
+	 * @return The score of the line.
+	 */
+	public static int getScore(int summary) {
+		int length = LineSummary.getLength(summary);
+		if (length == 1) {
+			return 0;
+		} else if (length == Game.DIFFERENTSHAPES) {
+			return 2 * length;
+		}
+		return length;
+	}
+
+	/**
+	 * Determines which tile types can be added to a line without making it
+	 * invalid, as a bit mask in which bit Tile.getType() is set for every type
+	 * allowed.
+	 *
+	 * @param summary
+	 *            The summary of the line.
+	 * @return The bit mask of tile types that can be added.
+	 */
+	public static long allowedTypes(int summary) {
+		int length = LineSummary.getLength(summary);
+		int colors = LineSummary.getColors(summary);
+		int shapes = LineSummary.getShapes(summary);
+		if (length == 0) {
+			return ALL_TYPES;
+		}
+
+		long types = 0;
+		if (length < Game.DIFFERENTSHAPES && Integer.bitCount(colors) == 1
+						&& Integer.bitCount(shapes) == length) {
+			// Same color, so any missing shape in that color.
+			int color = Integer.numberOfTrailingZeros(colors);
+			types |= (long) (~shapes & ((1 << Game.DIFFERENTSHAPES) - 1))
+							<< (color * Game.DIFFERENTSHAPES);
+		}
+		if (length < Game.DIFFERENTCOLORS && Integer.bitCount(shapes) == 1
+						&& Integer.bitCount(colors) == length) {
+			// Same shape, so that shape in any missing color.
+			int shape = Integer.numberOfTrailingZeros(shapes);
+			for (int color = 0; color < Game.DIFFERENTCOLORS; color++) {
+				if ((colors & (1 << color)) == 0) {
+					types |= 1L << (color * Game.DIFFERENTSHAPES + shape);
+				}
+			}
+		}
+		return types;
+	}
+
+}
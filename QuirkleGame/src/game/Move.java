@@ -1,8 +1,6 @@
 package game;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import exceptions.IllegalMoveException;
 import exceptions.SquareOutOfBoundsException;
@@ -14,6 +12,16 @@ import exceptions.SquareOutOfBoundsException;
  *
  */
 public class Move {
+
+	/*
+	 * The results of validate. Only LEGAL means the move can be played.
+	 */
+	public static final int LEGAL = 0;
+	public static final int WRONG_IDENTITY = 1;
+	public static final int DUPLICATE = 2;
+	public static final int NOT_ADJACENT = 3;
+	public static final int NOT_COLLINEAR = 4;
+
 	// TODO: Commenting
 	public Tile tileToPlay;
 	public BoardSquare position;
@@ -74,115 +82,85 @@ public class Move {
 	 * @return
 	 */
 	public boolean isValidMove(Board board, Turn turn) throws SquareOutOfBoundsException, IllegalMoveException {
-
-		boolean valid = false;
-
-		// If the tile is not on the list of potential tiles on that boardsquare
-		if (board.getPossiblePlaceByTile(this.getTile(), turn.getMoves()) != null) {
-
-			for (BoardSquare b : board.getPossiblePlaceByTile(this.getTile(), turn.getMoves())) {
-				if (b.getX() == this.getPosition().getX() && b.getY() == this.getPosition().getY()) {
-					valid = true;
-				}
-			}
-
-		}
-
-		// If not valid an exception is thrown.
-		if (!valid) {
+		switch (this.validate(board, turn.getMoves())) {
+		case LEGAL:
+			return true;
+		case NOT_ADJACENT:
+		case NOT_COLLINEAR:
 			throw new IllegalMoveException(this, "This place is not possible for this tile.");
-		}
-
-		// Place the tile on the board.
-		board.placeTile(this.getTile(), this.getPosition().getX(), this.getPosition().getY());
-
-		// Get the corresponding sequences in y and x direciotn
-		Move tempMove = new Move(this.getTile(), this.getPosition());
-		List<Move> tempList = new ArrayList<Move>();
-		tempList.add(tempMove);
-
-		Map<Move, Map<Integer, List<Tile>>> cleanedMap = Turn.getSequencesByMovesAndBoard(board, tempList);
-		board.removeTile(this.getPosition().getX(), this.getPosition().getY());
-
-		// When all four the directions are checked,
-		// both the row and column will be checked
-		// if the move is legal.
-
-		// Checks whenether the sequence is valid.
-		if (!checkSequence(cleanedMap.get(tempMove).get(0))) {
+		default:
 			throw new IllegalMoveException(this,
 					"This move is not valid because it conflicts current rows or columns.");
-		} else if (!checkSequence(cleanedMap.get(tempMove).get(1))) {
-			throw new IllegalMoveException(this,
-					"This move is not valid because it conflicts current rows or columns.");
-		} else {
-			return true;
 		}
 	}
 
 	/**
-	 * Checks whether the sequence is valid. A sequence cannot contain more of
-	 * the same tiles and cannot contain the same shapes if the identity of the
-	 * sequence is the same color and vice versa.
+	 * Checks whether the move is valid on the board, given the moves already
+	 * made in the turn. Unlike isValidMove this does not throw or allocate
+	 * anything, which makes it suitable for checking many candidate moves.
 	 * 
-	 * @param sequence The sequence which needs to be checked.
-	 * @return True if the sequence is according to the game rules.
-	 * @throws IllegalMoveException
+	 * @param board
+	 *            The board, on which the selected moves are already placed.
+	 * @param selected
+	 *            The moves already made in the turn.
+	 * @return LEGAL if the move is valid, otherwise the reason it is not:
+	 *         NOT_ADJACENT, NOT_COLLINEAR, WRONG_IDENTITY or DUPLICATE.
 	 */
-	public boolean checkSequence(List<Tile> sequence) throws IllegalMoveException {
-		// If only 1 tile is representing the sequence,
-		// the sequence does not have to be checked.
-		if (sequence.size() == 1) {
-			return true;
+	public int validate(Board board, List<Move> selected) {
+		int x = this.getPosition().getX();
+		int y = this.getPosition().getY();
+
+		// The position should be free and, except for the very first tile,
+		// next to another tile.
+		if (!Board.isOnBoard(x, y) || !board.isEmpty(x, y)) {
+			return NOT_ADJACENT;
 		}
-
-		Character color = null;
-		Character shape = null;
-
-		if (sequence.size() > 1) {
-			if (sequence.get(0).getColor() == sequence.get(1).getColor()) {
-				color = sequence.get(0).getColor();
-			} else if (sequence.get(0).getShape() == sequence.get(1).getShape()) {
-				shape = sequence.get(0).getShape();
-			} else {
-				throw new IllegalMoveException(this, "The identity of the row or column can not be identified.");
+		int column = board.getColumnSummary(x, y);
+		int row = board.getRowSummary(x, y);
+		if (board.isEmpty(0, 0)) {
+			if (x != 0 || y != 0) {
+				return NOT_ADJACENT;
 			}
+		} else if (column == LineSummary.EMPTY && row == LineSummary.EMPTY) {
+			return NOT_ADJACENT;
 		}
 
-		// The lists that are used to check the content of an sequence
-		List<Character> shapes = new ArrayList<Character>();
-		List<Character> colors = new ArrayList<Character>();
-
-		// Loop over every tile in the sequence
-		for (Tile t : sequence) {
-			// If the sequence resembles in the same colour
-			if (color != null) {
-				// check if the same shape already exists.
-				if (shapes.contains(t.getShape()) || t.getColor() != sequence.get(0).getColor()) {
-					throw new IllegalMoveException(this, "This shape (" + t.getShape()
-							+ ") is allready existing in the columns or rows it is connected too.");
-				} else {
-					// If not, add the shape to the list
-					shapes.add(t.getShape());
-					colors.add(t.getColor());
-				}
-			} else if (shape != null) {
-				// check if the same colour already exists.
-				if (colors.contains(t.getColor()) || t.getShape() != sequence.get(0).getShape()) {
-					throw new IllegalMoveException(this, "This color (" + t.getColor()
-							+ ") is allready existing in the columns or rows it is connected too.");
-				} else {
-					// If not, add the colour to the list
-					colors.add(t.getColor());
-					shapes.add(t.getShape());
+		// All moves of a turn should form a single unbroken row or column.
+		if (selected != null && selected.size() > 0) {
+			boolean sameX = true;
+			boolean sameY = true;
+			for (int i = 0; i < selected.size(); i++) {
+				sameX = sameX && selected.get(i).getPosition().getX() == x;
+				sameY = sameY && selected.get(i).getPosition().getY() == y;
+			}
+			if (!sameX && !sameY) {
+				return NOT_COLLINEAR;
+			}
+			for (int i = 0; i < selected.size(); i++) {
+				int mx = selected.get(i).getPosition().getX();
+				int my = selected.get(i).getPosition().getY();
+				int dx = Integer.signum(mx - x);
+				int dy = Integer.signum(my - y);
+				for (int px = x + dx, py = y + dy; px != mx || py != my; px += dx, py += dy) {
+					if (board.isEmpty(px, py)) {
+						return NOT_COLLINEAR;
+					}
 				}
-			} else {
-				// If the sequence has no identity
-				throw new IllegalMoveException(this, "The identity of the row or column can not be identified.");
 			}
 		}
 
-		return true;
+		// Check the column and the row the tile would join.
+		if (this.getTile().getType() == Tile.NO_TYPE) {
+			return WRONG_IDENTITY;
+		}
+		column = LineSummary.add(column, this.getTile());
+		row = LineSummary.add(row, this.getTile());
+		if (LineSummary.hasDuplicate(column) || LineSummary.hasDuplicate(row)) {
+			return DUPLICATE;
+		} else if (!LineSummary.isValid(column) || !LineSummary.isValid(row)) {
+			return WRONG_IDENTITY;
+		}
+		return LEGAL;
 	}
 
 	/**
@@ -0,0 +1,114 @@
+package game;
+
+/**
+ * A small open-addressing hash table mapping packed board coordinates (see
+ * Board.key) to a primitive long. It is the counterpart of TileTable for
+ * information the board derives from its tiles, such as the frontier of
+ * positions on which tiles can be placed. The keys are kept by KeyTable.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+class PositionTable extends KeyTable {
+
+	private long[] values;
+
+	/**
+	 * Creates an empty table.
+	 */
+	PositionTable() {
+		super(INITIAL_CAPACITY);
+		this.values = new long[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Creates a copy of another table.
+	 *
+	 * @param other
+	 *            The table to copy.
+	 */
+	private PositionTable(PositionTable other) {
+		super(other);
+		this.values = other.values.clone();
+	}
+
+	/**
+	 * Returns the value stored under the given key.
+	 *
+	 * @param key
+	 *            The packed coordinate.
+	 * @return The value, or 0 if the position is not in the table.
+	 */
+	long get(int key) {
+		int slot = this.find(key);
+		return slot < 0 ? 0 : this.values[slot];
+	}
+
+	/**
+	 * Stores a value under the given key.
+	 *
+	 * @param key
+	 *            The packed coordinate.
+	 * @param value
+	 *            The value.
+	 */
+	void put(int key, long value) {
+		int slot = this.claim(key);
+		this.values[slot] = value;
+	}
+
+	/**
+	 * Removes the entry for the given key, if any.
+	 *
+	 * @param key
+	 *            The packed coordinate.
+	 */
+	void remove(int key) {
+		int slot = this.find(key);
+		if (slot >= 0) {
+			this.removeAt(slot);
+		}
+	}
+
+	/**
+	 * Returns the value in a given slot.
+	 *
+	 * @param slot
+	 *            The slot.
+	 * @return The value in the slot.
+	 */
+	long valueAt(int slot) {
+		return this.values[slot];
+	}
+
+	/**
+	 * Returns a copy of this table.
+	 *
+	 * @return The copy.
+	 */
+	PositionTable copy() {
+		return new PositionTable(this);
+	}
+
+	@Override
+	void move(int from, int to) {
+		this.values[to] = this.values[from];
+	}
+
+	@Override
+	void clear(int slot) {
+		this.values[slot] = 0;
+	}
+
+	@Override
+	void resize(int capacity, int[] slots) {
+		long[] oldValues = this.values;
+		this.values = new long[capacity];
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] != FREE) {
+				this.values[slots[i]] = oldValues[i];
+			}
+		}
+	}
+
+}
@@ -8,6 +8,11 @@ import java.util.List;
  * shape). This is also true with this implementation, because different tiles
  * with the same properties have different addresses.
  * 
+ * Next to that, every color/shape combination has a type: a number from 0 up
+ * to TYPES, being (color - FIRSTCOLOR) * SHAPES + (shape - FIRSTSHAPE). Code
+ * which only cares about the properties of a tile can work with these numbers
+ * and the canonical tiles of each type (see ofType) instead of creating tiles.
+ * 
  * @author Jonathan Juursema & Peter Wessels
  *
  */
@@ -37,8 +42,33 @@ public class Tile {
 	public static final char FIRSTSHAPE = 'A';
 	public static final char LASTSHAPE = 'F';
 
+	public static final int COLORS = LASTCOLOR - FIRSTCOLOR + 1;
+	public static final int SHAPES = LASTSHAPE - FIRSTSHAPE + 1;
+	public static final int TYPES = COLORS * SHAPES;
+
+	/**
+	 * The type of tiles with a color or shape outside the regular ones, such
+	 * as dummy tiles.
+	 */
+	public static final int NO_TYPE = -1;
+
+	/**
+	 * One canonical tile for each type, with its protocol representation.
+	 */
+	private static final Tile[] CANONICAL = new Tile[TYPES];
+	private static final String[] PROTOCOL = new String[TYPES];
+
+	static {
+		for (int type = 0; type < TYPES; type++) {
+			CANONICAL[type] = new Tile((char) (FIRSTCOLOR + type / SHAPES),
+							(char) (FIRSTSHAPE + type % SHAPES));
+			PROTOCOL[type] = "" + CANONICAL[type].getColor() + CANONICAL[type].getShape();
+		}
+	}
+
 	private char color;
 	private char shape;
+	private int type;
 
 	/**
 	 * Constructor of Tile. Requires the color and shape on the tile.
@@ -51,6 +81,61 @@ public class Tile {
 	public Tile(char color, char shape) {
 		this.color = color;
 		this.shape = shape;
+		this.type = Tile.getType(color, shape);
+	}
+
+	/**
+	 * Creates a new tile of a type. Unlike the canonical tile of the type
+	 * (see ofType), it may be put in a hand, bag or on a board.
+	 * 
+	 * @param type
+	 *            The type, see getType.
+	 */
+	public Tile(int type) {
+		this(CANONICAL[type].getColor(), CANONICAL[type].getShape());
+	}
+
+	/**
+	 * Returns the type of a color/shape combination.
+	 * 
+	 * @param color
+	 *            The tile color.
+	 * @param shape
+	 *            The tile shape.
+	 * @return The type, or NO_TYPE if the color or shape is not a regular one.
+	 */
+	public static int getType(char color, char shape) {
+		if (color < FIRSTCOLOR || color > LASTCOLOR || shape < FIRSTSHAPE || shape > LASTSHAPE) {
+			return NO_TYPE;
+		}
+		return (color - FIRSTCOLOR) * SHAPES + (shape - FIRSTSHAPE);
+	}
+
+	/**
+	 * Returns the type of a tile in its protocol representation.
+	 * 
+	 * @param protocol
+	 *            The protocol representation, see toProtocol.
+	 * @return The type, or NO_TYPE if the representation is not a valid tile.
+	 */
+	public static int getType(String protocol) {
+		if (protocol == null || protocol.length() != 2) {
+			return NO_TYPE;
+		}
+		return Tile.getType(protocol.charAt(0), protocol.charAt(1));
+	}
+
+	/**
+	 * Returns the canonical tile of a type. This tile is shared, so it should
+	 * only be used to describe a type and never be put in a hand, bag or on a
+	 * board.
+	 * 
+	 * @param type
+	 *            The type.
+	 * @return The canonical tile.
+	 */
+	public static Tile ofType(int type) {
+		return CANONICAL[type];
 	}
 
 	/**
@@ -71,6 +156,15 @@ public class Tile {
 		return this.shape;
 	}
 
+	/**
+	 * Returns the type of the tile.
+	 * 
+	 * @return The type, or NO_TYPE for tiles like dummies.
+	 */
+	public int getType() {
+		return this.type;
+	}
+
 	/**
 	 * Returns a textual representation of the tile, in accordance with the
 	 * Protocol.
@@ -78,6 +172,9 @@ public class Tile {
 	 * @return The representation.
 	 */
 	public String toProtocol() {
+		if (this.type != NO_TYPE) {
+			return PROTOCOL[this.type];
+		}
 		return "" + this.getColor() + this.getShape();
 	}
 	
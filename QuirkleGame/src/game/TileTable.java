@@ -0,0 +1,138 @@
+package game;
+
+/**
+ * A small open-addressing hash table mapping packed board coordinates (see
+ * Board.key) to the Tile placed on that position. The table only holds
+ * occupied positions, so its size scales with the number of tiles on the board
+ * instead of the size of the playing field. Keys are primitive integers, so
+ * lookups do not box anything. The keys are kept by KeyTable.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+class TileTable extends KeyTable {
+
+	private Tile[] values;
+
+	/**
+	 * Creates an empty table.
+	 */
+	TileTable() {
+		super(INITIAL_CAPACITY);
+		this.values = new Tile[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Creates a copy of another table.
+	 *
+	 * @param other
+	 *            The table to copy.
+	 */
+	private TileTable(TileTable other) {
+		super(other);
+		this.values = other.values.clone();
+	}
+
+	/**
+	 * Returns the Tile stored under the given key.
+	 *
+	 * @param key
+	 *            The packed coordinate.
+	 * @return The Tile, or null if the position is not in the table.
+	 */
+	Tile get(int key) {
+		return this.get(key, null);
+	}
+
+	/**
+	 * Returns the Tile stored under the given key, or a given default when the
+	 * key is not in the table. This differs from get(key) because null values
+	 * are allowed in the table.
+	 *
+	 * @param key
+	 *            The packed coordinate.
+	 * @param absent
+	 *            The value to return when the key is not present.
+	 * @return The Tile stored under the key, or absent.
+	 */
+	Tile get(int key, Tile absent) {
+		int slot = this.find(key);
+		return slot < 0 ? absent : this.values[slot];
+	}
+
+	/**
+	 * Stores a Tile under the given key.
+	 *
+	 * @param key
+	 *            The packed coordinate.
+	 * @param tile
+	 *            The Tile.
+	 * @return The Tile previously stored under this key, or null.
+	 */
+	Tile put(int key, Tile tile) {
+		int slot = this.claim(key);
+		Tile previous = this.values[slot];
+		this.values[slot] = tile;
+		return previous;
+	}
+
+	/**
+	 * Removes the entry for the given key.
+	 *
+	 * @param key
+	 *            The packed coordinate.
+	 * @return The Tile that was stored under this key, or null.
+	 */
+	Tile remove(int key) {
+		int slot = this.find(key);
+		if (slot < 0) {
+			return null;
+		}
+		Tile previous = this.values[slot];
+		this.removeAt(slot);
+		return previous;
+	}
+
+	/**
+	 * Returns the value in a given slot.
+	 *
+	 * @param slot
+	 *            The slot.
+	 * @return The value in the slot.
+	 */
+	Tile valueAt(int slot) {
+		return this.values[slot];
+	}
+
+	/**
+	 * Returns a copy of this table. Tiles themselves are shared, as they are
+	 * never mutated.
+	 *
+	 * @return The copy.
+	 */
+	TileTable copy() {
+		return new TileTable(this);
+	}
+
+	@Override
+	void move(int from, int to) {
+		this.values[to] = this.values[from];
+	}
+
+	@Override
+	void clear(int slot) {
+		this.values[slot] = null;
+	}
+
+	@Override
+	void resize(int capacity, int[] slots) {
+		Tile[] oldValues = this.values;
+		this.values = new Tile[capacity];
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i] != FREE) {
+				this.values[slots[i]] = oldValues[i];
+			}
+		}
+	}
+
+}
@@ -1,9 +1,7 @@
 package game;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import java.util.Observable;
 
@@ -36,14 +34,14 @@ public class Turn extends Observable {
 
 	/**
 	 * Creates a turn with assigned Player and the board. This functions creates
-	 * a deepcopy of the board.
+	 * a copy of the board. Copies are copy-on-write snapshots, so the turn only
+	 * stores its own moves on top of the given board.
 	 * 
 	 * @param player
 	 */
 
 	public Turn(Board board, Player currentPlayer) {
-		this.boardCopy = new Board();
-		this.boardCopy.setBoard(board.copy(this.boardCopy));
+		this.boardCopy = board.copy();
 		this.assignedPlayer = currentPlayer;
 	}
 
@@ -128,91 +126,6 @@ public class Turn extends Observable {
 		}
 	}
 
-	/**
-	 * This function maps the rows or columns that are affiliated with the
-	 * applied moves. These sequences are the basis of the check whether a
-	 * sequence is valid and is the basis of the calculation of the score.
-	 * 
-	 * @return A map with each move mapped to the tiles in te same row and
-	 *         coloumn.
-	 * @throws SquareOutOfBoundsException
-	 *             Thrown if the BoardSquare not exists
-	 * @throws IllegalMoveException 
-	 */
-
-	public static Map<Move, Map<Integer, List<Tile>>> getSequencesByMovesAndBoard(Board board,
-					List<Move> moves) throws SquareOutOfBoundsException, IllegalMoveException {
-		
-		// Creates a map which maps the moves to a map with tiles found in the corresponding direction
-		Map<Move, Map<Integer, List<Tile>>> sequences = new HashMap<Move, Map<Integer, List<Tile>>>();
-
-		for (Move move : moves) {
-			BoardSquare currentSquare;
-			
-			// Looping over each direction
-			Map<Integer, List<Tile>> directionMap = new HashMap<Integer, List<Tile>>();
-			for (int i = 0; i < 4; i++) {
-				// Creates a list of tiles in the same direction.
-				List<Tile> currentList = new ArrayList<Tile>();
-
-				currentSquare = board.getSquare(move.getPosition().getX(),
-								move.getPosition().getY());
-
-				currentList.add(currentSquare.getTile());
-
-				// Searching for the tiles in the direction.
-				while (!currentSquare.getNeighbour(i).isEmpty()) {
-					currentList.add(currentSquare.getNeighbour(i).getTile());
-					currentSquare = currentSquare.getNeighbour(i);
-				}
-				
-				// Put all the tiles found in the map.
-				directionMap.put(i, currentList);
-			}
-			
-			// Put the direction map into the sequences map
-			sequences.put(move, directionMap);
-		}
-		
-		// Creating a new map which will be filled with the merged arrays in the row and column direction
-		Map<Move, Map<Integer, List<Tile>>> cleanedMap = new HashMap<Move, Map<Integer, List<Tile>>>();
-		
-		// For each move the map will be cleared
-		for (Map.Entry<Move, Map<Integer, List<Tile>>> entry : sequences.entrySet()) {
-
-			Move key = entry.getKey();
-
-			int southLength = entry.getValue().get(0).size();
-			int northLength = entry.getValue().get(2).size();
-			int eastLength = entry.getValue().get(1).size();
-			int westLength = entry.getValue().get(3).size();
-			
-			// The lists will be merged and duplicates will be removed.
-			entry.getValue().get(0).removeAll(entry.getValue().get(2));
-			entry.getValue().get(1).removeAll(entry.getValue().get(3));
-
-			entry.getValue().get(0).addAll(entry.getValue().get(2));
-			entry.getValue().get(1).addAll(entry.getValue().get(3));
-
-			Map<Integer, List<Tile>> rowAndColumn = new HashMap<Integer, List<Tile>>();
-			rowAndColumn.put(0, entry.getValue().get(0));
-			rowAndColumn.put(1, entry.getValue().get(1));
-
-			// A hotfix to fix the bug that will delete too much duplicates.
-			if((southLength + northLength - 1) != entry.getValue().get(0).size()) {
-				throw new IllegalMoveException("This tile is allready in this column");
-			}
-			
-			if((eastLength + westLength - 1) != entry.getValue().get(1).size()) {
-				throw new IllegalMoveException("This tile is allready in this row");
-			}
-			
-			// Put the merged arrays in the cleaned map.
-			cleanedMap.put(key, rowAndColumn);
-		}
-		return cleanedMap;
-	}
-
 	/**
 	 * The function getScore() calculates the score of the current turn
 	 * according to the game rules. First will determined if the moves form a
@@ -225,22 +138,36 @@ public class Turn extends Observable {
 	 */
 
 	public int calculateScore() throws SquareOutOfBoundsException, IllegalMoveException {
-		// We first create 2 sequences to
-		// represent the horizontal line, the row
-		// and the vertical line, the column
+		// The rows and columns through the moves are read from the line
+		// summaries on the copy of the board.
 
 		if (this.isSwapRequest()) {
 			return 0;
 		}
 
+		return Turn.calculateScore(this.boardCopy, this.getMoves());
+	}
+
+	/**
+	 * Calculates the score of a set of moves that has been placed on a board,
+	 * according to the game rules. This allows scoring moves without creating
+	 * a Turn, for example while searching on a single board.
+	 * 
+	 * @param board
+	 *            The board on which the moves are placed.
+	 * @param moves
+	 *            The moves, which should form a single row or column.
+	 * @return The score of the moves.
+	 */
+	public static int calculateScore(Board board, List<Move> moves) {
 		boolean baseIsRow = true;
 
-		if (this.getMoves().size() > 1) {
-			if (this.getMoves().get(0).getPosition().getX() == this.getMoves().get(1).getPosition()
+		if (moves.size() > 1) {
+			if (moves.get(0).getPosition().getX() == moves.get(1).getPosition()
 							.getX()) {
 				// If the sequence is a column, then the row needs to be checked
 				baseIsRow = false;
-			} else if (this.getMoves().get(0).getPosition().getY() == this.getMoves().get(1)
+			} else if (moves.get(0).getPosition().getY() == moves.get(1)
 							.getPosition().getY()) {
 				// If the sequence is a row, then the columns needs to be
 				// checked
@@ -251,35 +178,16 @@ public class Turn extends Observable {
 
 		int returnScore = 0;
 
-		Map<Move, Map<Integer, List<Tile>>> cleanedMap = getSequencesByMovesAndBoard(this.boardCopy,
-						this.getMoves());
-
 		int rowScore = 0;
 		int columnScore = 0;
 		
-		for (Move m : this.getMoves()) {
-			int rowScoreTemp = cleanedMap.get(m).get(1).size();
-			int columnScoreTemp = cleanedMap.get(m).get(0).size();
+		for (Move m : moves) {
+			int x = m.getPosition().getX();
+			int y = m.getPosition().getY();
 
-			// If 0, the row only contains the initial tile
-			if (rowScoreTemp == 1) {
-				rowScoreTemp = 0;
-			}
-
-			// If 0, the row only contains the initial tile
-			if (columnScoreTemp == 1) {
-				columnScoreTemp = 0;
-			}
-
-			// If 6, the score will be doubled.
-			if (rowScoreTemp == 6) {
-				rowScoreTemp = 12;
-			}
-
-			// If 6, the score will be doubled.
-			if (columnScoreTemp == 6) {
-				columnScoreTemp = 12;
-			}
+			// A line of one tile scores nothing, a full line scores double.
+			int rowScoreTemp = LineSummary.getScore(board.getRowSummary(x, y));
+			int columnScoreTemp = LineSummary.getScore(board.getColumnSummary(x, y));
 			
 			// If the moves form a row, the score of the row will only be added once.
 			if (baseIsRow) {
@@ -0,0 +1,62 @@
+package game;
+
+/**
+ * This class provides the random values used for Zobrist hashing of boards and
+ * hands. Every combination of a position and a tile type has its own 64 bit
+ * value, and the hash of a board is the exclusive or of the values of all
+ * tiles on it. Placing or removing a tile then only takes a single exclusive
+ * or to update the hash.
+ *
+ * The values are not stored in a table, as there are over two million
+ * position/type combinations. Instead they are derived from the combination
+ * with a fixed mixing function, which gives the same values on every run.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class Zobrist {
+
+	private Zobrist() {
+	}
+
+	/**
+	 * Returns the value of a tile type on a position.
+	 *
+	 * @param key
+	 *            The packed coordinates of the position, see Board.key.
+	 * @param type
+	 *            The type of the tile, see Tile.getType.
+	 * @return The value.
+	 */
+	public static long of(int key, int type) {
+		return Zobrist.mix((long) key * Tile.TYPES + type);
+	}
+
+	/**
+	 * Returns the value of a tile type, regardless of its position. Used to
+	 * hash the contents of a hand.
+	 *
+	 * @param type
+	 *            The type of the tile, see Tile.getType.
+	 * @return The value.
+	 */
+	public static long of(int type) {
+		return Zobrist.mix(-1L - type);
+	}
+
+	/**
+	 * Scrambles a number into a seemingly random 64 bit value (the finalizer
+	 * of the SplitMix64 generator).
+	 *
+	 * @param value
+	 *            The number.
+	 * @return The scrambled value.
+	 */
+	static long mix(long value) {
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+}
@@ -1,15 +1,17 @@
 package networking;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.Charset;
-import java.util.Arrays;
+import java.util.concurrent.Executor;
 
+import application.App;
 import application.Util;
+import protocol.Command;
 import protocol.Protocol;
 
 /**
@@ -17,37 +19,148 @@ import protocol.Protocol;
  * server connection handlers. Both can then apply their own parse and shutdown
  * methods.
  * 
+ * A handler either runs as a thread of its own, blocking on the socket, or is
+ * served by an EventLoop together with many other connections, in which case
+ * it is not started at all. Either way, every command received is decoded by
+ * an InboundDecoder and ends up in parse.
+ * 
+ * Sending only adds the message to an OutboundQueue. A blocking handler has a
+ * writer thread that writes whatever is queued with a single flush; for a
+ * handler served by an EventLoop, the loop does so.
+ * 
+ * Both sides start out in the charset of the protocol, and may agree on a more
+ * compact one in HALLO, see setCharset.
+ * 
  * @author Jonathan Juursema & Peter Wessels
  *
  */
 public abstract class ConnectionHandler extends Thread {
 
-	private BufferedReader rx;
-	private BufferedWriter tx;
+	// Every thread builds the messages it sends in a builder of its own.
+	private static final ThreadLocal<StringBuilder> MESSAGE = ThreadLocal
+					.withInitial(StringBuilder::new);
+
+	private InputStream rx;
+	private OutputStream tx;
 
 	private Socket socket;
+	private Session session;
+	private OutboundQueue queue;
+	private InboundDecoder inbound;
 
 	/**
-	 * Constructs an abstract ConnectionHandler for a given socket.
+	 * Constructs an abstract ConnectionHandler for a given socket, which drops
+	 * the connection when its outbound queue overflows.
 	 * 
 	 * @param socket
 	 *            The socket.
 	 */
 	public ConnectionHandler(Socket socket) {
+		this(socket, OutboundQueue.Policy.DISCONNECT);
+	}
+
+	/**
+	 * Constructs an abstract ConnectionHandler for a given socket.
+	 * 
+	 * @param socket
+	 *            The socket.
+	 * @param policy
+	 *            What to do when the outbound queue is full.
+	 */
+	public ConnectionHandler(Socket socket, OutboundQueue.Policy policy) {
 		this.socket = socket;
+		this.queue = new OutboundQueue(OutboundQueue.LIMIT, policy);
 		Util.log("debug", "A new connection has been established with "
 						+ this.socket.getRemoteSocketAddress() + ".");
 		try {
-			this.rx = new BufferedReader(new InputStreamReader(this.socket.getInputStream(),
-							Charset.forName(Protocol.Server.Settings.ENCODING)));
-			this.tx = new BufferedWriter(new OutputStreamWriter(this.socket.getOutputStream(),
-							Charset.forName(Protocol.Server.Settings.ENCODING)));
+			this.rx = this.socket.getInputStream();
+			this.tx = this.socket.getOutputStream();
 		} catch (IOException e) {
 			Util.log(e);
 			this.shutdown("Unrecoverable IOException.");
 		}
 	}
 
+	/**
+	 * Constructs an abstract ConnectionHandler for a channel that is served by
+	 * an EventLoop, see EventLoop.register. Such a handler should not be
+	 * started.
+	 * 
+	 * @param channel
+	 *            The channel.
+	 */
+	public ConnectionHandler(SocketChannel channel) {
+		this.socket = channel.socket();
+		Util.log("debug", "A new connection has been established with "
+						+ this.socket.getRemoteSocketAddress() + ".");
+	}
+
+	/**
+	 * Connects the handler to the session of an EventLoop.
+	 * 
+	 * @param session
+	 *            The session.
+	 */
+	void attach(Session session) {
+		this.session = session;
+		this.inbound = session.getInbound();
+		this.queue = session.getQueue();
+	}
+
+	/**
+	 * Changes the charset of the connection in both directions, once both
+	 * sides agreed on it in HALLO. Messages sent before are still written in
+	 * the old charset, and the commands received after the one being parsed
+	 * are read in the new charset. Should be called while parsing a command.
+	 * 
+	 * Until it is called, received bytes are decoded with some care; calling
+	 * it with the current charset ends that.
+	 * 
+	 * @param charset
+	 *            The charset.
+	 */
+	public void setCharset(Charset charset) {
+		this.inbound.setCharset(charset);
+		this.queue.setCharset(charset);
+	}
+
+	/**
+	 * Returns the queue of messages waiting to be written, for instance to
+	 * inspect its depth.
+	 * 
+	 * @return The queue.
+	 */
+	public OutboundQueue getQueue() {
+		return this.queue;
+	}
+
+	/**
+	 * Starts the handler on two threads of its own: this one, reading the
+	 * commands, and a writer thread writing the queued messages.
+	 */
+	@Override
+	public synchronized void start() {
+		this.inbound = new InboundDecoder(this::receive);
+		Thread writer = new Thread(this::write, this.getName() + " writer");
+		writer.setDaemon(true);
+		writer.start();
+		super.start();
+	}
+
+	/**
+	 * Starts the handler on the threads of an executor instead, for instance
+	 * one running every task on a virtual thread: one task reads the commands
+	 * and one writes the queued messages. The handler itself is not started.
+	 * 
+	 * @param executor
+	 *            The executor.
+	 */
+	public void start(Executor executor) {
+		this.inbound = new InboundDecoder(this::receive);
+		executor.execute(this::write);
+		executor.execute(this);
+	}
+
 	/**
 	 * The threaded code for listening to remote host commands.
 	 */
@@ -56,18 +169,14 @@ public abstract class ConnectionHandler extends Thread {
 		boolean running = true;
 		while (running) {
 			try {
-				String command = this.rx.readLine();
-				if (command.length() > 2) {
-					/*
-					 * Why on earth do we seperate commands with two newlines?
-					 */
-					Util.log("rx", command + " (from " + this.socket.getRemoteSocketAddress()
-									+ ")");
-					// Split command in arguments
-					String[] args = command
-									.split(String.valueOf(Protocol.Server.Settings.DELIMITER));
-					// Send command and arguments to the parser
-					this.parse(args[0], Arrays.copyOfRange(args, 1, args.length));
+				ByteBuffer input = this.inbound.getInput();
+				int read = this.rx.read(input.array(), input.position(), input.remaining());
+				if (read < 0) {
+					this.shutdown("Connection closed by remote host.");
+					running = false;
+				} else {
+					input.position(input.position() + read);
+					this.inbound.decode();
 				}
 			} catch (IOException e) {
 				Util.log(e);
@@ -76,9 +185,59 @@ public abstract class ConnectionHandler extends Thread {
 			}
 
 		}
+		// Stops the writer once it wrote what is left.
+		this.queue.close();
 		Util.log("debug", "Socket closed.");
 	}
 
+	/**
+	 * The code of the writer thread of a blocking handler: writes everything
+	 * that is queued at once, until the queue is closed.
+	 */
+	private void write() {
+		if (this.tx == null) {
+			// The socket could not be opened, see the constructor.
+			return;
+		}
+		OutboundEncoder outbound = new OutboundEncoder();
+		try {
+			StringBuilder batch;
+			while ((batch = this.queue.take()) != null) {
+				ByteBuffer bytes = outbound.encode(batch, this.queue.getCharset());
+				this.tx.write(bytes.array(), 0, bytes.limit());
+				this.tx.flush();
+			}
+		} catch (IOException e) {
+			Util.log(e);
+			this.shutdown("Unrecoverable IOException.");
+			return;
+		} catch (InterruptedException e) {
+			Util.log(e);
+			return;
+		}
+		if (this.queue.isOverflowed()) {
+			this.shutdown("Outbound queue overflowed.");
+		}
+	}
+
+	/**
+	 * Handles a command received from the remote host.
+	 * 
+	 * @param command
+	 *            The command, which is only valid during this call.
+	 */
+	void receive(Command command) {
+		if (command.length() > 2) {
+			/*
+			 * Why on earth do we seperate commands with two newlines?
+			 */
+			if (App.VERBOSE) {
+				Util.log("rx", command + " (from " + this.socket.getRemoteSocketAddress() + ")");
+			}
+			this.parse(command);
+		}
+	}
+
 	/**
 	 * Send a command to the remote host. This function takes care of all
 	 * formatting and protocols.
@@ -89,25 +248,26 @@ public abstract class ConnectionHandler extends Thread {
 	 *            An array of arguments. Can be empty.
 	 */
 	public void send(String command, String[] args) {
-		String message = "";
-		// Initialise message
-		message = message.concat(command)
-						.concat(String.valueOf(Protocol.Server.Settings.DELIMITER));
+		StringBuilder message = MESSAGE.get();
+		message.setLength(0);
+		message.append(command);
 		// Append arguments to command
 		for (String arg : args) {
-			message = message.concat(arg)
-							.concat(String.valueOf(Protocol.Server.Settings.DELIMITER));
+			message.append(Protocol.Server.Settings.DELIMITER).append(arg);
 		}
-		// Trim last seperator
-		message = message.substring(0, message.length() - 1);
-		// Write
-		try {
-			this.tx.write(message + Protocol.Server.Settings.COMMAND_END);
-			this.tx.flush();
+		if (App.VERBOSE) {
 			Util.log("tx", message + " (to " + this.socket.getRemoteSocketAddress() + ")");
-		} catch (IOException e) {
-			Util.log(e);
-			this.shutdown("Unrecoverable IOException.");
+		}
+		message.append(Protocol.Server.Settings.COMMAND_END);
+		// Queue for the writer, which copies the message
+		if (this.session != null) {
+			this.session.write(message);
+		} else {
+			try {
+				this.queue.offer(message);
+			} catch (InterruptedException e) {
+				Util.log(e);
+			}
 		}
 	}
 
@@ -125,6 +285,18 @@ public abstract class ConnectionHandler extends Thread {
 		this.send(command, new String[] { arg });
 	}
 
+	/**
+	 * Parses a received command. By default, the command is converted to
+	 * strings and passed to parse(String, String[]); handlers may decode
+	 * frequent commands from the Command itself instead.
+	 * 
+	 * @param command
+	 *            The command, which is only valid during this call.
+	 */
+	public void parse(Command command) {
+		this.parse(command.getName(), command.getArguments());
+	}
+
 	/**
 	 * Parses a given command with given arguments.
 	 * 
@@ -0,0 +1,170 @@
+package networking;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import application.Util;
+
+/**
+ * Serves many connections on a single thread. The connections are
+ * non-blocking channels registered with a Selector, and the thread only reads
+ * from or writes to a connection when it is ready for that. Unlike a thread
+ * per connection, an idle connection then costs a few buffers instead of a
+ * thread with its stack.
+ *
+ * Every complete line read from a connection is passed to its
+ * ConnectionHandler, on the thread of the loop, in the same way the thread of
+ * a blocking ConnectionHandler would. Commands should therefore be handled
+ * quickly; long running work such as searching a turn belongs elsewhere.
+ *
+ * Other threads may send on a connection at any time. The messages are
+ * queued, and the loop is woken up to write them as soon as the connection is
+ * ready. A connection whose queue overflows is dropped by the loop.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class EventLoop implements Runnable {
+
+	private final String name;
+	private final Selector selector;
+
+	// Sessions to register, or whose interest in writing changed.
+	private final ConcurrentLinkedQueue<Session> pending = new ConcurrentLinkedQueue<Session>();
+
+	/**
+	 * Creates an event loop. The loop runs once it is started.
+	 *
+	 * @param name
+	 *            The name of the thread.
+	 * @throws IOException
+	 */
+	public EventLoop(String name) throws IOException {
+		this.name = name;
+		this.selector = Selector.open();
+	}
+
+	/**
+	 * Starts the loop on a daemon thread of its own.
+	 */
+	public void start() {
+		Thread thread = new Thread(this, this.name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Adds a connection to the loop. From now on, the handler receives the
+	 * commands read from the channel and its send writes to the channel.
+	 *
+	 * @param channel
+	 *            The channel, which is made non-blocking.
+	 * @param handler
+	 *            The handler of the connection, which is not started.
+	 * @throws IOException
+	 */
+	public void register(SocketChannel channel, ConnectionHandler handler) throws IOException {
+		channel.configureBlocking(false);
+		Session session = new Session(this, channel, handler);
+		handler.attach(session);
+		this.update(session);
+	}
+
+	/**
+	 * Stops the loop and closes all of its connections.
+	 */
+	public void shutdown() {
+		try {
+			for (SelectionKey key : this.selector.keys()) {
+				key.channel().close();
+			}
+			this.selector.close();
+		} catch (IOException e) {
+			Util.log(e);
+		}
+	}
+
+	/**
+	 * Returns the number of connections served by the loop.
+	 *
+	 * @return The number of connections.
+	 */
+	public int getConnections() {
+		return this.selector.isOpen() ? this.selector.keys().size() : 0;
+	}
+
+	/**
+	 * Asks the loop to register a session, or to update its interest in
+	 * writing.
+	 *
+	 * @param session
+	 *            The session.
+	 */
+	void update(Session session) {
+		this.pending.add(session);
+		this.selector.wakeup();
+	}
+
+	/**
+	 * The loop: waits for connections to be ready and serves them.
+	 */
+	@Override
+	public void run() {
+		while (this.selector.isOpen()) {
+			try {
+				this.selector.select();
+				this.processPending();
+
+				Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					Session session = (Session) key.attachment();
+					if (key.isValid() && key.isReadable()) {
+						session.read();
+					}
+					if (key.isValid() && key.isWritable()) {
+						session.flush();
+					}
+				}
+			} catch (IOException e) {
+				Util.log(e);
+			} catch (RuntimeException e) {
+				// A broken command should not take the other connections down.
+				Util.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Registers the new sessions, and sets the interest of the others.
+	 */
+	private void processPending() {
+		Session session;
+		while ((session = this.pending.poll()) != null) {
+			if (session.dropIfOverflowed()) {
+				continue;
+			}
+			SelectionKey key = session.getKey();
+			if (key == null) {
+				try {
+					key = session.getChannel().register(this.selector, SelectionKey.OP_READ,
+									session);
+					session.setKey(key);
+				} catch (ClosedChannelException e) {
+					continue;
+				}
+			}
+			if (key.isValid()) {
+				key.interestOps(SelectionKey.OP_READ
+								| (session.hasOutput() ? SelectionKey.OP_WRITE : 0));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+package networking;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.util.function.Consumer;
+
+import protocol.Command;
+import protocol.CommandDecoder;
+import protocol.Protocol;
+
+/**
+ * Turns the bytes received on a connection into commands. The decoder is kept
+ * for the whole connection, so a byte order mark is only expected at the
+ * start of the stream.
+ *
+ * The charset may change once, after HALLO (see ConnectionHandler.setCharset).
+ * Until then, the bytes are decoded one character at a time, so that the
+ * bytes following the command that changes the charset are not decoded yet
+ * when it is handled. A character outside the Basic Multilingual Plane takes
+ * two chars, so it is decoded two chars at a time.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+class InboundDecoder {
+
+	private static final int BUFFERSIZE = 4096;
+
+	private final ByteBuffer input = ByteBuffer.allocate(BUFFERSIZE);
+	private final CharBuffer chars = CharBuffer.allocate(BUFFERSIZE);
+	private final CommandDecoder commands;
+	private Charset charset;
+	private CharsetDecoder decoder;
+
+	private boolean negotiating = true;
+	// The charset to change to, and the number of characters of the current
+	// command end still to be decoded before that.
+	private Charset next;
+	private int remaining;
+
+	/**
+	 * Creates a decoder for the protocol's default charset.
+	 *
+	 * @param handler
+	 *            Receives every complete command.
+	 */
+	InboundDecoder(Consumer<Command> handler) {
+		this.commands = new CommandDecoder(handler);
+		this.charset = Charset.forName(Protocol.Server.Settings.ENCODING);
+		this.decoder = this.charset.newDecoder();
+	}
+
+	/**
+	 * Returns the buffer to read bytes into, before calling decode.
+	 *
+	 * @return The buffer, ready to be written to.
+	 */
+	ByteBuffer getInput() {
+		return this.input;
+	}
+
+	/**
+	 * Decodes the bytes read into the input buffer, and passes every complete
+	 * command to the handler. Bytes of an incomplete character are kept.
+	 */
+	void decode() {
+		this.input.flip();
+		CoderResult result;
+		do {
+			this.chars.limit(this.negotiating ? 1 : this.chars.capacity());
+			result = this.decoder.decode(this.input, this.chars, false);
+			if (result.isOverflow() && this.chars.position() == 0) {
+				// A surrogate pair does not fit in a single char.
+				this.chars.limit(2);
+				result = this.decoder.decode(this.input, this.chars, false);
+			}
+			int decoded = this.chars.position();
+			this.commands.decode(this.chars.array(), 0, decoded);
+			this.chars.clear();
+
+			if (this.next != null && decoded > 0) {
+				if (this.remaining == 0) {
+					this.charset = this.next;
+					this.decoder = this.charset.newDecoder();
+					this.next = null;
+					this.negotiating = false;
+				} else {
+					this.remaining--;
+				}
+			}
+		} while (result.isOverflow());
+		this.input.compact();
+	}
+
+	/**
+	 * Changes the charset for everything after the command being handled,
+	 * including its COMMAND_END, and stops decoding one character at a time.
+	 * Should be called while a command is being handled.
+	 *
+	 * @param charset
+	 *            The charset.
+	 */
+	void setCharset(Charset charset) {
+		if (charset.equals(this.charset)) {
+			this.negotiating = false;
+		} else {
+			this.next = charset;
+			this.remaining = Protocol.Server.Settings.COMMAND_END.length() - 1;
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+package networking;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Turns the messages taken from an OutboundQueue into bytes, in reused
+ * buffers. The encoder is kept for the whole connection, so a byte order mark
+ * is only written at the start of the stream, and is replaced when the
+ * charset of the messages changes.
+ *
+ * Characters below 0x80 are the same byte in UTF-8, so they are copied
+ * directly instead of passing through the encoder. For this protocol that is
+ * every character but those in names and chat messages.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+class OutboundEncoder {
+
+	private Charset charset;
+	private CharsetEncoder encoder;
+	private CharBuffer chars = CharBuffer.allocate(0);
+	private ByteBuffer bytes = ByteBuffer.allocate(0);
+
+	/**
+	 * Encodes a batch of messages.
+	 *
+	 * @param batch
+	 *            The messages.
+	 * @param charset
+	 *            The charset of the messages.
+	 * @return The bytes, ready to be read. The buffer is reused by the next
+	 *         call.
+	 */
+	ByteBuffer encode(StringBuilder batch, Charset charset) {
+		if (!charset.equals(this.charset)) {
+			this.charset = charset;
+			this.encoder = charset.newEncoder();
+		}
+		int length = batch.length();
+		int size = (int) Math.ceil(length * this.encoder.maxBytesPerChar()) + 4;
+		if (this.bytes.capacity() < size) {
+			this.bytes = ByteBuffer.allocate(size);
+		} else {
+			this.bytes.clear();
+		}
+
+		int start = 0;
+		if (charset.equals(StandardCharsets.UTF_8)) {
+			byte[] array = this.bytes.array();
+			while (start < length && batch.charAt(start) < 0x80) {
+				array[start] = (byte) batch.charAt(start);
+				start++;
+			}
+			this.bytes.position(start);
+		}
+		if (start < length) {
+			if (this.chars.capacity() < length - start) {
+				this.chars = CharBuffer.allocate(length - start);
+			}
+			this.chars.clear();
+			batch.getChars(start, length, this.chars.array(), 0);
+			this.chars.limit(length - start);
+			this.encoder.encode(this.chars, this.bytes, false);
+		}
+		this.bytes.flip();
+		return this.bytes;
+	}
+
+}
@@ -0,0 +1,317 @@
+package networking;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import protocol.Protocol;
+
+/**
+ * The messages waiting to be written to a connection. Any thread may add
+ * messages, after which the writer of the connection takes all of them at
+ * once and writes them with a single write and flush. A thread sending to a
+ * slow connection therefore only waits for the queue, not for the connection.
+ *
+ * The queue holds a limited number of messages. When it is full, the sender
+ * either waits until the writer made room (BLOCK), or the queue is closed and
+ * the connection should be dropped (DISCONNECT). The latter suits a server,
+ * where a game should not wait for a client that does not keep up.
+ *
+ * The characters of the messages are copied into a buffer, and the writer
+ * gets that buffer while the next messages are copied into a second one. Once
+ * the buffers are large enough, sending does not create any objects.
+ *
+ * The queue also keeps the charset in which the messages should be written.
+ * When it changes, the messages queued before are taken separately, so that
+ * they are still written in the old charset.
+ *
+ * A lock is used rather than synchronized, so that a virtual thread waiting
+ * for the queue does not block the thread carrying it.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class OutboundQueue {
+
+	/**
+	 * The default number of messages a queue holds.
+	 */
+	public static final int LIMIT = 256;
+
+	/**
+	 * What happens when a message is added to a full queue.
+	 */
+	public static enum Policy {
+		BLOCK, DISCONNECT
+	};
+
+	private final int limit;
+	private final Policy policy;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = this.lock.newCondition();
+	private final Condition notFull = this.lock.newCondition();
+	private StringBuilder messages = new StringBuilder();
+	private StringBuilder taken = new StringBuilder();
+	private int depth;
+	private Charset charset = Charset.forName(Protocol.Server.Settings.ENCODING);
+	private Charset takenCharset = this.charset;
+	// The charset of the messages after the first boundary characters, which
+	// hold boundaryDepth messages.
+	private Charset nextCharset;
+	private int boundary;
+	private int boundaryDepth;
+	private boolean closed;
+	private boolean overflowed;
+
+	private int maxDepth;
+	private long written;
+	private long batches;
+
+	/**
+	 * Creates an empty queue.
+	 *
+	 * @param limit
+	 *            The number of messages the queue holds.
+	 * @param policy
+	 *            What happens when a message is added to a full queue.
+	 */
+	public OutboundQueue(int limit, Policy policy) {
+		this.limit = limit;
+		this.policy = policy;
+	}
+
+	/**
+	 * Adds a message to the queue. When the queue is full, this either waits
+	 * for room or closes the queue, depending on the policy.
+	 *
+	 * @param message
+	 *            The message, which is copied.
+	 * @return The number of messages in the queue, including this one, or -1
+	 *         if the message was dropped because the queue is closed or full.
+	 * @throws InterruptedException
+	 *             When interrupted while waiting for room.
+	 */
+	public int offer(CharSequence message) throws InterruptedException {
+		this.lock.lock();
+		try {
+			while (!this.closed && this.depth >= this.limit) {
+				if (this.policy == Policy.DISCONNECT) {
+					this.overflowed = true;
+					this.closeLocked();
+					break;
+				}
+				this.notFull.await();
+			}
+			if (this.closed) {
+				return -1;
+			}
+			this.messages.append(message);
+			this.depth++;
+			this.maxDepth = Math.max(this.maxDepth, this.depth);
+			this.notEmpty.signal();
+			return this.depth;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Takes all messages in the queue, without waiting. Only the writer of the
+	 * queue may take messages.
+	 *
+	 * @return The messages joined together, or null if the queue is empty.
+	 *         The writer should not change them, and may use them until it
+	 *         takes messages again.
+	 */
+	public StringBuilder poll() {
+		this.lock.lock();
+		try {
+			return this.depth == 0 || this.overflowed ? null : this.drainLocked();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Takes all messages in the queue, waiting for one if it is empty. Only
+	 * the writer of the queue may take messages.
+	 *
+	 * @return The messages joined together, see poll, or null once the queue
+	 *         is closed and empty. The messages of a queue that overflowed are
+	 *         not returned.
+	 * @throws InterruptedException
+	 *             When interrupted while waiting.
+	 */
+	public StringBuilder take() throws InterruptedException {
+		this.lock.lock();
+		try {
+			while (!this.closed && this.depth == 0) {
+				this.notEmpty.await();
+			}
+			return this.depth == 0 || this.overflowed ? null : this.drainLocked();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Changes the charset of the messages added from now on. Only one change
+	 * can wait for the messages before it to be taken.
+	 *
+	 * @param charset
+	 *            The charset.
+	 */
+	public void setCharset(Charset charset) {
+		this.lock.lock();
+		try {
+			if (this.depth == 0) {
+				this.charset = charset;
+			} else {
+				this.nextCharset = charset;
+				this.boundary = this.messages.length();
+				this.boundaryDepth = this.depth;
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the charset of the messages taken last. Only the writer of the
+	 * queue may ask for it.
+	 *
+	 * @return The charset.
+	 */
+	public Charset getCharset() {
+		this.lock.lock();
+		try {
+			return this.takenCharset;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Closes the queue. Messages added from now on are dropped, while the
+	 * messages already queued can still be taken.
+	 */
+	public void close() {
+		this.lock.lock();
+		try {
+			this.closeLocked();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Checks whether the queue was closed because it overflowed.
+	 *
+	 * @return True if a message was added to the full queue.
+	 */
+	public boolean isOverflowed() {
+		this.lock.lock();
+		try {
+			return this.overflowed;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of messages waiting to be written.
+	 *
+	 * @return The number of messages.
+	 */
+	public int getDepth() {
+		this.lock.lock();
+		try {
+			return this.depth;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the largest number of messages that waited at the same time.
+	 *
+	 * @return The number of messages.
+	 */
+	public int getMaxDepth() {
+		this.lock.lock();
+		try {
+			return this.maxDepth;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of messages taken to be written.
+	 *
+	 * @return The number of messages.
+	 */
+	public long getWritten() {
+		this.lock.lock();
+		try {
+			return this.written;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of times messages were taken, which is the number of
+	 * writes. Compared to getWritten, this shows how well messages are
+	 * coalesced.
+	 *
+	 * @return The number of writes.
+	 */
+	public long getBatches() {
+		this.lock.lock();
+		try {
+			return this.batches;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes all queued messages, by swapping the buffers, or only those
+	 * before a change of charset. The lock must be held.
+	 */
+	private StringBuilder drainLocked() {
+		this.takenCharset = this.charset;
+		int count;
+		if (this.nextCharset != null) {
+			this.taken.setLength(0);
+			this.taken.append(this.messages, 0, this.boundary);
+			this.messages.delete(0, this.boundary);
+			count = this.boundaryDepth;
+			this.charset = this.nextCharset;
+			this.nextCharset = null;
+		} else {
+			StringBuilder batch = this.messages;
+			this.messages = this.taken;
+			this.messages.setLength(0);
+			this.taken = batch;
+			count = this.depth;
+		}
+		this.written += count;
+		this.batches++;
+		this.depth -= count;
+		this.notFull.signalAll();
+		return this.taken;
+	}
+
+	/**
+	 * Closes the queue and wakes all waiting threads. The lock must be held.
+	 */
+	private void closeLocked() {
+		this.closed = true;
+		this.notEmpty.signalAll();
+		this.notFull.signalAll();
+	}
+
+}
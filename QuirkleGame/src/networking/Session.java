@@ -0,0 +1,166 @@
+package networking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import application.Util;
+
+/**
+ * The state of a connection served by an EventLoop: the channel, the bytes
+ * read but not yet handled, and the bytes waiting to be written. Bytes are
+ * decoded and encoded in the same way as for a blocking ConnectionHandler.
+ *
+ * Messages sent by other threads are only queued. The loop takes everything
+ * that is queued at once and writes it with a single write, so a sender never
+ * waits for the connection. When the queue overflows, the loop drops the
+ * connection.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+class Session {
+
+	private final EventLoop loop;
+	private final SocketChannel channel;
+	private final ConnectionHandler handler;
+	private SelectionKey key;
+
+	private final InboundDecoder inbound;
+	private final OutboundQueue queue;
+	private final OutboundEncoder outbound = new OutboundEncoder();
+	// The bytes of the messages taken from the queue, not all written yet.
+	private ByteBuffer output = ByteBuffer.allocate(0);
+
+	/**
+	 * Creates the session of a connection.
+	 *
+	 * @param loop
+	 *            The loop serving the connection.
+	 * @param channel
+	 *            The non-blocking channel.
+	 * @param handler
+	 *            The handler of the connection.
+	 */
+	Session(EventLoop loop, SocketChannel channel, ConnectionHandler handler) {
+		this.loop = loop;
+		this.channel = channel;
+		this.handler = handler;
+		this.inbound = new InboundDecoder(handler::receive);
+		this.queue = new OutboundQueue(OutboundQueue.LIMIT, OutboundQueue.Policy.DISCONNECT);
+	}
+
+	InboundDecoder getInbound() {
+		return this.inbound;
+	}
+
+	OutboundQueue getQueue() {
+		return this.queue;
+	}
+
+	SocketChannel getChannel() {
+		return this.channel;
+	}
+
+	SelectionKey getKey() {
+		return this.key;
+	}
+
+	void setKey(SelectionKey key) {
+		this.key = key;
+	}
+
+	/**
+	 * Reads what is available from the channel, and passes every complete
+	 * command to the handler. Called by the loop only.
+	 */
+	void read() {
+		int read;
+		try {
+			read = this.channel.read(this.inbound.getInput());
+		} catch (IOException e) {
+			Util.log(e);
+			this.handler.shutdown("Unrecoverable IOException.");
+			return;
+		}
+		if (read < 0) {
+			this.handler.shutdown("Connection closed by remote host.");
+			return;
+		}
+		this.inbound.decode();
+	}
+
+	/**
+	 * Queues a message to be written by the loop. May be called by any thread.
+	 *
+	 * @param message
+	 *            The message.
+	 */
+	void write(CharSequence message) {
+		int depth;
+		try {
+			depth = this.queue.offer(message);
+		} catch (InterruptedException e) {
+			Util.log(e);
+			return;
+		}
+		// The loop only needs to be woken up for the first message, or to drop
+		// the connection.
+		if (depth == 1 || depth < 0 && this.queue.isOverflowed()) {
+			this.loop.update(this);
+		}
+	}
+
+	/**
+	 * Writes as much of the queued messages as the channel accepts. Called by
+	 * the loop only.
+	 */
+	void flush() {
+		try {
+			while (true) {
+				if (!this.output.hasRemaining()) {
+					StringBuilder batch = this.queue.poll();
+					if (batch == null) {
+						this.key.interestOps(SelectionKey.OP_READ);
+						return;
+					}
+					this.output = this.outbound.encode(batch, this.queue.getCharset());
+				}
+				this.channel.write(this.output);
+				if (this.output.hasRemaining()) {
+					return;
+				}
+			}
+		} catch (IOException e) {
+			Util.log(e);
+			this.handler.shutdown("Unrecoverable IOException.");
+		}
+	}
+
+	/**
+	 * Checks whether there is output waiting to be written. Called by the loop
+	 * only.
+	 *
+	 * @return True if output is queued.
+	 */
+	boolean hasOutput() {
+		return this.output.hasRemaining() || this.queue.getDepth() > 0;
+	}
+
+	/**
+	 * Drops the connection if its queue overflowed. Called by the loop only.
+	 *
+	 * @return True if the connection was dropped.
+	 */
+	boolean dropIfOverflowed() {
+		if (!this.queue.isOverflowed()) {
+			return false;
+		}
+		if (this.channel.isOpen()) {
+			this.handler.shutdown("Outbound queue overflowed.");
+		}
+		return true;
+	}
+
+}
@@ -6,7 +6,6 @@ import exceptions.TileNotInHandException;
 import game.Move;
 import game.Turn;
 import strategies.SmartStrategy;
-import strategies.StrategyInterface;
 
 /**
  * The computer player that will use the strategy which is assigned. 
@@ -15,15 +14,21 @@ import strategies.StrategyInterface;
 
 public class ComputerPlayer extends ClientPlayer {
 
+	// A player takes part in a single game, so the strategy, and the table of
+	// its EndgameSolver, are kept for all of its turns.
+	private SmartStrategy strategy;
+
 	public ComputerPlayer(Client client) {
 		super(client, "SquirtleSquad");
+		this.strategy = new SmartStrategy();
+		this.strategy.setHumanLike(true);
 	}
 
 	@Override
 	public void giveTurn() {
 		Turn turn = this.client.getTurn();
-		StrategyInterface s = new SmartStrategy();
-		turn = s.requestTurn(turn);
+		this.strategy.setEndgameSolver(this.client.getNumberOfPlayers() == 2);
+		turn = this.strategy.requestTurn(turn);
 		
 		if (turn.isMoveRequest()) {
 			for (Move m : turn.getMoves()) {
@@ -1,28 +1,87 @@
 package players;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import application.Util;
 import game.Tile;
 import game.Turn;
+import server.AIExecutor;
+import server.Game;
 import strategies.StrategyInterface;
 
 /**
- * Under construction.
+ * A computer player on the server. Its turns are searched by a strategy. When
+ * the player has an AIExecutor, the search runs on a worker of the executor,
+ * so the thread handing out the turn is not blocked.
+ * 
  * @author Jonathan Juursema & Peter Wessels
  */
 
 public class ServerAI extends ServerPlayer {
 	
 	private StrategyInterface strategy;
+	private AIExecutor executor;
+
+	// The seconds before the timeout of the game at which the turn is given.
+	private static final int MARGIN = 2;
 
 	public ServerAI(StrategyInterface strategy) {
+		this(strategy, null);
+	}
+
+	/**
+	 * Creates a computer player whose turns are searched on an executor.
+	 * 
+	 * @param strategy
+	 *            The strategy.
+	 * @param executor
+	 *            The executor, or null to search on the calling thread.
+	 */
+	public ServerAI(StrategyInterface strategy, AIExecutor executor) {
 		super("SquirtleSquad");
 		this.strategy = strategy;
+		this.executor = executor;
 	}
-	
+
 	@Override
 	public void giveTurn(Turn turn) {
-		this.getGame().receiveTurn(strategy.requestTurn(turn));
+		Game game = this.getGame();
+		// The time spent waiting in the queue counts for the turn as well.
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(game.TURNTIMEOUT - MARGIN);
+		if (this.executor == null) {
+			this.playTurn(game, turn, deadline);
+		} else if (!this.executor.submit(game, () -> this.playTurn(game, turn, deadline))) {
+			// Do not keep this thread busy, but play the first turn found.
+			Util.log("debug", "The AI queue is full.");
+			this.playTurn(game, turn, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Searches the turn and submits it to the game, unless the game has moved
+	 * on in the meantime, for example because the player timed out.
+	 * 
+	 * @param game
+	 *            The game.
+	 * @param turn
+	 *            The turn to be filled.
+	 * @param deadline
+	 *            The moment, in System.nanoTime, at which the turn should be
+	 *            submitted.
+	 */
+	private void playTurn(Game game, Turn turn, long deadline) {
+		Turn result = this.strategy.requestTurn(turn, deadline);
+		synchronized (game) {
+			if (this.getGame() != game || !game.isPlayer(this)) {
+				return;
+			} else if (game.getGameState() == Game.GameState.INITIAL) {
+				game.receiveInitialMove(result, this);
+			} else if (game.getGameState() == Game.GameState.WAITING
+							&& game.getCurrentPlayer() == this) {
+				game.receiveTurn(result);
+			}
+		}
 	}
 
 	@Override
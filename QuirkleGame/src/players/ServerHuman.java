@@ -11,6 +11,7 @@ import exceptions.SquareOutOfBoundsException;
 import exceptions.TileNotInHandException;
 import game.Move;
 import game.Tile;
+import protocol.MoveCodec;
 import protocol.Protocol;
 import server.Game;
 import server.ServerConnectionHandler;
@@ -54,17 +55,16 @@ public class ServerHuman extends ServerPlayer {
 	/**
 	 * Submit the turn to the game.
 	 * 
-	 * @param turn
-	 *            the turn that needs passed through the game.
+	 * @param moves
+	 *            The moves of the turn, as move records (see MoveCodec).
 	 * @throws NotYourTurnException
 	 * @throws NotInGameException
 	 * @throws IllegalTurnException
 	 * @throws IllegalMoveException
 	 * @throws SquareOutOfBoundsException
-	 * @throws NumberFormatException
 	 */
-	public synchronized void placeMove(String[] moves)
-					throws NotYourTurnException, NotInGameException, NumberFormatException,
+	public synchronized void placeMove(int[] moves)
+					throws NotYourTurnException, NotInGameException,
 					SquareOutOfBoundsException, IllegalMoveException, IllegalTurnException {
 
 		this.getTurn().getMoves().clear();
@@ -82,20 +82,18 @@ public class ServerHuman extends ServerPlayer {
 		List<Tile> handCopy = new ArrayList<Tile>();
 		handCopy.addAll(this.getHand().getTilesInHand());
 
-		for (String move : moves) {
-			// We need to 'escape' the DELIMITER2 because of RegexReasons.
-			String[] args = move.split("\\" + String.valueOf(Protocol.Server.Settings.DELIMITER2));
-
+		for (int move : moves) {
 			boolean moveValid = false;
+			int type = MoveCodec.getType(move);
 
 			for (Tile t : this.getHand().getTilesInHand()) {
 
-				if (t.toProtocol().equals(args[0]) && handCopy.contains(t)) {
+				if (t.getType() == type && handCopy.contains(t)) {
 
 					handCopy.remove(t);
 
 					this.getTurn().addMove(new Move(t, this.getTurn().getBoardCopy().getSquare(
-									Integer.parseInt(args[1]), Integer.parseInt(args[2]))));
+									MoveCodec.getX(move), MoveCodec.getY(move))));
 					moveValid = true;
 
 					break;
@@ -141,9 +139,10 @@ public class ServerHuman extends ServerPlayer {
 		for (String tile : tiles) {
 
 			boolean tileValid = false;
+			int type = Tile.getType(tile);
 
 			for (Tile t : this.getHand().getTilesInHand()) {
-				if (t.toProtocol().equals(tile) && handCopy.contains(t)) {
+				if (t.getType() == type && handCopy.contains(t)) {
 					handCopy.remove(t);
 					toSwap.add(t);
 					this.getTurn().addSwapRequest(t);
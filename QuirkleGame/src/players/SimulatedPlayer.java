@@ -0,0 +1,38 @@
+package players;
+
+import strategies.StrategyInterface;
+
+/**
+ * A player in a game run by the Simulator. It has no connection and no view:
+ * the simulator asks its strategy for every turn directly.
+ * 
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class SimulatedPlayer extends Player {
+
+	private StrategyInterface strategy;
+
+	/**
+	 * Creates a player. Like in a Game, the simulator assigns its hand.
+	 * 
+	 * @param name
+	 *            The name of the player.
+	 * @param strategy
+	 *            The strategy that plays the turns of the player.
+	 */
+	public SimulatedPlayer(String name, StrategyInterface strategy) {
+		super(name);
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Returns the strategy of the player.
+	 * 
+	 * @return The strategy.
+	 */
+	public StrategyInterface getStrategy() {
+		return this.strategy;
+	}
+
+}
@@ -0,0 +1,203 @@
+package protocol;
+
+import java.util.Arrays;
+
+/**
+ * A received command, tokenised in place: the characters of the line are kept
+ * in a buffer together with the positions of the delimiters, instead of being
+ * split into strings. A Command is reused for every line received on a
+ * connection, so it is only valid while the line is being handled.
+ *
+ * The name of a command that is part of the protocol is returned as the
+ * constant from Protocol, and moves are decoded straight from the buffer with
+ * MoveCodec, so handling a MAKEMOVE or MOVE does not create any strings.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class Command implements CharSequence {
+
+	/**
+	 * The names of all commands in the protocol, in both directions.
+	 */
+	private static final String[] NAMES = { Protocol.Client.HALLO, Protocol.Client.QUIT,
+					Protocol.Client.INVITE, Protocol.Client.ACCEPTINVITE,
+					Protocol.Client.DECLINEINVITE, Protocol.Client.MAKEMOVE, Protocol.Client.CHAT,
+					Protocol.Client.REQUESTGAME, Protocol.Client.CHANGESTONE,
+					Protocol.Client.GETLEADERBOARD, Protocol.Client.GETSTONESINBAG,
+					Protocol.Client.ERROR, Protocol.Server.OKWAITFOR, Protocol.Server.STARTGAME,
+					Protocol.Server.GAME_END, Protocol.Server.MOVE, Protocol.Server.ADDTOHAND,
+					Protocol.Server.STONESINBAG, Protocol.Server.LEADERBOARD };
+
+	private char[] chars = new char[256];
+	private int length;
+
+	// The index after every token, so token i runs from ends[i - 1] + 1.
+	private int[] ends = new int[16];
+	private int tokens;
+
+	/**
+	 * Empties the command, to receive the next line.
+	 */
+	public void clear() {
+		this.length = 0;
+		this.tokens = 0;
+	}
+
+	/**
+	 * Adds a character to the line, growing the buffer if needed.
+	 *
+	 * @param c
+	 *            The character.
+	 */
+	public void append(char c) {
+		if (this.length == this.chars.length) {
+			this.chars = Arrays.copyOf(this.chars, 2 * this.length);
+		}
+		this.chars[this.length++] = c;
+	}
+
+	/**
+	 * Finds the tokens of the line, once it is complete.
+	 */
+	public void tokenize() {
+		this.tokens = 0;
+		for (int i = 0; i < this.length; i++) {
+			if (this.chars[i] == Protocol.Server.Settings.DELIMITER) {
+				this.addToken(i);
+			}
+		}
+		this.addToken(this.length);
+		// Like String.split, ignore empty arguments at the end.
+		while (this.tokens > 1 && this.ends[this.tokens - 1] == this.ends[this.tokens - 2] + 1) {
+			this.tokens--;
+		}
+	}
+
+	/**
+	 * Returns the name of the command, being the first token.
+	 *
+	 * @return The name, which is the constant from Protocol for known
+	 *         commands.
+	 */
+	public String getName() {
+		int end = this.ends[0];
+		for (String name : NAMES) {
+			if (this.matches(name, 0, end)) {
+				return name;
+			}
+		}
+		return new String(this.chars, 0, end);
+	}
+
+	/**
+	 * Returns the number of arguments, being all tokens after the name.
+	 *
+	 * @return The number of arguments.
+	 */
+	public int getArgumentCount() {
+		return this.tokens - 1;
+	}
+
+	/**
+	 * Returns an argument as a string.
+	 *
+	 * @param index
+	 *            The index of the argument, from 0.
+	 * @return The argument.
+	 */
+	public String getArgument(int index) {
+		return new String(this.chars, this.getStart(index + 1),
+						this.ends[index + 1] - this.getStart(index + 1));
+	}
+
+	/**
+	 * Returns all arguments as strings.
+	 *
+	 * @return The arguments.
+	 */
+	public String[] getArguments() {
+		String[] args = new String[this.getArgumentCount()];
+		for (int i = 0; i < args.length; i++) {
+			args[i] = this.getArgument(i);
+		}
+		return args;
+	}
+
+	/**
+	 * Decodes an argument holding a move, see MoveCodec.
+	 *
+	 * @param index
+	 *            The index of the argument, from 0.
+	 * @return The move record.
+	 * @throws NumberFormatException
+	 *             When the argument is not a move.
+	 */
+	public int getMove(int index) throws NumberFormatException {
+		return MoveCodec.decode(this, this.getStart(index + 1), this.ends[index + 1]);
+	}
+
+	/**
+	 * Decodes the arguments from an index onwards, all holding a move.
+	 *
+	 * @param from
+	 *            The index of the first move argument.
+	 * @return The move records.
+	 * @throws NumberFormatException
+	 *             When an argument is not a move.
+	 */
+	public int[] getMoves(int from) throws NumberFormatException {
+		int[] moves = new int[Math.max(0, this.getArgumentCount() - from)];
+		for (int i = 0; i < moves.length; i++) {
+			moves[i] = this.getMove(from + i);
+		}
+		return moves;
+	}
+
+	@Override
+	public int length() {
+		return this.length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		return this.chars[index];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return new String(this.chars, start, end - start);
+	}
+
+	/**
+	 * Returns the line as received.
+	 */
+	@Override
+	public String toString() {
+		return new String(this.chars, 0, this.length);
+	}
+
+	private int getStart(int token) {
+		return token == 0 ? 0 : this.ends[token - 1] + 1;
+	}
+
+	private void addToken(int end) {
+		if (this.tokens == this.ends.length) {
+			this.ends = Arrays.copyOf(this.ends, 2 * this.tokens);
+		}
+		this.ends[this.tokens++] = end;
+	}
+
+	private boolean matches(String name, int start, int end) {
+		if (name.length() != end - start) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			if (this.chars[start + i] != name.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
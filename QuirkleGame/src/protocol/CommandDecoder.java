@@ -0,0 +1,57 @@
+package protocol;
+
+import java.util.function.Consumer;
+
+/**
+ * Splits a stream of characters into commands. Commands end with COMMAND_END,
+ * but as empty lines are ignored, a single line end is accepted as well. The
+ * characters of a command are collected in a single Command, which is reused
+ * for every command, so decoding does not create any objects once the buffers
+ * of the Command are large enough.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class CommandDecoder {
+
+	private final Command command = new Command();
+	private final Consumer<Command> handler;
+
+	/**
+	 * Creates a decoder.
+	 *
+	 * @param handler
+	 *            Receives every complete command. The command is only valid
+	 *            until the handler returns.
+	 */
+	public CommandDecoder(Consumer<Command> handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Decodes the next characters of the stream, passing every command that is
+	 * completed to the handler.
+	 *
+	 * @param chars
+	 *            The characters.
+	 * @param offset
+	 *            The index of the first character to decode.
+	 * @param length
+	 *            The number of characters to decode.
+	 */
+	public void decode(char[] chars, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			char c = chars[i];
+			if (c == '\n') {
+				if (this.command.length() > 0) {
+					this.command.tokenize();
+					this.handler.accept(this.command);
+				}
+				this.command.clear();
+			} else if (c != '\r') {
+				this.command.append(c);
+			}
+		}
+	}
+
+}
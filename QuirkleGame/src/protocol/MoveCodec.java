@@ -0,0 +1,203 @@
+package protocol;
+
+import game.Tile;
+
+/**
+ * Converts moves between their protocol representation, being a tile and its
+ * coordinates separated by DELIMITER2 (for instance "AB*-1*2"), and a move
+ * record packed into a single integer. Parsing works on the characters in
+ * place, without splitting or creating strings.
+ *
+ * A move record holds the type of the tile in its highest bits and both
+ * coordinates, offset to be positive, in the lower bits. A tile that is not a
+ * regular one is kept as Tile.NO_TYPE, so it can be rejected the same way as
+ * any other tile that is not in a hand.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class MoveCodec {
+
+	private static final int COORDINATEBITS = 13;
+	private static final int COORDINATEMASK = (1 << COORDINATEBITS) - 1;
+	private static final int OFFSET = 1 << (COORDINATEBITS - 1);
+	private static final int TYPEMASK = 0x3F;
+
+	/**
+	 * The largest coordinate a move record can hold; the smallest is its
+	 * negation minus one. These lie far outside the board, and any coordinate
+	 * beyond them is kept as one of them, so it is rejected by the board.
+	 */
+	public static final int MAXCOORDINATE = OFFSET - 1;
+
+	private MoveCodec() {
+	}
+
+	/**
+	 * Packs a tile type and coordinates into a move record.
+	 *
+	 * @param type
+	 *            The tile type, or Tile.NO_TYPE.
+	 * @param x
+	 *            The x coordinate.
+	 * @param y
+	 *            The y coordinate.
+	 * @return The move record.
+	 */
+	public static int pack(int type, int x, int y) {
+		return (type & TYPEMASK) << (2 * COORDINATEBITS) | (x + OFFSET) << COORDINATEBITS
+						| (y + OFFSET);
+	}
+
+	/**
+	 * Returns the tile type of a move record.
+	 *
+	 * @param move
+	 *            The move record.
+	 * @return The type, or Tile.NO_TYPE if the tile is not a regular one.
+	 */
+	public static int getType(int move) {
+		int type = move >>> (2 * COORDINATEBITS);
+		return type == TYPEMASK ? Tile.NO_TYPE : type;
+	}
+
+	/**
+	 * Returns the x coordinate of a move record.
+	 *
+	 * @param move
+	 *            The move record.
+	 * @return The x coordinate.
+	 */
+	public static int getX(int move) {
+		return (move >>> COORDINATEBITS & COORDINATEMASK) - OFFSET;
+	}
+
+	/**
+	 * Returns the y coordinate of a move record.
+	 *
+	 * @param move
+	 *            The move record.
+	 * @return The y coordinate.
+	 */
+	public static int getY(int move) {
+		return (move & COORDINATEMASK) - OFFSET;
+	}
+
+	/**
+	 * Parses a move in protocol representation.
+	 *
+	 * @param chars
+	 *            The characters holding the move.
+	 * @param start
+	 *            The index of the first character of the move.
+	 * @param end
+	 *            The index after the last character of the move.
+	 * @return The move record.
+	 * @throws NumberFormatException
+	 *             When the move is malformed, or a coordinate does not fit in
+	 *             an int.
+	 */
+	public static int decode(CharSequence chars, int start, int end) throws NumberFormatException {
+		if (end - start < 6 || chars.charAt(start + 2) != Protocol.Server.Settings.DELIMITER2) {
+			throw new NumberFormatException("Malformed move.");
+		}
+		int type = Tile.getType(chars.charAt(start), chars.charAt(start + 1));
+		int separator = start + 3;
+		while (separator < end && chars.charAt(separator) != Protocol.Server.Settings.DELIMITER2) {
+			separator++;
+		}
+		if (separator >= end - 1) {
+			throw new NumberFormatException("Malformed move.");
+		}
+		int x = MoveCodec.parseCoordinate(chars, start + 3, separator);
+		int y = MoveCodec.parseCoordinate(chars, separator + 1, end);
+		return MoveCodec.pack(type, x, y);
+	}
+
+	/**
+	 * Parses a move in protocol representation.
+	 *
+	 * @param move
+	 *            The move.
+	 * @return The move record.
+	 * @throws NumberFormatException
+	 *             When the move is malformed.
+	 */
+	public static int decode(String move) throws NumberFormatException {
+		return MoveCodec.decode(move, 0, move.length());
+	}
+
+	/**
+	 * Parses moves in protocol representation.
+	 *
+	 * @param moves
+	 *            The moves.
+	 * @return The move records.
+	 * @throws NumberFormatException
+	 *             When a move is malformed.
+	 */
+	public static int[] decode(String[] moves) throws NumberFormatException {
+		int[] records = new int[moves.length];
+		for (int i = 0; i < moves.length; i++) {
+			records[i] = MoveCodec.decode(moves[i]);
+		}
+		return records;
+	}
+
+	/**
+	 * Appends the protocol representation of a move.
+	 *
+	 * @param move
+	 *            The move record.
+	 * @param out
+	 *            The builder to append to.
+	 */
+	public static void encode(int move, StringBuilder out) {
+		Tile tile = Tile.ofType(MoveCodec.getType(move));
+		out.append(tile.getColor()).append(tile.getShape())
+						.append(Protocol.Server.Settings.DELIMITER2).append(MoveCodec.getX(move))
+						.append(Protocol.Server.Settings.DELIMITER2).append(MoveCodec.getY(move));
+	}
+
+	/**
+	 * Returns the protocol representation of a move.
+	 *
+	 * @param move
+	 *            The move record.
+	 * @return The move.
+	 */
+	public static String toProtocol(int move) {
+		StringBuilder out = new StringBuilder(12);
+		MoveCodec.encode(move, out);
+		return out.toString();
+	}
+
+	/**
+	 * Parses a coordinate without creating a string.
+	 */
+	private static int parseCoordinate(CharSequence chars, int start, int end)
+					throws NumberFormatException {
+		boolean negative = start < end && chars.charAt(start) == '-';
+		int i = negative ? start + 1 : start;
+		if (i == end) {
+			throw new NumberFormatException("Missing coordinate.");
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = chars.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException("Malformed coordinate.");
+			}
+			value = value * 10 + digit;
+			if (value > -(long) Integer.MIN_VALUE) {
+				throw new NumberFormatException("Coordinate out of range.");
+			}
+		}
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE) {
+			throw new NumberFormatException("Coordinate out of range.");
+		}
+		return (int) Math.max(-OFFSET, Math.min(MAXCOORDINATE, value));
+	}
+
+}
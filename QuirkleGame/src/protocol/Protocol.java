@@ -637,6 +637,18 @@ public class Protocol {
 																// SSLsocket
 																// gebruikt gaat
 																// worden
+
+			/**
+			 * <p>
+			 * Als zowel de client als de server <code>UTF8</code> noemen in
+			 * <code>HALLO</code>, gebruiken beide na de <code>HALLO</code> van
+			 * de server <code>COMPACTENCODING</code> in plaats van
+			 * <code>ENCODING</code>, in beide richtingen. Een client die
+			 * <code>UTF8</code> noemt, stuurt niets tot de <code>HALLO</code>
+			 * of <code>ERROR</code> van de server binnen is.
+			 * </p>
+			 */
+			public static final String UTF8 = "UTF8";
 		}
 
 		/**
@@ -686,6 +698,16 @@ public class Protocol {
 
 			public static final String ENCODING = "UTF-16";
 
+			/**
+			 * <p>
+			 * De characterencoding na het afspreken van de feature
+			 * <code>UTF8</code>. Het protocol bestaat bijna helemaal uit ASCII,
+			 * dus dit is de helft van de bytes van <code>ENCODING</code>.
+			 * </p>
+			 */
+
+			public static final String COMPACTENCODING = "UTF-8";
+
 			/**
 			 * <p>
 			 * Het aantal seconden voordat een client timeout. Dit is in de
@@ -0,0 +1,207 @@
+package server;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import application.Util;
+
+/**
+ * Runs the turns of the computer players of the server on a fixed number of
+ * worker threads, so searching for a turn never blocks the thread that handed
+ * out the turn, such as a connection handler or a timer.
+ *
+ * Waiting turns are queued per game, and the workers serve the games in turn
+ * (round robin). A game with many waiting turns can therefore not delay the
+ * turns of other games. The total number of waiting turns is bounded: when
+ * the queue is full, a turn is refused and the caller has to handle it
+ * itself.
+ *
+ * The executor keeps track of how long turns wait in the queue before a
+ * worker picks them up, as a busy server shows this first.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class AIExecutor {
+
+	/**
+	 * The default maximal number of waiting turns.
+	 */
+	public static final int CAPACITY = 1024;
+
+	/**
+	 * A queued task with the moment it was queued.
+	 */
+	private static class Task {
+		private final Runnable runnable;
+		private final long queued = System.nanoTime();
+
+		private Task(Runnable runnable) {
+			this.runnable = runnable;
+		}
+	}
+
+	private final int capacity;
+	private final Thread[] workers;
+
+	// The games with waiting turns, in the order in which they are served.
+	private final ArrayDeque<Game> ready = new ArrayDeque<Game>();
+	private final Map<Game, ArrayDeque<Task>> waiting = new HashMap<Game, ArrayDeque<Task>>();
+	private int size;
+	private boolean running = true;
+
+	private long served;
+	private long totalWait;
+	private long maxWait;
+
+	/**
+	 * Creates an executor with a worker for every processor.
+	 */
+	public AIExecutor() {
+		this(Runtime.getRuntime().availableProcessors(), AIExecutor.CAPACITY);
+	}
+
+	/**
+	 * Creates an executor and starts its workers.
+	 *
+	 * @param parallelism
+	 *            The number of workers.
+	 * @param capacity
+	 *            The maximal number of waiting turns.
+	 */
+	public AIExecutor(int parallelism, int capacity) {
+		this.capacity = capacity;
+		this.workers = new Thread[parallelism];
+		for (int i = 0; i < parallelism; i++) {
+			this.workers[i] = new Thread(this::work, "AI worker " + (i + 1));
+			this.workers[i].setDaemon(true);
+			this.workers[i].start();
+		}
+	}
+
+	/**
+	 * Queues a turn of a game.
+	 *
+	 * @param game
+	 *            The game the turn belongs to.
+	 * @param runnable
+	 *            The turn to be run.
+	 * @return True if the turn is queued, false if the queue is full or the
+	 *         executor has been shut down.
+	 */
+	public synchronized boolean submit(Game game, Runnable runnable) {
+		if (!this.running || this.size >= this.capacity) {
+			return false;
+		}
+		ArrayDeque<Task> tasks = this.waiting.get(game);
+		if (tasks == null) {
+			tasks = new ArrayDeque<Task>();
+			this.waiting.put(game, tasks);
+			this.ready.add(game);
+		}
+		tasks.add(new Task(runnable));
+		this.size++;
+		this.notify();
+		return true;
+	}
+
+	/**
+	 * Stops the workers. Turns that are still waiting are not run.
+	 */
+	public synchronized void shutdown() {
+		this.running = false;
+		this.ready.clear();
+		this.waiting.clear();
+		this.size = 0;
+		this.notifyAll();
+	}
+
+	/**
+	 * Returns the number of turns waiting in the queue.
+	 *
+	 * @return The number of waiting turns.
+	 */
+	public synchronized int getWaiting() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the number of turns picked up by the workers so far.
+	 *
+	 * @return The number of turns.
+	 */
+	public synchronized long getServed() {
+		return this.served;
+	}
+
+	/**
+	 * Returns the average time turns waited in the queue.
+	 *
+	 * @return The average waiting time in milliseconds.
+	 */
+	public synchronized double getAverageWait() {
+		return this.served == 0 ? 0 : this.totalWait / 1e6 / this.served;
+	}
+
+	/**
+	 * Returns the longest time a turn waited in the queue.
+	 *
+	 * @return The longest waiting time in milliseconds.
+	 */
+	public synchronized double getMaxWait() {
+		return this.maxWait / 1e6;
+	}
+
+	/**
+	 * Takes the next turn from the queue, waiting for one if there is none.
+	 * The game it belongs to moves to the back of the line.
+	 *
+	 * @return The task, or null if the executor has been shut down.
+	 * @throws InterruptedException
+	 */
+	private synchronized Task take() throws InterruptedException {
+		while (this.running && this.ready.isEmpty()) {
+			this.wait();
+		}
+		if (!this.running) {
+			return null;
+		}
+
+		Game game = this.ready.poll();
+		ArrayDeque<Task> tasks = this.waiting.get(game);
+		Task task = tasks.poll();
+		if (tasks.isEmpty()) {
+			this.waiting.remove(game);
+		} else {
+			this.ready.add(game);
+		}
+		this.size--;
+
+		long wait = System.nanoTime() - task.queued;
+		this.served++;
+		this.totalWait += wait;
+		this.maxWait = Math.max(this.maxWait, wait);
+		return task;
+	}
+
+	/**
+	 * The loop of a worker.
+	 */
+	private void work() {
+		try {
+			Task task;
+			while ((task = this.take()) != null) {
+				try {
+					task.runnable.run();
+				} catch (RuntimeException e) {
+					// A broken turn should not take the worker down with it.
+					Util.log(e);
+				}
+			}
+		} catch (InterruptedException e) {
+			Util.log(e);
+		}
+	}
+
+}
@@ -30,6 +30,7 @@ import game.Tile;
 import game.Turn;
 import players.ServerHuman;
 import players.ServerPlayer;
+import protocol.MoveCodec;
 import protocol.Protocol;
 import server.Game;
 
@@ -66,7 +67,7 @@ public class Game implements ActionListener {
 	public final static int MAXPLAYERS = 4;
 	public final int TURNTIMEOUT = 15;
 
-	private static final int BONUS_WHEN_FINISH_FIRST = 6;
+	public static final int BONUS_WHEN_FINISH_FIRST = 6;
 
 	private Server parentServer;
 	private Board board;
@@ -133,14 +134,15 @@ public class Game implements ActionListener {
 		}
 		if (player instanceof ServerHuman) {
 			this.parentServer.playerFromLobby((ServerHuman) player);
-			if (players.size() == this.noOfPlayers) {
-				this.start();
-			} else {
-				for (ServerPlayer p : this.players) {
-					if (p instanceof ServerHuman) {
-						((ServerHuman) p).sendMessage(Protocol.Server.OKWAITFOR, new String[] {
-								"" + (this.getNoOfPlayers() - this.players.size()) });
-					}
+		}
+		// Computer players can complete a game as well.
+		if (players.size() == this.noOfPlayers) {
+			this.start();
+		} else if (player instanceof ServerHuman) {
+			for (ServerPlayer p : this.players) {
+				if (p instanceof ServerHuman) {
+					((ServerHuman) p).sendMessage(Protocol.Server.OKWAITFOR, new String[] {
+							"" + (this.getNoOfPlayers() - this.players.size()) });
 				}
 			}
 		}
@@ -154,13 +156,18 @@ public class Game implements ActionListener {
 	 * 6) @ ensures bag.getNumberOfTiles == (DIFFERENTSHAPES * DIFFERENTCOLORS *
 	 * TILESPERTYPE) - 6 * noOfPlayers
 	 */
-	public void start() {
+	public synchronized void start() {
 
 		Util.log("debug", "Starting game for " + this.getNoOfPlayers() + " players.");
 
 		// Initialise the game.
 		this.gameState = Game.GameState.INITIAL;
 
+		// Computer players may answer before all turns have been handed out,
+		// so the timeout has to run already.
+		this.timeout = new Timer(this.TURNTIMEOUT * 1000, this);
+		this.timeout.start();
+
 		// Make a new bag and fill it.
 		this.bag = new Bag();
 		this.bag.fill();
@@ -176,7 +183,7 @@ public class Game implements ActionListener {
 		// Initialise player hands, send them, and request first turn.
 		for (ServerPlayer p : this.players) {
 			// Initialise hand
-			p.assignHand(new Hand());
+			p.assignHand(new Hand(false));
 			try {
 				this.bag.takeFromBag(p.getHand(), 6);
 			} catch (TooFewTilesInBagException | TileNotInBagException
@@ -202,9 +209,6 @@ public class Game implements ActionListener {
 			p.giveTurn(turn);
 		}
 
-		this.timeout = new Timer(this.TURNTIMEOUT * 1000, this);
-		this.timeout.start();
-
 	}
 
 	/**
@@ -218,7 +222,7 @@ public class Game implements ActionListener {
 	 * @ requires (\forall Move m; turn.getMoves().contains(m);
 	 * m.isValidMove(turn.getBoardCoby, turn))
 	 */
-	public void receiveInitialMove(Turn turn, ServerPlayer player) {
+	public synchronized void receiveInitialMove(Turn turn, ServerPlayer player) {
 
 		Util.log("debug", "Recevied initial move for " + player.getName() + ".");
 
@@ -298,7 +302,7 @@ public class Game implements ActionListener {
 	 * Timeout function that is called after the timeout is exceeded. What to do
 	 * depends on what state the game is currently in.
 	 */
-	public void actionPerformed(ActionEvent e) {
+	public synchronized void actionPerformed(ActionEvent e) {
 
 		Util.log("debug", "Timeout occured in a game for " + this.getNoOfPlayers() + ".");
 
@@ -338,7 +342,7 @@ public class Game implements ActionListener {
 	 * BoardSquare b; board.isBoardSquareOfThis(b); b.getTile() ==
 	 * turn.getMoves().get(1).tileToPlay))
 	 */
-	public void receiveTurn(Turn turn) {
+	public synchronized void receiveTurn(Turn turn) {
 
 		try {
 
@@ -351,9 +355,8 @@ public class Game implements ActionListener {
 			args[1] = this.getNextPlayer(1).toString();
 			for (int i = 0; i < turn.getMoves().size(); i++) {
 				Move m = turn.getMoves().get(i);
-				args[i + 2] = m.getTile().toProtocol() + Protocol.Server.Settings.DELIMITER2
-								+ m.getPosition().getX() + Protocol.Server.Settings.DELIMITER2
-								+ m.getPosition().getY();
+				args[i + 2] = MoveCodec.toProtocol(MoveCodec.pack(m.getTile().getType(),
+								m.getPosition().getX(), m.getPosition().getY()));
 			}
 
 			for (ServerPlayer p : this.players) {
@@ -391,18 +394,21 @@ public class Game implements ActionListener {
 	 * @ ensures !gameOver() ==> currentPlayer = (\old(currentPlayer) + mod) %
 	 * noOfPlayers;
 	 */
-	public void nextTurn(int mod) {
+	public synchronized void nextTurn(int mod) {
 
 		if (!this.gameOver()) {
 
 			this.setCurrentPlayer(this.getNextPlayer(mod));
-			this.getCurrentPlayer().giveTurn(new Turn(this.board, this.getCurrentPlayer()));
 
+			// A computer player may answer right away, so the game has to be
+			// waiting for the turn before it is handed out.
 			timeout = new Timer(this.TURNTIMEOUT * 1000, this);
 			timeout.start();
 
 			this.gameState = Game.GameState.WAITING;
 
+			this.getCurrentPlayer().giveTurn(new Turn(this.board, this.getCurrentPlayer()));
+
 		} else {
 			this.finish();
 		}
@@ -3,11 +3,17 @@ package server;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.Timer;
 
@@ -17,7 +23,7 @@ import exceptions.PlayerAlreadyInGameException;
 import exceptions.PlayerCannotBeChallengedException;
 import exceptions.PlayerIsNoChallengeeException;
 import exceptions.TooManyPlayersException;
-import players.Player;
+import networking.EventLoop;
 import players.ServerAI;
 import players.ServerHuman;
 import protocol.Protocol;
@@ -29,43 +35,122 @@ import strategies.SmartStrategy;
  * of players not in a game, and a list of games and their associated players. A
  * player can not be in the lobby and a game at the same time.
  * 
+ * Connections are either handled by a thread each, by a virtual thread each
+ * (on a Java version that has them), or by a few EventLoops that each serve
+ * many connections. The latter is the default, as idle players in the lobby
+ * then do not cost a thread each.
+ * 
+ * The lobby, players, games and challenges are used by all connections at
+ * once, so they are kept in concurrent collections rather than guarded by
+ * locks. A virtual thread blocking inside a synchronized block would keep its
+ * carrier thread blocked as well.
+ * 
  * @author Jonathan Juursema & Peter Wessels
  *
  */
 public class Server extends Thread implements ActionListener {
 
-	public static final String[] FUNCTIONS = { "CHALLENGE", "CHAT", "LEADERBOARD" };
+	public static final String[] FUNCTIONS = { "CHALLENGE", "CHAT", "LEADERBOARD", "UTF8" };
 
 	private static final int MAXLEADERBOARDLENGTH = 10;
 
-	private List<ServerHuman> lobby;
-	private /*@ spec_public @*/ List<ServerHuman> players;
-	private List<Game> games;
+	/**
+	 * The number of event loops serving the connections.
+	 */
+	public static final int IOTHREADS = 2;
+
+	/**
+	 * The ways in which connections can be handled.
+	 */
+	public static enum ConnectionMode {
+		THREADS, VIRTUALTHREADS, EVENTLOOP
+	};
+
+	private Set<ServerHuman> lobby;
+	private /*@ spec_public @*/ Map<String, ServerHuman> players;
+	private Set<Game> games;
 
 	private Map<ServerHuman, ServerHuman> challenges;
-	private HashMap<String, Integer> leaderboard;
+	private Map<String, Integer> leaderboard;
 
 	private ServerSocket socket;
+	private ServerSocketChannel channel;
+	private EventLoop[] loops;
+	private int nextLoop;
+	private ExecutorService virtualThreads;
+	private AIExecutor aiExecutor;
 
 	public Server(int port) throws IOException {
-		this.lobby = new ArrayList<ServerHuman>();
-		this.players = new ArrayList<ServerHuman>();
-		this.socket = new ServerSocket(port);
-		this.games = new ArrayList<Game>();
-		this.challenges = new HashMap<ServerHuman, ServerHuman>();
-		this.leaderboard = new HashMap<String, Integer>();
+		this(port, Runtime.getRuntime().availableProcessors(), ConnectionMode.EVENTLOOP);
+	}
+
+	public Server(int port, int aiThreads) throws IOException {
+		this(port, aiThreads, ConnectionMode.EVENTLOOP);
+	}
+
+	/**
+	 * Starts a server.
+	 * 
+	 * @param port
+	 *            The port to listen on.
+	 * @param aiThreads
+	 *            The number of threads searching the turns of computer
+	 *            players.
+	 * @param mode
+	 *            How connections are handled.
+	 * @throws IOException
+	 */
+	public Server(int port, int aiThreads, ConnectionMode mode) throws IOException {
+		this.aiExecutor = new AIExecutor(aiThreads, AIExecutor.CAPACITY);
+		this.lobby = ConcurrentHashMap.newKeySet();
+		this.players = new ConcurrentHashMap<String, ServerHuman>();
+		if (mode == ConnectionMode.EVENTLOOP) {
+			this.channel = ServerSocketChannel.open();
+			this.channel.bind(new InetSocketAddress(port));
+			this.loops = new EventLoop[IOTHREADS];
+			for (int i = 0; i < IOTHREADS; i++) {
+				this.loops[i] = new EventLoop("Event loop " + (i + 1));
+				this.loops[i].start();
+			}
+		} else {
+			this.socket = new ServerSocket(port);
+			if (mode == ConnectionMode.VIRTUALTHREADS) {
+				this.virtualThreads = Server.newVirtualThreadExecutor();
+			}
+		}
+		this.games = ConcurrentHashMap.newKeySet();
+		this.challenges = new ConcurrentHashMap<ServerHuman, ServerHuman>();
+		this.leaderboard = new ConcurrentHashMap<String, Integer>();
 		this.start();
 
 		(new Timer(5000, this)).start();
 	}
 
+	/**
+	 * Creates an executor that runs every task on a new virtual thread. As
+	 * virtual threads only exist from Java 21 on, the executor is looked up
+	 * by reflection.
+	 * 
+	 * @return The executor, or null if this Java version has no virtual
+	 *         threads.
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+							.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			Util.log("debug", "Virtual threads are not available, using threads instead.");
+			return null;
+		}
+	}
+
 	/**
 	 * Perform clean-up of empty games and disconnected players.
 	 */
 	@Override
 	public void actionPerformed(ActionEvent arg0) {
 		ArrayList<ServerHuman> cleanupPlayers = new ArrayList<ServerHuman>();
-		cleanupPlayers.addAll(players);
+		cleanupPlayers.addAll(players.values());
 		ArrayList<Game> cleanupGames = new ArrayList<Game>();
 		cleanupGames.addAll(games);
 
@@ -82,6 +167,33 @@ public class Server extends Thread implements ActionListener {
 				this.removePlayer(p);
 			}
 		}
+
+		if (this.aiExecutor.getServed() > 0) {
+			Util.log("debug", "AI turns: " + this.aiExecutor.getServed() + " served, "
+							+ this.aiExecutor.getWaiting() + " waiting, queue wait "
+							+ this.aiExecutor.getAverageWait() + " ms on average and "
+							+ this.aiExecutor.getMaxWait() + " ms at most.");
+		}
+	}
+
+	/**
+	 * Returns the executor on which the turns of computer players are
+	 * searched.
+	 * 
+	 * @return The executor.
+	 */
+	public AIExecutor getAIExecutor() {
+		return this.aiExecutor;
+	}
+
+	/**
+	 * Returns the port the server listens on.
+	 * 
+	 * @return The port.
+	 */
+	public int getPort() {
+		return this.channel != null ? this.channel.socket().getLocalPort()
+						: this.socket.getLocalPort();
 	}
 
 	/**
@@ -94,7 +206,18 @@ public class Server extends Thread implements ActionListener {
 		while (running) {
 			try {
 				Util.log("debug", "Server is now waiting for a connection.");
-				(new ServerConnectionHandler(this, this.socket.accept())).start();
+				if (this.channel != null) {
+					// Spread the connections over the loops in turn.
+					SocketChannel client = this.channel.accept();
+					EventLoop loop = this.loops[this.nextLoop];
+					this.nextLoop = (this.nextLoop + 1) % this.loops.length;
+					loop.register(client, new ServerConnectionHandler(this, client));
+				} else if (this.virtualThreads != null) {
+					// Reading and writing both get a virtual thread.
+					(new ServerConnectionHandler(this, this.socket.accept())).start(this.virtualThreads);
+				} else {
+					(new ServerConnectionHandler(this, this.socket.accept())).start();
+				}
 				Util.log("debug", "A new client has connected.");
 			} catch (IOException e) {
 				Util.log(e);
@@ -131,8 +254,7 @@ public class Server extends Thread implements ActionListener {
 	 *            The player.
 	 */
 	public void playerToLobby(ServerHuman player) {
-		if (!lobby.contains(player)) {
-			lobby.add(player);
+		if (lobby.add(player)) {
 			this.chat(player, "< entered the lobby >");
 			if (player.canChat()) {
 				String inLobby = "";
@@ -153,24 +275,25 @@ public class Server extends Thread implements ActionListener {
 	 *            The player.
 	 */
 	public void playerFromLobby(ServerHuman player) {
-		if (lobby.contains(player)) {
-			lobby.remove(player);
+		if (lobby.remove(player)) {
 			this.chat(player, "< left the lobby >");
 			Util.log("debug", player.getName() + " left the lobby.");
 		}
 	}
 
 	/**
-	 * Adds a player to the player list.
+	 * Adds a player to the player list, unless its name is taken already.
 	 * 
 	 * @param player
 	 *            The player.
+	 * @return True if the player was added, false if the name is taken.
 	 */
-	public void addPlayer(ServerHuman player) {
-		if (!players.contains(player)) {
-			players.add(player);
-			Util.log("debug", player.getName() + " joined the server.");
+	public boolean addPlayer(ServerHuman player) {
+		if (players.putIfAbsent(player.getName(), player) != null) {
+			return false;
 		}
+		Util.log("debug", player.getName() + " joined the server.");
+		return true;
 	}
 
 	/**
@@ -180,9 +303,8 @@ public class Server extends Thread implements ActionListener {
 	 *            The player.
 	 */
 	public void removePlayer(ServerHuman player) {
-		if (players.contains(player)) {
+		if (players.remove(player.getName(), player)) {
 			this.playerFromLobby(player);
-			players.remove(player);
 			Util.log("debug", player.getName() + " left the server.");
 		}
 	}
@@ -195,12 +317,7 @@ public class Server extends Thread implements ActionListener {
 	 * @return True if the name does not exist, false otherwise.
 	 */
 	public boolean isUniqueName(String name) {
-		for (Player p : this.players) {
-			if (p.getName().equals(name)) {
-				return false;
-			}
-		}
-		return true;
+		return !this.players.containsKey(name);
 	}
 
 	/**
@@ -242,7 +359,9 @@ public class Server extends Thread implements ActionListener {
 		if (noOfPlayers == 1) {
 			Game game = new Game(this, 2);
 			game.addPlayer(player);
-			game.addPlayer(new ServerAI(new SmartStrategy()));
+			SmartStrategy strategy = new SmartStrategy();
+			strategy.setEndgameSolver(true);
+			game.addPlayer(new ServerAI(strategy, this.aiExecutor));
 			addGame(game);
 			Util.log("debug", "Created an AI game for "
 							+ player.getName() + ".");
@@ -294,13 +413,7 @@ public class Server extends Thread implements ActionListener {
 	public void challenge(ServerHuman challenger, String challengeeName)
 					throws PlayerCannotBeChallengedException, AlreadyChallengedSomeoneException {
 
-		ServerHuman challengee = null;
-
-		for (ServerHuman p : this.players) {
-			if (p.getName().equals(challengeeName)) {
-				challengee = p;
-			}
-		}
+		ServerHuman challengee = this.players.get(challengeeName);
 
 		if (challengee == null) {
 			throw new PlayerCannotBeChallengedException(challengee);
@@ -354,9 +467,9 @@ public class Server extends Thread implements ActionListener {
 					challenger = p;
 				}
 			}
-			if (challenger != null) {
+			// Only the thread that removes the challenge handles it.
+			if (challenger != null && this.challenges.remove(challenger, challengee)) {
 				challenger.decline();
-				this.challenges.remove(challenger, challengee);
 			} else {
 				throw new PlayerIsNoChallengeeException(challengee);
 			}
@@ -383,13 +496,13 @@ public class Server extends Thread implements ActionListener {
 					challenger = p;
 				}
 			}
-			if (challenger != null) {
+			// Only the thread that removes the challenge handles it.
+			if (challenger != null && this.challenges.remove(challenger, challengee)) {
 				try {
 					Game game = new Game(this, 2);
 					game.addPlayer(challengee);
 					game.addPlayer(challenger);
 					addGame(game);
-					this.challenges.remove(challenger, challengee);
 				} catch (TooManyPlayersException e) {
 					Util.log(e);
 				}
@@ -412,9 +525,8 @@ public class Server extends Thread implements ActionListener {
 					challenger = p;
 				}
 			}
-			if (challenger != null) {
+			if (challenger != null && this.challenges.remove(challenger, player)) {
 				challenger.decline();
-				this.challenges.remove(challenger);
 			}
 		} else if (isChallenger(player)) {
 			this.challenges.remove(player);
@@ -440,13 +552,14 @@ public class Server extends Thread implements ActionListener {
 	 *         sender.
 	 */
 	public String[] leaderboardToProtocol() {
-		this.leaderboard = Util.sortLeaderboard(leaderboard);
-		String[] args = new String[(this.leaderboard.keySet().size() < Server.MAXLEADERBOARDLENGTH ? this.leaderboard.keySet().size() : Server.MAXLEADERBOARDLENGTH)];
+		// Sorting empties the map it is given, so sort a copy.
+		Map<String, Integer> sorted = Util.sortLeaderboard(new HashMap<String, Integer>(this.leaderboard));
+		String[] args = new String[(sorted.keySet().size() < Server.MAXLEADERBOARDLENGTH ? sorted.keySet().size() : Server.MAXLEADERBOARDLENGTH)];
 		int i = 0;
-		for (String name : this.leaderboard.keySet()) {
+		for (String name : sorted.keySet()) {
 			if (i < Server.MAXLEADERBOARDLENGTH) {
 				args[i] = name + Protocol.Server.Settings.DELIMITER2
-								+ this.leaderboard.get(name);
+								+ sorted.get(name);
 			}
 			i++;
 		}
@@ -2,6 +2,8 @@ package server;
 
 import java.io.IOException;
 import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.channels.SocketChannel;
 
 import application.App;
 import application.Util;
@@ -18,6 +20,8 @@ import exceptions.TileNotInHandException;
 import exceptions.TooManyPlayersException;
 import networking.ConnectionHandler;
 import players.ServerHuman;
+import protocol.Command;
+import protocol.MoveCodec;
 import protocol.Protocol;
 
 public class ServerConnectionHandler extends ConnectionHandler {
@@ -38,11 +42,40 @@ public class ServerConnectionHandler extends ConnectionHandler {
 		this.server = server;
 	}
 
+	/**
+	 * Initialize a new ConnectionHandler for the server, for a channel served
+	 * by an EventLoop.
+	 * 
+	 * @param server
+	 *            The server object.
+	 * @param channel
+	 *            The channel for this handler.
+	 */
+	public ServerConnectionHandler(Server server, SocketChannel channel) {
+		super(channel);
+		this.server = server;
+	}
+
 	@Override
 	public void run() {
 		super.run();
 	}
 
+	@Override
+	public void parse(Command command) {
+		// Moves are decoded from the command itself, without any strings.
+		if (command.getName() == Protocol.Client.MAKEMOVE && this.player != null
+						&& command.getArgumentCount() > 0) {
+			try {
+				this.placeMove(command.getMoves(0));
+			} catch (NumberFormatException e) {
+				this.send(Protocol.Server.ERROR, new String[] { "8", "NotANumber" });
+			}
+		} else {
+			super.parse(command);
+		}
+	}
+
 	@Override
 	public void parse(String command, String[] args) {
 
@@ -149,20 +182,9 @@ public class ServerConnectionHandler extends ConnectionHandler {
 				this.send(Protocol.Server.ERROR, new String[] { "8", "TooFewArguments" });
 			} else {
 				try {
-					this.getPlayer().placeMove(args);
-				} catch (NotYourTurnException e) {
-					this.send(Protocol.Server.ERROR, new String[] { "1", "NotYourTurn" });
-				} catch (NotInGameException e) {
-					this.send(Protocol.Server.ERROR, new String[] { "1", "YourNotInAGame" });
+					this.placeMove(MoveCodec.decode(args));
 				} catch (NumberFormatException e) {
 					this.send(Protocol.Server.ERROR, new String[] { "8", "NotANumber" });
-				} catch (SquareOutOfBoundsException e) {
-					this.send(Protocol.Server.ERROR,
-									new String[] { "7", "CoordinatesOutOfBounds" });
-				} catch (IllegalMoveException e) {
-					this.send(Protocol.Server.ERROR, new String[] { "7", "IllegalMove" });
-				} catch (IllegalTurnException e) {
-					this.send(Protocol.Server.ERROR, new String[] { "7", "IllegalTurn" });
 				}
 			}
 			break;
@@ -206,41 +228,49 @@ public class ServerConnectionHandler extends ConnectionHandler {
 	 */
 	private void registerClient(String[] args) {
 
-		if (!this.server.isUniqueName(args[0])) {
-			this.send(Protocol.Server.ERROR, new String[] { "4", "AlreadyExists" });
-			return;
-		}
-
 		if (args[0].length() > 15) {
 			this.send(Protocol.Server.ERROR, new String[] { "4", "TooLong" });
 			return;
 		}
 
-		String[] resp = new String[Server.FUNCTIONS.length + 1];
-		resp[0] = App.name;
-		for (int i = 1; i <= Server.FUNCTIONS.length; i++) {
-			resp[i] = Server.FUNCTIONS[i - 1];
-		}
-
-		this.send(Protocol.Server.HALLO, resp);
-
-		this.player = new ServerHuman(args[0], this);
+		ServerHuman player = new ServerHuman(args[0], this);
+		String encoding = Protocol.Server.Settings.ENCODING;
 
 		for (int i = 1; i < args.length; i++) {
 			switch (args[i]) {
 			case "CHALLENGE":
-				this.getPlayer().canInvite(true);
+				player.canInvite(true);
 				break;
 			case "CHAT":
-				this.getPlayer().canChat(true);
+				player.canChat(true);
 				break;
 			case "LEADERBOARD":
-				this.getPlayer().canLeaderBoard(true);
+				player.canLeaderBoard(true);
+				break;
+			case Protocol.Server.Features.UTF8:
+				encoding = Protocol.Server.Settings.COMPACTENCODING;
 				break;
 			}
 		}
 
-		this.server.addPlayer(this.getPlayer());
+		// Claiming the name is the check, so two clients cannot both get it.
+		if (!this.server.addPlayer(player)) {
+			this.send(Protocol.Server.ERROR, new String[] { "4", "AlreadyExists" });
+			return;
+		}
+		this.player = player;
+
+		String[] resp = new String[Server.FUNCTIONS.length + 1];
+		resp[0] = App.name;
+		for (int i = 1; i <= Server.FUNCTIONS.length; i++) {
+			resp[i] = Server.FUNCTIONS[i - 1];
+		}
+
+		this.send(Protocol.Server.HALLO, resp);
+
+		// Everything after the HALLO above, in both directions.
+		this.setCharset(Charset.forName(encoding));
+
 		this.server.playerToLobby(this.getPlayer());
 		Util.log("info", "New player connected: " + this.getPlayer().getName());
 
@@ -262,6 +292,29 @@ public class ServerConnectionHandler extends ConnectionHandler {
 		}
 	}
 
+	/**
+	 * Places the moves of the player, and reports why they could not be placed
+	 * if so.
+	 * 
+	 * @param moves
+	 *            The move records, see MoveCodec.
+	 */
+	private void placeMove(int[] moves) {
+		try {
+			this.getPlayer().placeMove(moves);
+		} catch (NotYourTurnException e) {
+			this.send(Protocol.Server.ERROR, new String[] { "1", "NotYourTurn" });
+		} catch (NotInGameException e) {
+			this.send(Protocol.Server.ERROR, new String[] { "1", "YourNotInAGame" });
+		} catch (SquareOutOfBoundsException e) {
+			this.send(Protocol.Server.ERROR, new String[] { "7", "CoordinatesOutOfBounds" });
+		} catch (IllegalMoveException e) {
+			this.send(Protocol.Server.ERROR, new String[] { "7", "IllegalMove" });
+		} catch (IllegalTurnException e) {
+			this.send(Protocol.Server.ERROR, new String[] { "7", "IllegalTurn" });
+		}
+	}
+
 	/**
 	 * @return the player
 	 */
@@ -0,0 +1,164 @@
+package simulator;
+
+/**
+ * The outcome of a single game run by the Simulator. Players are identified by
+ * their seat, being the index of their strategy in the simulator.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class GameResult {
+
+	private final long seed;
+	private final int[] scores;
+	private final int[] turns;
+	private final long[] thinkingTime;
+	private final long[] maxThinkingTime;
+	private boolean blocked;
+
+	/**
+	 * Creates the result of a game that has not been played yet.
+	 *
+	 * @param seed
+	 *            The seed of the bag of the game.
+	 * @param players
+	 *            The number of players.
+	 */
+	GameResult(long seed, int players) {
+		this.seed = seed;
+		this.scores = new int[players];
+		this.turns = new int[players];
+		this.thinkingTime = new long[players];
+		this.maxThinkingTime = new long[players];
+	}
+
+	/**
+	 * Records a turn of a player.
+	 *
+	 * @param seat
+	 *            The seat of the player.
+	 * @param score
+	 *            The score of the turn.
+	 * @param time
+	 *            The time the strategy took, in nanoseconds.
+	 */
+	void addTurn(int seat, int score, long time) {
+		this.scores[seat] += score;
+		this.turns[seat]++;
+		this.thinkingTime[seat] += time;
+		this.maxThinkingTime[seat] = Math.max(this.maxThinkingTime[seat], time);
+	}
+
+	/**
+	 * Adds the bonus for emptying the hand first.
+	 *
+	 * @param seat
+	 *            The seat of the player.
+	 * @param bonus
+	 *            The bonus.
+	 */
+	void addBonus(int seat, int bonus) {
+		this.scores[seat] += bonus;
+	}
+
+	/**
+	 * Marks the game as ended because no player could move or swap anymore.
+	 */
+	void setBlocked() {
+		this.blocked = true;
+	}
+
+	/**
+	 * Returns the seed of the bag, with which the game can be replayed.
+	 *
+	 * @return The seed.
+	 */
+	public long getSeed() {
+		return this.seed;
+	}
+
+	/**
+	 * Returns the number of players.
+	 *
+	 * @return The number of players.
+	 */
+	public int getPlayers() {
+		return this.scores.length;
+	}
+
+	/**
+	 * Returns the final score of a player.
+	 *
+	 * @param seat
+	 *            The seat of the player.
+	 * @return The score.
+	 */
+	public int getScore(int seat) {
+		return this.scores[seat];
+	}
+
+	/**
+	 * Returns the number of turns a player played, including swaps and
+	 * passes.
+	 *
+	 * @param seat
+	 *            The seat of the player.
+	 * @return The number of turns.
+	 */
+	public int getTurns(int seat) {
+		return this.turns[seat];
+	}
+
+	/**
+	 * Returns the total time the strategy of a player took for its turns.
+	 *
+	 * @param seat
+	 *            The seat of the player.
+	 * @return The time in nanoseconds.
+	 */
+	public long getThinkingTime(int seat) {
+		return this.thinkingTime[seat];
+	}
+
+	/**
+	 * Returns the longest time the strategy of a player took for a turn.
+	 *
+	 * @param seat
+	 *            The seat of the player.
+	 * @return The time in nanoseconds.
+	 */
+	public long getMaxThinkingTime(int seat) {
+		return this.maxThinkingTime[seat];
+	}
+
+	/**
+	 * Checks whether the game ended because no player could move or swap
+	 * anymore, rather than because a player emptied their hand.
+	 *
+	 * @return True if the game was blocked.
+	 */
+	public boolean isBlocked() {
+		return this.blocked;
+	}
+
+	/**
+	 * Returns the winner of the game.
+	 *
+	 * @return The seat of the player with the highest score, or -1 if several
+	 *         players share the highest score.
+	 */
+	public int getWinner() {
+		int winner = 0;
+		boolean shared = false;
+		for (int seat = 1; seat < this.scores.length; seat++) {
+			if (this.scores[seat] > this.scores[winner]) {
+				winner = seat;
+				shared = false;
+			} else if (this.scores[seat] == this.scores[winner]) {
+				shared = true;
+			}
+		}
+		return shared ? -1 : winner;
+	}
+
+}
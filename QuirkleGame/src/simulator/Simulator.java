@@ -0,0 +1,211 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import application.Util;
+import exceptions.QwirkleException;
+import game.Bag;
+import game.Board;
+import game.Hand;
+import game.Turn;
+import players.SimulatedPlayer;
+import server.Game;
+import strategies.StrategyInterface;
+
+/**
+ * Plays games between strategies without a server, connections, timers or
+ * views, for instance to compare strategies over thousands of games. A game
+ * follows the rules of server.Game: every player proposes a first turn and the
+ * highest scoring one is played, after which the players take turns until the
+ * bag is empty and a player has emptied their hand.
+ *
+ * The tiles are drawn from a bag with a seeded random generator, so a game
+ * can be replayed from its seed. As strategies keep state during a turn,
+ * every game gets strategies of its own, created by the given suppliers. Games
+ * are run in parallel on a pool of threads.
+ *
+ * Unlike on the server, a player that can neither move nor swap passes, and
+ * the game ends when all players pass in a row.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class Simulator {
+
+	/**
+	 * The default time in milliseconds a strategy may take for a turn.
+	 */
+	public static final int TURNTIME = 1000;
+
+	/**
+	 * The number of turns after which a game is stopped as blocked.
+	 */
+	public static final int MAXTURNS = 1000;
+
+	private final List<Supplier<StrategyInterface>> strategies;
+	private int turnTime = Simulator.TURNTIME;
+
+	/**
+	 * Creates a simulator.
+	 *
+	 * @param strategies
+	 *            A supplier of a new strategy for every seat, in the order in
+	 *            which the seats play.
+	 */
+	public Simulator(List<Supplier<StrategyInterface>> strategies) {
+		this.strategies = new ArrayList<Supplier<StrategyInterface>>(strategies);
+	}
+
+	/**
+	 * Sets the time a strategy may take for a turn, see
+	 * StrategyInterface.requestTurn.
+	 *
+	 * @param turnTime
+	 *            The time in milliseconds.
+	 */
+	public void setTurnTime(int turnTime) {
+		this.turnTime = turnTime;
+	}
+
+	/**
+	 * Plays a number of games on a pool of threads.
+	 *
+	 * @param games
+	 *            The number of games.
+	 * @param seed
+	 *            The seed of the first game; the following games use the
+	 *            following seeds.
+	 * @param threads
+	 *            The number of threads.
+	 * @return The statistics of the games.
+	 */
+	public Statistics run(int games, long seed, int threads) {
+		String[] names = new String[this.strategies.size()];
+		for (int seat = 0; seat < names.length; seat++) {
+			names[seat] = this.strategies.get(seat).get().getClass().getSimpleName();
+		}
+		Statistics statistics = new Statistics(names);
+
+		long start = System.nanoTime();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < games; i++) {
+			long gameSeed = seed + i;
+			pool.execute(() -> {
+				try {
+					statistics.add(this.play(gameSeed));
+				} catch (QwirkleException | RuntimeException e) {
+					Util.log(e);
+					statistics.addFailure();
+				}
+			});
+		}
+		pool.shutdown();
+		try {
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Util.log(e);
+		}
+		statistics.setElapsed(System.nanoTime() - start);
+		return statistics;
+	}
+
+	/**
+	 * Plays a single game.
+	 *
+	 * @param seed
+	 *            The seed of the random generator of the bag.
+	 * @return The result of the game.
+	 * @throws QwirkleException
+	 *             When a strategy played an illegal turn.
+	 */
+	public GameResult play(long seed) throws QwirkleException {
+		Bag bag = new Bag(new Random(seed));
+		bag.fill();
+		Board board = new Board();
+		SimulatedPlayer[] players = new SimulatedPlayer[this.strategies.size()];
+		for (int seat = 0; seat < players.length; seat++) {
+			players[seat] = new SimulatedPlayer("Player " + (seat + 1),
+							this.strategies.get(seat).get());
+			players[seat].assignHand(new Hand(false));
+			bag.takeFromBag(players[seat].getHand(), Hand.LIMIT);
+		}
+		GameResult result = new GameResult(seed, players.length);
+
+		// Every player proposes a first turn, and the highest scoring one is
+		// played.
+		int current = 0;
+		Turn first = null;
+		long firstTime = 0;
+		for (int seat = 0; seat < players.length; seat++) {
+			long start = System.nanoTime();
+			Turn turn = this.requestTurn(board, players[seat]);
+			long time = System.nanoTime() - start;
+			if (turn.isMoveRequest()
+							&& (first == null || turn.calculateScore() > first.calculateScore())) {
+				first = turn;
+				firstTime = time;
+				current = seat;
+			}
+		}
+		if (first == null) {
+			result.setBlocked();
+			return result;
+		}
+		first.applyTurn(board, bag);
+		result.addTurn(current, first.calculateScore(), firstTime);
+
+		int passes = 0;
+		for (int turns = 1; !this.isFinished(bag, players[current], result, current); turns++) {
+			if (passes == players.length || turns == MAXTURNS) {
+				result.setBlocked();
+				break;
+			}
+			current = (current + 1) % players.length;
+
+			long start = System.nanoTime();
+			Turn turn = this.requestTurn(board, players[current]);
+			long time = System.nanoTime() - start;
+
+			int score = 0;
+			if (turn.isMoveRequest()) {
+				turn.applyTurn(board, bag);
+				score = turn.calculateScore();
+				passes = 0;
+			} else if (turn.isSwapRequest() && turn.getSwap().size() <= bag.getNumberOfTiles()) {
+				turn.applyTurn(board, bag);
+				passes = 0;
+			} else {
+				passes++;
+			}
+			result.addTurn(current, score, time);
+		}
+		return result;
+	}
+
+	/**
+	 * Asks the strategy of a player for a turn.
+	 */
+	private Turn requestTurn(Board board, SimulatedPlayer player) {
+		return player.getStrategy().requestTurn(new Turn(board, player),
+						System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.turnTime));
+	}
+
+	/**
+	 * Checks whether the player that just played emptied their hand while
+	 * the bag is empty, which ends the game and gives the player a bonus.
+	 */
+	private boolean isFinished(Bag bag, SimulatedPlayer player, GameResult result, int seat) {
+		if (bag.getNumberOfTiles() == 0 && player.getHand().getAmountOfTiles() == 0) {
+			result.addBonus(seat, Game.BONUS_WHEN_FINISH_FIRST);
+			return true;
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,254 @@
+package simulator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregates the results of many games run by the Simulator: the win rates,
+ * the distribution of the final scores and the time the strategies took per
+ * turn, for every seat. Results can be added from several threads.
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class Statistics {
+
+	/**
+	 * The width of the buckets of the score distribution, in points.
+	 */
+	public static final int BUCKET = 10;
+
+	/**
+	 * The number of buckets of the score distribution. The last bucket holds
+	 * all higher scores as well.
+	 */
+	public static final int BUCKETS = 40;
+
+	private final String[] names;
+	private int games;
+	private int blocked;
+	private int failed;
+	private int draws;
+	private long elapsed;
+
+	private final int[] wins;
+	private final long[] totalScores;
+	private final long[] totalSquares;
+	private final int[] minScores;
+	private final int[] maxScores;
+	private final int[][] distributions;
+	private final long[] turns;
+	private final long[] thinkingTime;
+	private final long[] maxThinkingTime;
+
+	/**
+	 * Creates empty statistics.
+	 *
+	 * @param names
+	 *            The name of the strategy of every seat.
+	 */
+	public Statistics(String[] names) {
+		this.names = names.clone();
+		int players = names.length;
+		this.wins = new int[players];
+		this.totalScores = new long[players];
+		this.totalSquares = new long[players];
+		this.minScores = new int[players];
+		this.maxScores = new int[players];
+		this.distributions = new int[players][BUCKETS];
+		this.turns = new long[players];
+		this.thinkingTime = new long[players];
+		this.maxThinkingTime = new long[players];
+	}
+
+	/**
+	 * Adds the result of a game.
+	 *
+	 * @param result
+	 *            The result.
+	 */
+	public synchronized void add(GameResult result) {
+		for (int seat = 0; seat < this.names.length; seat++) {
+			int score = result.getScore(seat);
+			this.totalScores[seat] += score;
+			this.totalSquares[seat] += (long) score * score;
+			this.minScores[seat] = this.games == 0 ? score : Math.min(this.minScores[seat], score);
+			this.maxScores[seat] = Math.max(this.maxScores[seat], score);
+			this.distributions[seat][Math.min(score / BUCKET, BUCKETS - 1)]++;
+			this.turns[seat] += result.getTurns(seat);
+			this.thinkingTime[seat] += result.getThinkingTime(seat);
+			this.maxThinkingTime[seat] = Math.max(this.maxThinkingTime[seat],
+							result.getMaxThinkingTime(seat));
+		}
+
+		int winner = result.getWinner();
+		if (winner < 0) {
+			this.draws++;
+		} else {
+			this.wins[winner]++;
+		}
+		if (result.isBlocked()) {
+			this.blocked++;
+		}
+		this.games++;
+	}
+
+	/**
+	 * Counts a game that could not be finished because of an error.
+	 */
+	public synchronized void addFailure() {
+		this.failed++;
+	}
+
+	/**
+	 * Sets the time it took to run all games.
+	 *
+	 * @param elapsed
+	 *            The time in nanoseconds.
+	 */
+	public synchronized void setElapsed(long elapsed) {
+		this.elapsed = elapsed;
+	}
+
+	/**
+	 * Returns the number of finished games.
+	 *
+	 * @return The number of games.
+	 */
+	public synchronized int getGames() {
+		return this.games;
+	}
+
+	/**
+	 * Returns the number of games that could not be finished.
+	 *
+	 * @return The number of games.
+	 */
+	public synchronized int getFailures() {
+		return this.failed;
+	}
+
+	/**
+	 * Returns the number of games that ended in a draw.
+	 *
+	 * @return The number of games.
+	 */
+	public synchronized int getDraws() {
+		return this.draws;
+	}
+
+	/**
+	 * Returns the number of games won by a seat.
+	 *
+	 * @param seat
+	 *            The seat.
+	 * @return The number of games.
+	 */
+	public synchronized int getWins(int seat) {
+		return this.wins[seat];
+	}
+
+	/**
+	 * Returns the share of the games won by a seat.
+	 *
+	 * @param seat
+	 *            The seat.
+	 * @return The win rate, from 0 to 1.
+	 */
+	public synchronized double getWinRate(int seat) {
+		return this.games == 0 ? 0 : (double) this.wins[seat] / this.games;
+	}
+
+	/**
+	 * Returns the average final score of a seat.
+	 *
+	 * @param seat
+	 *            The seat.
+	 * @return The average score.
+	 */
+	public synchronized double getAverageScore(int seat) {
+		return this.games == 0 ? 0 : (double) this.totalScores[seat] / this.games;
+	}
+
+	/**
+	 * Returns the standard deviation of the final scores of a seat.
+	 *
+	 * @param seat
+	 *            The seat.
+	 * @return The standard deviation.
+	 */
+	public synchronized double getScoreDeviation(int seat) {
+		if (this.games == 0) {
+			return 0;
+		}
+		double average = this.getAverageScore(seat);
+		return Math.sqrt(Math.max(0, (double) this.totalSquares[seat] / this.games - average * average));
+	}
+
+	/**
+	 * Returns the distribution of the final scores of a seat.
+	 *
+	 * @param seat
+	 *            The seat.
+	 * @return The number of games per bucket of BUCKET points.
+	 */
+	public synchronized int[] getDistribution(int seat) {
+		return this.distributions[seat].clone();
+	}
+
+	/**
+	 * Returns the average time the strategy of a seat took per turn.
+	 *
+	 * @param seat
+	 *            The seat.
+	 * @return The time in milliseconds.
+	 */
+	public synchronized double getAverageThinkingTime(int seat) {
+		return this.turns[seat] == 0 ? 0 : this.thinkingTime[seat] / 1e6 / this.turns[seat];
+	}
+
+	/**
+	 * Returns the longest time the strategy of a seat took for a turn.
+	 *
+	 * @param seat
+	 *            The seat.
+	 * @return The time in milliseconds.
+	 */
+	public synchronized double getMaxThinkingTime(int seat) {
+		return this.maxThinkingTime[seat] / 1e6;
+	}
+
+	/**
+	 * Returns the number of games finished per minute.
+	 *
+	 * @return The number of games.
+	 */
+	public synchronized double getGamesPerMinute() {
+		return this.elapsed == 0 ? 0 : this.games * (double) TimeUnit.MINUTES.toNanos(1) / this.elapsed;
+	}
+
+	/**
+	 * Returns a report of the statistics.
+	 */
+	@Override
+	public synchronized String toString() {
+		String report = String.format("%d games (%d drawn, %d blocked, %d failed), %.0f per minute%n",
+						this.games, this.draws, this.blocked, this.failed, this.getGamesPerMinute());
+		for (int seat = 0; seat < this.names.length; seat++) {
+			report += String.format(
+							"%d %s: %.1f%% won, score %.1f +- %.1f (%d..%d), %.2f ms per turn (max %.1f)%n",
+							seat, this.names[seat], 100 * this.getWinRate(seat),
+							this.getAverageScore(seat), this.getScoreDeviation(seat),
+							this.minScores[seat], this.maxScores[seat],
+							this.getAverageThinkingTime(seat), this.getMaxThinkingTime(seat));
+			for (int bucket = 0; bucket < BUCKETS; bucket++) {
+				if (this.distributions[seat][bucket] > 0) {
+					report += String.format("    %3d-%-3s %d%n", bucket * BUCKET,
+									bucket == BUCKETS - 1 ? "" : (bucket + 1) * BUCKET - 1,
+									this.distributions[seat][bucket]);
+				}
+			}
+		}
+		return report;
+	}
+
+}
@@ -0,0 +1,398 @@
+package strategies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import exceptions.HandLimitReachedExeption;
+import exceptions.SquareOutOfBoundsException;
+import game.Board;
+import game.Hand;
+import game.Tile;
+import game.Zobrist;
+import server.Game;
+
+/**
+ * Searches the best turn of a two player game once the bag is empty. The
+ * tiles that are neither on the board nor in the own hand are then all in the
+ * hand of the opponent, so both players know everything and the rest of the
+ * game can be searched like a game of chess.
+ *
+ * The search is an alpha-beta search of the difference between the points
+ * the player and the opponent will still score, including the bonus for the
+ * player who empties their hand first. When a player cannot move, the turn
+ * passes to the other; when neither can, the game ends.
+ *
+ * Positions are stored in a transposition table, keyed by the Zobrist hash of
+ * the board and of both hands. The table can be kept from one turn to the
+ * next, see Table. The search deepens one turn at a time until the game is
+ * solved or the deadline has passed, so there is a best turn at any moment.
+ *
+ * The hands are never changed: tiles that have been played are excluded from
+ * the MoveGenerator instead, and the turns are pushed onto and popped from the
+ * board.
+ *
+ * @author Peter Wessels & Jonathan Juursema
+ *
+ */
+public class EndgameSolver {
+
+	private static final int TABLE_BITS = 18;
+	private static final int INFINITY = 1 << 20;
+	private static final byte EXACT = 0;
+	private static final byte LOWER = 1;
+	private static final byte UPPER = 2;
+
+	// The depth of a position that has been searched up to the end of the game.
+	private static final byte SOLVED = Byte.MAX_VALUE;
+
+	// Distinguishes a position after a pass from the same position without.
+	private static final long PASSED = 0x2545F4914F6CDD1DL;
+
+	private Board board;
+	private Hand[] hands;
+	private MoveGenerator[] generators;
+	private int[] excluded = new int[2];
+	// The hashes of the tiles each player has left, see Hand.getHash.
+	private long[] handHashes = new long[2];
+
+	private long deadline;
+	private boolean timedOut;
+	private boolean cutOff;
+	private int nodes;
+	private int value;
+
+	private Table table;
+
+	/**
+	 * Creates a solver with a transposition table of its own.
+	 *
+	 * @param board
+	 *            The board, which is left as it was after solving.
+	 * @param hand
+	 *            The hand of the player to move.
+	 * @param opponent
+	 *            The hand of the opponent, see getUnseenTiles.
+	 */
+	public EndgameSolver(Board board, Hand hand, Hand opponent) {
+		this(board, hand, opponent, new Table());
+	}
+
+	/**
+	 * Creates a solver.
+	 *
+	 * @param board
+	 *            The board, which is left as it was after solving.
+	 * @param hand
+	 *            The hand of the player to move.
+	 * @param opponent
+	 *            The hand of the opponent, see getUnseenTiles.
+	 * @param table
+	 *            The transposition table, which may have been used before.
+	 */
+	public EndgameSolver(Board board, Hand hand, Hand opponent, Table table) {
+		this.board = board;
+		this.hands = new Hand[] { hand, opponent };
+		this.handHashes = new long[] { hand.getHash(), opponent.getHash() };
+		this.generators = new MoveGenerator[] { new MoveGenerator(board, hand),
+				new MoveGenerator(board, opponent) };
+		this.table = table;
+	}
+
+	/**
+	 * Determines the tiles that are neither on the board nor in the hand. In a
+	 * two player game these are the tiles in the bag and in the hand of the
+	 * opponent. As hands are filled up as long as there are tiles in the bag,
+	 * the bag is empty if they fit in a single hand.
+	 *
+	 * @param board
+	 *            The board.
+	 * @param hand
+	 *            The hand.
+	 * @return A hand with new tiles of the unseen types, or null if there are
+	 *         too many of them to be in a single hand.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public static Hand getUnseenTiles(Board board, Hand hand) throws SquareOutOfBoundsException {
+		int[] counts = new int[Tile.TYPES];
+		Arrays.fill(counts, Game.TILESPERTYPE);
+		for (int i = 0; i < board.getNumberOfTiles(); i++) {
+			int key = board.getOccupiedKey(i);
+			counts[board.getTile(Board.keyToX(key), Board.keyToY(key)).getType()]--;
+		}
+		for (int i = 0; i < hand.getAmountOfTiles(); i++) {
+			counts[hand.getTile(i).getType()]--;
+		}
+
+		Hand unseen = new Hand(false);
+		for (int type = 0; type < Tile.TYPES; type++) {
+			for (int i = 0; i < counts[type]; i++) {
+				try {
+					unseen.addToHand(new Tile(type));
+				} catch (HandLimitReachedExeption e) {
+					return null;
+				}
+			}
+		}
+		return unseen;
+	}
+
+	/**
+	 * Searches the best turn until the game is solved or the deadline has
+	 * passed.
+	 *
+	 * @param deadline
+	 *            The moment, in System.nanoTime, at which the search stops.
+	 * @return The best turn, with its score, or null if no move is possible or
+	 *         not even a single turn ahead could be searched in time.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public SearchResult solve(long deadline) throws SquareOutOfBoundsException {
+		this.deadline = deadline;
+		this.timedOut = false;
+
+		SearchResult best = null;
+		int tiles = this.hands[0].getAmountOfTiles() + this.hands[1].getAmountOfTiles();
+		// Every turn but a pass uses a tile, and two passes end the game.
+		for (int depth = 1; depth <= 2 * tiles + 1; depth++) {
+			this.cutOff = false;
+			SearchResult result = this.searchRoot(depth, best);
+			if (this.timedOut) {
+				break;
+			}
+			best = result;
+			if (!this.cutOff || best == null) {
+				break;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the value of the turn found by the last solve: the difference
+	 * between the points the player and the opponent will score from here on.
+	 *
+	 * @return The value.
+	 */
+	public int getValue() {
+		return this.value;
+	}
+
+	/**
+	 * Checks whether the last solve searched up to the end of the game, in
+	 * which case its value is exact.
+	 *
+	 * @return True if the game has been solved.
+	 */
+	public boolean isSolved() {
+		return !this.timedOut && !this.cutOff;
+	}
+
+	/**
+	 * Searches the turns of the player to a given depth.
+	 *
+	 * @param depth
+	 *            The number of turns to look ahead.
+	 * @param previous
+	 *            The best turn of the previous depth, which is tried first.
+	 * @return The best turn, or null if no move is possible.
+	 * @throws SquareOutOfBoundsException
+	 */
+	private SearchResult searchRoot(int depth, SearchResult previous)
+					throws SquareOutOfBoundsException {
+		List<int[]> turns = this.generate(0);
+		if (previous != null) {
+			for (int i = 0; i < turns.size(); i++) {
+				if (Arrays.equals(Arrays.copyOfRange(turns.get(i), 1, turns.get(i).length),
+								previous.getMoves())) {
+					turns.add(0, turns.remove(i));
+					break;
+				}
+			}
+		}
+
+		SearchResult best = null;
+		int alpha = -INFINITY;
+		for (int i = 0; i < turns.size(); i++) {
+			int[] turn = turns.get(i);
+			int value = this.searchTurn(0, turn, depth, alpha, INFINITY);
+			if (this.timedOut) {
+				return null;
+			}
+			if (best == null || value > alpha) {
+				alpha = value;
+				best = new SearchResult(turn[0], i, Arrays.copyOfRange(turn, 1, turn.length));
+			}
+		}
+		this.value = alpha;
+		return best;
+	}
+
+	/**
+	 * Searches a position from the point of view of the player to move.
+	 *
+	 * @param side
+	 *            The player to move: 0 for the player, 1 for the opponent.
+	 * @param depth
+	 *            The number of turns to look ahead.
+	 * @param alpha
+	 *            The value the player to move is assured of.
+	 * @param beta
+	 *            The value the other player is assured of, negated.
+	 * @param passed
+	 *            True if the other player passed the previous turn.
+	 * @return The difference between the points the player to move and the
+	 *         other player will score.
+	 * @throws SquareOutOfBoundsException
+	 */
+	private int search(int side, int depth, int alpha, int beta, boolean passed)
+					throws SquareOutOfBoundsException {
+		if ((++this.nodes & 1023) == 0 && System.nanoTime() - this.deadline >= 0) {
+			this.timedOut = true;
+		}
+		if (this.timedOut) {
+			return 0;
+		} else if (depth == 0) {
+			this.cutOff = true;
+			return 0;
+		}
+
+		Table table = this.table;
+		long key = this.key(side, passed);
+		int slot = (int) (key ^ (key >>> 32)) & (table.keys.length - 1);
+		if (table.keys[slot] == key && table.depths[slot] >= depth) {
+			int stored = table.values[slot];
+			if (table.bounds[slot] == EXACT || (table.bounds[slot] == LOWER && stored >= beta)
+							|| (table.bounds[slot] == UPPER && stored <= alpha)) {
+				this.cutOff |= table.depths[slot] != SOLVED;
+				return stored;
+			}
+		}
+
+		boolean cutOffBefore = this.cutOff;
+		this.cutOff = false;
+		int originalAlpha = alpha;
+		int best;
+
+		List<int[]> turns = this.generate(side);
+		if (turns.isEmpty()) {
+			// Pass, which ends the game if the other player passed as well.
+			best = passed ? 0 : -this.search(1 - side, depth - 1, -beta, -alpha, true);
+		} else {
+			best = -INFINITY;
+			for (int[] turn : turns) {
+				best = Math.max(best, this.searchTurn(side, turn, depth, alpha, beta));
+				alpha = Math.max(alpha, best);
+				if (this.timedOut || alpha >= beta) {
+					break;
+				}
+			}
+		}
+
+		if (!this.timedOut) {
+			table.keys[slot] = key;
+			table.values[slot] = best;
+			table.depths[slot] = this.cutOff ? (byte) depth : SOLVED;
+			table.bounds[slot] = best <= originalAlpha ? UPPER : best >= beta ? LOWER : EXACT;
+		}
+		this.cutOff |= cutOffBefore;
+		return best;
+	}
+
+	/**
+	 * Plays a turn and searches the position after it.
+	 *
+	 * @param side
+	 *            The player to move.
+	 * @param turn
+	 *            The score of the turn followed by its compact moves.
+	 * @param depth
+	 *            The number of turns to look ahead, including this one.
+	 * @param alpha
+	 *            The value the player to move is assured of.
+	 * @param beta
+	 *            The value the other player is assured of, negated.
+	 * @return The value of the turn for the player to move.
+	 * @throws SquareOutOfBoundsException
+	 */
+	private int searchTurn(int side, int[] turn, int depth, int alpha, int beta)
+					throws SquareOutOfBoundsException {
+		int before = this.excluded[side];
+		long hashBefore = this.handHashes[side];
+		int token = -1;
+		for (int i = 1; i < turn.length; i++) {
+			int slot = MoveGenerator.getSlot(turn[i]);
+			Tile tile = this.hands[side].getTile(slot);
+			int pushed = this.board.pushTile(tile, MoveGenerator.getX(turn[i]),
+							MoveGenerator.getY(turn[i]));
+			token = token < 0 ? pushed : token;
+			this.excluded[side] |= 1 << slot;
+			this.handHashes[side] -= Zobrist.of(tile.getType());
+		}
+
+		int value = turn[0];
+		if (Integer.bitCount(this.excluded[side]) == this.hands[side].getAmountOfTiles()) {
+			// The player emptied their hand, which ends the game.
+			value += Game.BONUS_WHEN_FINISH_FIRST;
+		} else {
+			// The window of the other player is shifted by the score of the turn.
+			value -= this.search(1 - side, depth - 1, turn[0] - beta, turn[0] - alpha, false);
+		}
+
+		this.board.popTile(token);
+		this.excluded[side] = before;
+		this.handHashes[side] = hashBefore;
+		return value;
+	}
+
+	/**
+	 * Generates the turns of a player, best scoring first.
+	 *
+	 * @param side
+	 *            The player.
+	 * @return The turns, each being its score followed by its compact moves.
+	 * @throws SquareOutOfBoundsException
+	 */
+	private List<int[]> generate(int side) throws SquareOutOfBoundsException {
+		final List<int[]> turns = new ArrayList<int[]>();
+		this.generators[side].setExcluded(this.excluded[side]);
+		this.generators[side].generate((moves, count, score) -> {
+			int[] turn = new int[count + 1];
+			turn[0] = score;
+			System.arraycopy(moves, 0, turn, 1, count);
+			turns.add(turn);
+			return true;
+		});
+		turns.sort((first, second) -> second[0] - first[0]);
+		return turns;
+	}
+
+	/**
+	 * Determines the key of a position in the transposition table.
+	 *
+	 * @param side
+	 *            The player to move.
+	 * @param passed
+	 *            True if the other player passed the previous turn.
+	 * @return The key.
+	 */
+	private long key(int side, boolean passed) {
+		return this.board.getHash() ^ this.handHashes[side]
+						^ Long.rotateLeft(this.handHashes[1 - side], 32) ^ (passed ? PASSED : 0);
+	}
+
+	/**
+	 * A transposition table. As a key covers the whole position, an entry
+	 * stays valid for the rest of the game and later games, so a strategy
+	 * keeps a single table for all its turns instead of allocating one for
+	 * every solve. Entries are always replaced by the position stored last,
+	 * so those of earlier turns age out as the table fills up.
+	 */
+	public static class Table {
+		private final long[] keys = new long[1 << TABLE_BITS];
+		private final int[] values = new int[1 << TABLE_BITS];
+		private final byte[] depths = new byte[1 << TABLE_BITS];
+		private final byte[] bounds = new byte[1 << TABLE_BITS];
+	}
+
+}
@@ -0,0 +1,447 @@
+package strategies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import application.Util;
+import exceptions.HandLimitReachedExeption;
+import exceptions.IllegalMoveException;
+import exceptions.IllegalTurnException;
+import exceptions.SquareOutOfBoundsException;
+import exceptions.TileNotInHandException;
+import game.Board;
+import game.Hand;
+import game.Move;
+import game.Tile;
+import game.Turn;
+import server.Game;
+
+/**
+ * The MonteCarloStrategy looks further than the score of the turn itself. It
+ * takes the sets of moves with the highest scores as candidates, and plays out
+ * the next few turns of the game after each of them many times. The candidate
+ * with the best average difference between the own score and that of the best
+ * opponent over these playouts is played.
+ *
+ * The tiles the player cannot see, in the bag and in the hands of the
+ * opponents, are dealt at random for every playout. In a playout every player
+ * plays the highest scoring set of at most a few moves, which is much faster
+ * to find than the best set of all.
+ *
+ * The playouts run on all processors until the deadline. Each task has its
+ * own copy of the board, its own hands and its own tiles, on which the turns
+ * are pushed and popped again, so a playout does not create any objects.
+ *
+ * @author Peter Wessels & Jonathan Juursema
+ *
+ */
+public class MonteCarloStrategy implements StrategyInterface, MoveGenerator.Visitor {
+
+	/**
+	 * The time in milliseconds a turn may take when no deadline is given.
+	 */
+	public static final int THINKINGTIME = 2000;
+
+	/**
+	 * The maximal number of candidates that are played out.
+	 */
+	public static final int CANDIDATES = 8;
+
+	/**
+	 * The number of turns played in a playout after the candidate, of all
+	 * players together.
+	 */
+	public static final int PLIES = 3;
+
+	// The maximal number of moves in a set during a playout.
+	private static final int PLAYOUTLIMIT = 2;
+
+	private int opponents = 1;
+	private List<int[]> candidates = new ArrayList<int[]>();
+	private long[] totals;
+	private int[] counts;
+
+	/**
+	 * Sets the number of opponents, for which hands are dealt in the
+	 * playouts.
+	 *
+	 * @param opponents
+	 *            The number of opponents, at least 1.
+	 */
+	public void setOpponents(int opponents) {
+		this.opponents = Math.max(1, opponents);
+	}
+
+	/**
+	 * Returns the number of playouts made for the last turn.
+	 *
+	 * @return The number of playouts.
+	 */
+	public long getPlayouts() {
+		long playouts = 0;
+		for (int i = 0; this.counts != null && i < this.counts.length; i++) {
+			playouts += this.counts[i];
+		}
+		return playouts;
+	}
+
+	@Override
+	public Turn requestTurn(Turn turn) {
+		return this.requestTurn(turn,
+						System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(THINKINGTIME));
+	}
+
+	@Override
+	public synchronized Turn requestTurn(Turn turn, long deadline) {
+		Board board = turn.getBoardCopy();
+		Hand hand = turn.getPlayer().getHand();
+
+		List<Move> best = null;
+		try {
+			int[] moves = this.search(board, hand, deadline);
+			if (moves != null) {
+				best = new MoveGenerator(board, hand).toMoves(moves, moves.length);
+			}
+		} catch (SquareOutOfBoundsException e) {
+			Util.log(e);
+		}
+
+		turn.getMoves().clear();
+		if (best != null) {
+			for (Move m : best) {
+				try {
+					turn.addMove(m);
+				} catch (SquareOutOfBoundsException | IllegalMoveException
+								| IllegalTurnException e) {
+					Util.log(e);
+				}
+			}
+		} else {
+			for (Tile t : hand.getTilesInHand()) {
+				try {
+					turn.addSwapRequest(t);
+				} catch (IllegalTurnException e) {
+					Util.log(e);
+				}
+			}
+		}
+		return turn;
+	}
+
+	/**
+	 * Determines the candidate with the best average outcome of the playouts
+	 * made before the deadline.
+	 *
+	 * @param board
+	 *            The board, which is left as it was.
+	 * @param hand
+	 *            The hand.
+	 * @param deadline
+	 *            The moment, in System.nanoTime, at which the playouts stop.
+	 * @return The compact moves of the best candidate (see MoveGenerator), or
+	 *         null if no move is possible.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public int[] search(Board board, Hand hand, long deadline) throws SquareOutOfBoundsException {
+		this.candidates.clear();
+		this.totals = new long[0];
+		this.counts = new int[0];
+		new MoveGenerator(board, hand).generate(this);
+		if (this.candidates.isEmpty()) {
+			return null;
+		}
+
+		this.totals = new long[this.candidates.size()];
+		this.counts = new int[this.candidates.size()];
+		if (this.candidates.size() > 1) {
+			this.playOut(board, hand, deadline);
+		}
+
+		int best = 0;
+		for (int i = 1; i < this.candidates.size(); i++) {
+			// Compare the averages without dividing: a / b > c / d.
+			if (this.totals[i] * this.counts[best] > this.totals[best] * this.counts[i]) {
+				best = i;
+			}
+		}
+		int[] candidate = this.candidates.get(best);
+		return Arrays.copyOfRange(candidate, 1, candidate.length);
+	}
+
+	/**
+	 * Keeps the CANDIDATES sets with the highest scores, in the order in which
+	 * they were generated if their scores are equal.
+	 */
+	@Override
+	public boolean visit(int[] moves, int count, int score) {
+		int index = this.candidates.size();
+		while (index > 0 && this.candidates.get(index - 1)[0] < score) {
+			index--;
+		}
+		if (index < CANDIDATES) {
+			int[] candidate = new int[count + 1];
+			candidate[0] = score;
+			System.arraycopy(moves, 0, candidate, 1, count);
+			this.candidates.add(index, candidate);
+			if (this.candidates.size() > CANDIDATES) {
+				this.candidates.remove(CANDIDATES);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Plays out the candidates on all processors until the deadline, and adds
+	 * up the outcomes per candidate.
+	 */
+	private void playOut(Board board, Hand hand, long deadline) throws SquareOutOfBoundsException {
+		int[] unseen = MonteCarloStrategy.getUnseenTypes(board, hand);
+		int[][] candidates = this.candidates.toArray(new int[this.candidates.size()][]);
+		SplittableRandom random = new SplittableRandom();
+
+		List<Playouts> tasks = new ArrayList<Playouts>();
+		for (int i = 0; i < ParallelSearch.POOL.getParallelism(); i++) {
+			// The board is copied here, as copying changes the original.
+			tasks.add(new Playouts(board.copy(), hand, this.opponents, candidates, unseen,
+							random.split(), deadline));
+		}
+		for (Future<Playouts> future : ParallelSearch.POOL.invokeAll(tasks)) {
+			try {
+				Playouts playouts = future.get();
+				for (int i = 0; i < candidates.length; i++) {
+					this.totals[i] += playouts.totals[i];
+					this.counts[i] += playouts.counts[i];
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				Util.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Determines the types of the tiles that are neither on the board nor in
+	 * the hand, being those in the bag and in the hands of the opponents.
+	 *
+	 * @param board
+	 *            The board.
+	 * @param hand
+	 *            The hand.
+	 * @return The type of every unseen tile, see Tile.getType.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public static int[] getUnseenTypes(Board board, Hand hand) throws SquareOutOfBoundsException {
+		int[] counts = new int[Tile.TYPES];
+		Arrays.fill(counts, Game.TILESPERTYPE);
+		int size = Tile.TYPES * Game.TILESPERTYPE - board.getNumberOfTiles()
+						- hand.getAmountOfTiles();
+		for (int i = 0; i < board.getNumberOfTiles(); i++) {
+			int key = board.getOccupiedKey(i);
+			counts[board.getTile(Board.keyToX(key), Board.keyToY(key)).getType()]--;
+		}
+		for (int i = 0; i < hand.getAmountOfTiles(); i++) {
+			counts[hand.getTile(i).getType()]--;
+		}
+
+		int[] unseen = new int[size];
+		int index = 0;
+		for (int type = 0; type < Tile.TYPES; type++) {
+			for (int i = 0; i < counts[type]; i++) {
+				unseen[index++] = type;
+			}
+		}
+		return unseen;
+	}
+
+	/**
+	 * A task making playouts of all candidates in turn until the deadline.
+	 */
+	private static class Playouts implements Callable<Playouts>, MoveGenerator.Visitor {
+		private final Board board;
+		private final Hand[] hands;
+		private final MoveGenerator[] generators;
+		private final Tile[] start;
+		private final int[][] candidates;
+		private final Tile[] unseen;
+		private final SplittableRandom random;
+		private final long deadline;
+
+		private final long[] totals;
+		private final int[] counts;
+
+		private final int[] scores;
+		private final Tile[] played = new Tile[Hand.LIMIT];
+		private final int[] playout = new int[Hand.LIMIT];
+		private int playoutCount;
+		private int playoutScore;
+		private int drawn;
+
+		private Playouts(Board board, Hand hand, int opponents, int[][] candidates, int[] unseen,
+						SplittableRandom random, long deadline) {
+			this.board = board;
+			this.candidates = candidates;
+			this.unseen = new Tile[unseen.length];
+			for (int i = 0; i < unseen.length; i++) {
+				this.unseen[i] = new Tile(unseen[i]);
+			}
+			this.random = random;
+			this.deadline = deadline;
+			this.totals = new long[candidates.length];
+			this.counts = new int[candidates.length];
+			this.scores = new int[opponents + 1];
+
+			// The own hand holds the same types in the same slots, so the
+			// slots of the candidates stay valid.
+			this.start = new Tile[hand.getAmountOfTiles()];
+			for (int i = 0; i < this.start.length; i++) {
+				this.start[i] = new Tile(hand.getTile(i).getType());
+			}
+			this.hands = new Hand[opponents + 1];
+			this.generators = new MoveGenerator[opponents + 1];
+			for (int side = 0; side <= opponents; side++) {
+				this.hands[side] = new Hand(false);
+				this.generators[side] = new MoveGenerator(board, this.hands[side]);
+				this.generators[side].setLimit(PLAYOUTLIMIT);
+			}
+		}
+
+		@Override
+		public Playouts call() throws SquareOutOfBoundsException, HandLimitReachedExeption,
+						TileNotInHandException {
+			int candidate = 0;
+			// Only stop after a full round, so all candidates are played out
+			// equally often.
+			while (candidate != 0 || System.nanoTime() - this.deadline < 0) {
+				this.totals[candidate] += this.playOut(this.candidates[candidate]);
+				this.counts[candidate]++;
+				candidate = (candidate + 1) % this.candidates.length;
+			}
+			return this;
+		}
+
+		/**
+		 * Plays out a candidate once.
+		 *
+		 * @param candidate
+		 *            The score of the candidate followed by its compact moves.
+		 * @return The own score minus the highest score of the opponents.
+		 */
+		private int playOut(int[] candidate) throws SquareOutOfBoundsException,
+						HandLimitReachedExeption, TileNotInHandException {
+			this.deal();
+			Arrays.fill(this.scores, 0);
+
+			int token = this.play(0, candidate, 1, candidate.length - 1);
+			this.scores[0] = candidate[0];
+			boolean finished = this.isFinished(0);
+			for (int ply = 0; ply < PLIES && !finished; ply++) {
+				int side = (ply + 1) % this.hands.length;
+				this.playoutCount = 0;
+				this.playoutScore = -1;
+				this.generators[side].generate(this);
+				if (this.playoutCount > 0) {
+					this.play(side, this.playout, 0, this.playoutCount);
+					this.scores[side] += this.playoutScore;
+					finished = this.isFinished(side);
+				}
+			}
+			this.board.popTile(token);
+
+			int opponent = Integer.MIN_VALUE;
+			for (int side = 1; side < this.scores.length; side++) {
+				opponent = Math.max(opponent, this.scores[side]);
+			}
+			return this.scores[0] - opponent;
+		}
+
+		/**
+		 * Shuffles the unseen tiles, deals the hands of the opponents from
+		 * them and resets the own hand.
+		 */
+		private void deal() throws HandLimitReachedExeption, TileNotInHandException {
+			for (int i = this.unseen.length - 1; i > 0; i--) {
+				int other = this.random.nextInt(i + 1);
+				Tile tile = this.unseen[i];
+				this.unseen[i] = this.unseen[other];
+				this.unseen[other] = tile;
+			}
+			this.drawn = 0;
+
+			for (int side = 0; side < this.hands.length; side++) {
+				Hand hand = this.hands[side];
+				while (hand.getAmountOfTiles() > 0) {
+					hand.removeFromHand(hand.getTile(hand.getAmountOfTiles() - 1));
+				}
+				if (side == 0) {
+					for (Tile tile : this.start) {
+						hand.addToHand(tile);
+					}
+				} else {
+					this.draw(hand);
+				}
+			}
+		}
+
+		/**
+		 * Places a set of moves on the board, removes its tiles from the hand
+		 * and fills up the hand from the bag.
+		 *
+		 * @return The token to pop the moves from the board again.
+		 */
+		private int play(int side, int[] moves, int from, int count)
+						throws SquareOutOfBoundsException, HandLimitReachedExeption,
+						TileNotInHandException {
+			Hand hand = this.hands[side];
+			int token = -1;
+			for (int i = 0; i < count; i++) {
+				int move = moves[from + i];
+				this.played[i] = hand.getTile(MoveGenerator.getSlot(move));
+				int pushed = this.board.pushTile(this.played[i], MoveGenerator.getX(move),
+								MoveGenerator.getY(move));
+				token = token < 0 ? pushed : token;
+			}
+			for (int i = 0; i < count; i++) {
+				hand.removeFromHand(this.played[i]);
+			}
+			this.draw(hand);
+			return token;
+		}
+
+		/**
+		 * Fills up a hand from the unseen tiles that have not been drawn yet.
+		 */
+		private void draw(Hand hand) throws HandLimitReachedExeption {
+			while (hand.getAmountOfTiles() < Hand.LIMIT && this.drawn < this.unseen.length) {
+				hand.addToHand(this.unseen[this.drawn++]);
+			}
+		}
+
+		/**
+		 * Checks whether a player emptied their hand, which ends the game and
+		 * gives the player a bonus.
+		 */
+		private boolean isFinished(int side) {
+			if (this.hands[side].getAmountOfTiles() == 0) {
+				this.scores[side] += Game.BONUS_WHEN_FINISH_FIRST;
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public boolean visit(int[] moves, int count, int score) {
+			if (score > this.playoutScore) {
+				this.playoutScore = score;
+				this.playoutCount = count;
+				System.arraycopy(moves, 0, this.playout, 0, count);
+			}
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,386 @@
+package strategies;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import exceptions.SquareOutOfBoundsException;
+import game.Board;
+import game.Hand;
+import game.LineSummary;
+import game.Move;
+import game.Tile;
+
+/**
+ * The MoveGenerator enumerates every legal set of moves a hand can make on a
+ * board, together with its score. Strategies consume the sets through a
+ * Visitor instead of searching the board themselves.
+ *
+ * All moves of a turn lie on one line, so a set of moves is generated from
+ * the first position of the frontier it covers (its anchor, see
+ * Board.getFrontier) and the direction of its line. The moves before the
+ * anchor can only be on empty positions without any neighbours, and the moves
+ * after it are placed on the next empty position each time. This way every set
+ * of moves is generated exactly once, without having to remember the sets
+ * seen before. Sets of a single move are only generated for rows.
+ *
+ * The search is done on the board itself: every move is pushed onto the board
+ * and popped again afterwards, so the board is left as it was. Scores are
+ * kept up to date while moves are added, using the line summaries of the
+ * board.
+ *
+ * A set of moves is passed to the Visitor as an array of compact moves: the
+ * packed coordinates of the position (see Board.key) together with the index
+ * of the tile in the hand. The moves are in an order in which they can be
+ * added to a turn. The array is reused, so a Visitor that keeps a set has to
+ * copy it. While the Visitor is called the moves are still on the board, so
+ * they should only be converted using toMoves once the generation is done.
+ *
+ * @author Peter Wessels & Jonathan Juursema
+ *
+ */
+public class MoveGenerator {
+
+	/**
+	 * Receives the sets of moves found by the MoveGenerator.
+	 */
+	public interface Visitor {
+
+		/**
+		 * Is called for every legal set of moves.
+		 *
+		 * @param moves
+		 *            The compact moves, of which the first count are used.
+		 * @param count
+		 *            The number of moves in the set.
+		 * @param score
+		 *            The score of the set of moves.
+		 * @return True to continue generating, false to stop.
+		 */
+		boolean visit(int[] moves, int count, int score);
+	}
+
+	private static final int SLOT_BITS = 3;
+
+	private Board board;
+	private Hand hand;
+	private Visitor visitor;
+	private boolean stopped;
+	private int limit = Hand.LIMIT;
+	private int excluded;
+
+	// The moves in the order they are placed, and in the order they are given.
+	private int[] placed = new int[Hand.LIMIT];
+	private int[] moves = new int[Hand.LIMIT];
+
+	/**
+	 * Creates a generator for the given board and hand.
+	 *
+	 * @param board
+	 *            The board to place the moves on.
+	 * @param hand
+	 *            The hand to take the tiles from.
+	 */
+	public MoveGenerator(Board board, Hand hand) {
+		this.board = board;
+		this.hand = hand;
+	}
+
+	/**
+	 * Limits the number of moves in the sets that are generated. A search that
+	 * has little time can first look at the sets of a few moves only.
+	 *
+	 * @param limit
+	 *            The maximal number of moves in a set.
+	 */
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
+	/**
+	 * Returns the maximal number of moves in the sets that are generated,
+	 * which is never more than the number of tiles in the hand.
+	 *
+	 * @return The maximal number of moves in a set.
+	 */
+	public int getLimit() {
+		return Math.min(this.limit, this.hand.getAmountOfTiles() - Integer.bitCount(this.excluded));
+	}
+
+	/**
+	 * Excludes tiles of the hand from the sets that are generated, as if they
+	 * were not in the hand. A search can use this to play out several turns
+	 * without changing the hand.
+	 *
+	 * @param excluded
+	 *            The bit mask of the indices of the excluded tiles.
+	 */
+	public void setExcluded(int excluded) {
+		this.excluded = excluded;
+	}
+
+	/**
+	 * Creates a compact move.
+	 *
+	 * @param key
+	 *            The packed coordinates of the position, see Board.key.
+	 * @param slot
+	 *            The index of the tile in the hand.
+	 * @return The compact move.
+	 */
+	public static int move(int key, int slot) {
+		return (key << SLOT_BITS) | slot;
+	}
+
+	/**
+	 * Returns the x coordinate of a compact move.
+	 *
+	 * @param move
+	 *            The compact move.
+	 * @return The x coordinate.
+	 */
+	public static int getX(int move) {
+		return Board.keyToX(move >>> SLOT_BITS);
+	}
+
+	/**
+	 * Returns the y coordinate of a compact move.
+	 *
+	 * @param move
+	 *            The compact move.
+	 * @return The y coordinate.
+	 */
+	public static int getY(int move) {
+		return Board.keyToY(move >>> SLOT_BITS);
+	}
+
+	/**
+	 * Returns the index in the hand of the tile of a compact move.
+	 *
+	 * @param move
+	 *            The compact move.
+	 * @return The index of the tile, see Hand.getTile.
+	 */
+	public static int getSlot(int move) {
+		return move & ((1 << SLOT_BITS) - 1);
+	}
+
+	/**
+	 * Generates all legal sets of moves and passes them to the visitor.
+	 *
+	 * @param visitor
+	 *            The visitor.
+	 * @return True if all sets have been generated, false if the visitor
+	 *         stopped the generation.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public boolean generate(Visitor visitor) throws SquareOutOfBoundsException {
+		int[] anchors = this.board.getFrontier();
+		return this.generate(visitor, anchors, 0, anchors.length);
+	}
+
+	/**
+	 * Generates the legal sets of moves of a part of the anchors and passes
+	 * them to the visitor. Since every set of moves belongs to exactly one
+	 * anchor, the work can be divided by splitting the anchors.
+	 *
+	 * @param visitor
+	 *            The visitor.
+	 * @param anchors
+	 *            The anchors, as returned by Board.getFrontier.
+	 * @param from
+	 *            The index of the first anchor to use.
+	 * @param to
+	 *            The index after the last anchor to use.
+	 * @return True if all sets have been generated, false if the visitor
+	 *         stopped the generation.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public boolean generate(Visitor visitor, int[] anchors, int from, int to)
+					throws SquareOutOfBoundsException {
+		this.visitor = visitor;
+		this.stopped = false;
+		for (int i = from; i < to; i++) {
+			this.generate(anchors[i], 1, 0);
+			this.generate(anchors[i], 0, 1);
+			if (this.stopped) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Converts a set of compact moves to moves with the tiles of the hand and
+	 * the positions of the board. Should not be called during generation.
+	 *
+	 * @param moves
+	 *            The compact moves.
+	 * @param count
+	 *            The number of moves.
+	 * @return The moves.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public List<Move> toMoves(int[] moves, int count) throws SquareOutOfBoundsException {
+		List<Move> list = new ArrayList<Move>(count);
+		for (int i = 0; i < count; i++) {
+			list.add(new Move(this.hand.getTile(MoveGenerator.getSlot(moves[i])),
+							this.board.getSquare(MoveGenerator.getX(moves[i]),
+											MoveGenerator.getY(moves[i]))));
+		}
+		return list;
+	}
+
+	/**
+	 * Generates the sets of moves in one direction that have the given anchor
+	 * as their first position on the frontier.
+	 *
+	 * @param anchor
+	 *            The packed coordinates of the anchor.
+	 * @param dx
+	 *            The x direction of the line.
+	 * @param dy
+	 *            The y direction of the line.
+	 * @throws SquareOutOfBoundsException
+	 */
+	private void generate(int anchor, int dx, int dy) throws SquareOutOfBoundsException {
+		int x = Board.keyToX(anchor);
+		int y = Board.keyToY(anchor);
+
+		// Count the positions before the anchor which can hold a move.
+		int before = 0;
+		while (before + 1 < this.getLimit()
+						&& this.isIsolated(x - (before + 1) * dx, y - (before + 1) * dy)) {
+			before++;
+		}
+
+		for (int i = 0; i <= before && !this.stopped; i++) {
+			this.place(x - i * dx, y - i * dy, dx, dy, 0, i, 0, this.excluded);
+		}
+	}
+
+	/**
+	 * Places each fitting tile of the hand on a position and continues with
+	 * the next position of the line.
+	 *
+	 * @param x
+	 *            The x coordinate of the position.
+	 * @param y
+	 *            The y coordinate of the position.
+	 * @param dx
+	 *            The x direction of the line.
+	 * @param dy
+	 *            The y direction of the line.
+	 * @param depth
+	 *            The number of moves placed so far.
+	 * @param before
+	 *            The number of moves before the anchor.
+	 * @param crossScore
+	 *            The score of the crossing lines of the moves placed so far.
+	 * @param used
+	 *            The bit mask of the indices of the tiles in the hand used so
+	 *            far.
+	 * @throws SquareOutOfBoundsException
+	 */
+	private void place(int x, int y, int dx, int dy, int depth, int before, int crossScore,
+					int used) throws SquareOutOfBoundsException {
+		int line = dx != 0 ? this.board.getRowSummary(x, y) : this.board.getColumnSummary(x, y);
+		int cross = dx != 0 ? this.board.getColumnSummary(x, y) : this.board.getRowSummary(x, y);
+		long allowed = LineSummary.allowedTypes(line) & LineSummary.allowedTypes(cross);
+
+		for (int slot = 0; slot < this.hand.getAmountOfTiles() && !this.stopped; slot++) {
+			Tile tile = this.hand.getTile(slot);
+			int type = tile.getType();
+			if ((used & (1 << slot)) != 0 || type == Tile.NO_TYPE
+							|| (allowed & (1L << type)) == 0 || this.isRepeated(slot, type, used)) {
+				continue;
+			}
+
+			int token = this.board.pushTile(tile, x, y);
+			this.placed[depth] = MoveGenerator.move(Board.key(x, y), slot);
+			int score = crossScore + LineSummary.getScore(LineSummary.add(cross, tile));
+
+			if (depth < before) {
+				// Still before the anchor, so continue towards it.
+				this.place(x + dx, y + dy, dx, dy, depth + 1, before, score, used | (1 << slot));
+			} else {
+				if (depth > 0 || dx != 0) {
+					line = dx != 0 ? this.board.getRowSummary(x, y) : this.board.getColumnSummary(x, y);
+					this.visit(depth + 1, before, score + LineSummary.getScore(line));
+				}
+
+				// Continue on the first empty position after the line.
+				int nextX = x + dx;
+				int nextY = y + dy;
+				while (!this.board.isEmpty(nextX, nextY)) {
+					nextX += dx;
+					nextY += dy;
+				}
+				if (depth + 1 < this.getLimit() && Board.isOnBoard(nextX, nextY)
+								&& !this.stopped) {
+					this.place(nextX, nextY, dx, dy, depth + 1, before, score, used | (1 << slot));
+				}
+			}
+
+			this.board.popTile(token);
+		}
+	}
+
+	/**
+	 * Passes the placed moves to the visitor, starting with the anchor and
+	 * then going outwards, so every move is next to the ones given before it.
+	 *
+	 * @param count
+	 *            The number of placed moves.
+	 * @param before
+	 *            The number of moves before the anchor.
+	 * @param score
+	 *            The score of the moves.
+	 */
+	private void visit(int count, int before, int score) {
+		for (int i = 0; i <= before; i++) {
+			this.moves[i] = this.placed[before - i];
+		}
+		System.arraycopy(this.placed, before + 1, this.moves, before + 1, count - before - 1);
+		if (!this.visitor.visit(this.moves, count, score)) {
+			this.stopped = true;
+		}
+	}
+
+	/**
+	 * Checks whether a position is empty and has no neighbours, so it is not
+	 * on the frontier of the board.
+	 *
+	 * @param x
+	 *            The x coordinate of the position.
+	 * @param y
+	 *            The y coordinate of the position.
+	 * @return True if the position is empty and isolated.
+	 */
+	private boolean isIsolated(int x, int y) {
+		return Board.isOnBoard(x, y) && this.board.isEmpty(x, y)
+						&& this.board.getRowSummary(x, y) == LineSummary.EMPTY
+						&& this.board.getColumnSummary(x, y) == LineSummary.EMPTY;
+	}
+
+	/**
+	 * Checks whether an earlier unused tile in the hand has the same type, in
+	 * which case using this tile would give the same set of moves again.
+	 *
+	 * @param slot
+	 *            The index of the tile in the hand.
+	 * @param type
+	 *            The type of the tile.
+	 * @param used
+	 *            The bit mask of the indices of the tiles used so far.
+	 * @return True if the tile is a repetition.
+	 */
+	private boolean isRepeated(int slot, int type, int used) {
+		for (int i = 0; i < slot; i++) {
+			if ((used & (1 << i)) == 0 && this.hand.getTile(i).getType() == type) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
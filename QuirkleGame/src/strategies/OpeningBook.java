@@ -0,0 +1,102 @@
+package strategies;
+
+import game.Board;
+import game.Hand;
+import game.LineSummary;
+import game.Tile;
+
+/**
+ * Determines the best first turn of a game, played on the empty board. Such a
+ * turn is a single line of tiles that all have the same color or all have the
+ * same shape, so its score only depends on the number of different types of
+ * one color or of one shape in the hand. The best first turn therefore follows
+ * directly from the types in the hand, without searching.
+ *
+ * The moves are placed in a row starting at the center of the board, in the
+ * order of the slots of the hand.
+ *
+ * @author Peter Wessels & Jonathan Juursema
+ *
+ */
+public class OpeningBook {
+
+	private static final long SHAPEMASK = (1L << Tile.SHAPES) - 1;
+	private static final long COLORMASK;
+
+	static {
+		long mask = 0;
+		for (int color = 0; color < Tile.COLORS; color++) {
+			mask |= 1L << (color * Tile.SHAPES);
+		}
+		COLORMASK = mask;
+	}
+
+	private OpeningBook() {
+	}
+
+	/**
+	 * Determines the types of the best first turn: the largest set of types of
+	 * the hand that share a color or a shape.
+	 *
+	 * @param types
+	 *            The types in the hand, see Hand.getTypes.
+	 * @return A bit mask in which bit Tile.getType() is set for every type in
+	 *         the turn.
+	 */
+	public static long getOpeningTypes(long types) {
+		long best = 0;
+		for (int color = 0; color < Tile.COLORS; color++) {
+			long line = types & (SHAPEMASK << (color * Tile.SHAPES));
+			if (Long.bitCount(line) > Long.bitCount(best)) {
+				best = line;
+			}
+		}
+		for (int shape = 0; shape < Tile.SHAPES; shape++) {
+			long line = types & (COLORMASK << shape);
+			if (Long.bitCount(line) > Long.bitCount(best)) {
+				best = line;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the score of a first turn, see LineSummary.getScore.
+	 *
+	 * @param types
+	 *            The types of the turn, see getOpeningTypes.
+	 * @return The score.
+	 */
+	public static int getScore(long types) {
+		int summary = 0;
+		for (long rest = types; rest != 0; rest &= rest - 1) {
+			summary = LineSummary.combine(summary,
+							LineSummary.ofType(Long.numberOfTrailingZeros(rest)));
+		}
+		return types == 0 ? 0 : LineSummary.getScore(summary);
+	}
+
+	/**
+	 * Determines the best first turn of a hand.
+	 *
+	 * @param hand
+	 *            The hand.
+	 * @return The compact moves of the turn (see MoveGenerator), which are
+	 *         none if the hand is empty.
+	 */
+	public static int[] getOpening(Hand hand) {
+		long rest = OpeningBook.getOpeningTypes(hand.getTypes());
+		int[] moves = new int[Long.bitCount(rest)];
+		int count = 0;
+		for (int slot = 0; slot < hand.getAmountOfTiles(); slot++) {
+			long type = 1L << hand.getTile(slot).getType();
+			if ((rest & type) != 0) {
+				rest &= ~type;
+				moves[count] = MoveGenerator.move(Board.key(count, 0), slot);
+				count++;
+			}
+		}
+		return moves;
+	}
+
+}
@@ -0,0 +1,174 @@
+package strategies;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import application.Util;
+import exceptions.SquareOutOfBoundsException;
+import game.Board;
+import game.Hand;
+
+/**
+ * Searches the best set of moves using all processors. The anchors of the
+ * MoveGenerator are split in halves until the parts are small enough, and each
+ * part is searched by a task of a fork/join pool.
+ *
+ * Every task works on a copy of the board of its own, as the MoveGenerator
+ * places its moves on the board. The copy is made by the task that forks it,
+ * from the board it owns itself, so no board is ever used by two threads. The
+ * hand is only read and is shared by all tasks.
+ *
+ * Each task keeps the best result of its own part and only merges it into
+ * the shared best result when it is done. The merge is a compare-and-set on an
+ * AtomicReference, so no locks are needed.
+ *
+ * All tasks stop as soon as the deadline of the search has passed and they
+ * have found a set of moves, after which the best result found so far is
+ * returned.
+ *
+ * @author Peter Wessels & Jonathan Juursema
+ *
+ */
+public class ParallelSearch extends RecursiveAction implements MoveGenerator.Visitor {
+
+	private static final long serialVersionUID = 1L;
+
+	// The number of parts per processor, so busy threads can steal work.
+	private static final int PARTS = 4;
+
+	// Shared with the MonteCarloStrategy, so the processors are not oversubscribed.
+	static final ForkJoinPool POOL = new ForkJoinPool();
+
+	private transient Board board;
+	private transient Hand hand;
+	private int[] anchors;
+	private int from;
+	private int to;
+	private int threshold;
+	private AtomicReference<SearchResult> best;
+	private int limit;
+	private long deadline;
+
+	private transient SearchResult local;
+	private int anchor;
+	private int sequence;
+
+	/**
+	 * Creates a task searching a part of the anchors.
+	 *
+	 * @param board
+	 *            The board, which is used by this task only.
+	 * @param hand
+	 *            The hand.
+	 * @param anchors
+	 *            All anchors, see Board.getFrontier.
+	 * @param from
+	 *            The index of the first anchor of the part.
+	 * @param to
+	 *            The index after the last anchor of the part.
+	 * @param threshold
+	 *            The number of anchors below which the part is not split.
+	 * @param best
+	 *            The best result of all tasks.
+	 * @param limit
+	 *            The maximal number of moves in a set, see
+	 *            MoveGenerator.setLimit.
+	 * @param deadline
+	 *            The moment, in System.nanoTime, at which the search stops.
+	 */
+	private ParallelSearch(Board board, Hand hand, int[] anchors, int from, int to,
+					int threshold, AtomicReference<SearchResult> best, int limit, long deadline) {
+		this.board = board;
+		this.hand = hand;
+		this.anchors = anchors;
+		this.from = from;
+		this.to = to;
+		this.threshold = threshold;
+		this.best = best;
+		this.limit = limit;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Searches the best set of moves that can be made with a hand.
+	 *
+	 * @param board
+	 *            The board, which is not changed.
+	 * @param hand
+	 *            The hand, which should not be changed during the search.
+	 * @return The best result, which is the same as the first best result of
+	 *         a sequential search, or null if no move is possible.
+	 */
+	public static SearchResult search(Board board, Hand hand) {
+		// Practically no deadline at all.
+		return ParallelSearch.search(board, hand, Hand.LIMIT,
+						System.nanoTime() + Long.MAX_VALUE / 2);
+	}
+
+	/**
+	 * Searches the best set of moves that can be made with a hand, of at most
+	 * a given number of moves, until a deadline.
+	 *
+	 * @param board
+	 *            The board, which is not changed.
+	 * @param hand
+	 *            The hand, which should not be changed during the search.
+	 * @param limit
+	 *            The maximal number of moves in a set.
+	 * @param deadline
+	 *            The moment, in System.nanoTime, at which the search stops.
+	 * @return The best result found, or null if no move has been found.
+	 */
+	public static SearchResult search(Board board, Hand hand, int limit, long deadline) {
+		int[] anchors = board.getFrontier();
+		int threshold = Math.max(1, anchors.length / (POOL.getParallelism() * PARTS));
+		AtomicReference<SearchResult> best = new AtomicReference<SearchResult>();
+		POOL.invoke(new ParallelSearch(board.copy(), hand, anchors, 0, anchors.length, threshold,
+						best, limit, deadline));
+		return best.get();
+	}
+
+	@Override
+	protected void compute() {
+		if (this.to - this.from > this.threshold) {
+			int middle = (this.from + this.to) >>> 1;
+			ParallelSearch right = new ParallelSearch(this.board.copy(), this.hand, this.anchors,
+							middle, this.to, this.threshold, this.best, this.limit, this.deadline);
+			ParallelSearch left = new ParallelSearch(this.board, this.hand, this.anchors,
+							this.from, middle, this.threshold, this.best, this.limit, this.deadline);
+			ParallelSearch.invokeAll(left, right);
+			return;
+		}
+
+		MoveGenerator generator = new MoveGenerator(this.board, this.hand);
+		generator.setLimit(this.limit);
+		try {
+			for (this.anchor = this.from; this.anchor < this.to; this.anchor++) {
+				this.sequence = 0;
+				// Once the deadline has passed, a task stops after its first set.
+				if ((this.local != null && System.nanoTime() - this.deadline >= 0)
+								|| !generator.generate(this, this.anchors, this.anchor, this.anchor + 1)) {
+					break;
+				}
+			}
+		} catch (SquareOutOfBoundsException e) {
+			Util.log(e);
+		}
+		if (this.local != null) {
+			this.best.accumulateAndGet(this.local, SearchResult::better);
+		}
+	}
+
+	@Override
+	public boolean visit(int[] moves, int count, int score) {
+		long order = ((long) this.anchor << 32) | this.sequence++;
+		if (this.local == null || score > this.local.getScore()) {
+			int[] copy = new int[count];
+			System.arraycopy(moves, 0, copy, 0, count);
+			this.local = new SearchResult(score, order, copy);
+		}
+		return System.nanoTime() - this.deadline < 0;
+	}
+
+}
@@ -0,0 +1,86 @@
+package strategies;
+
+/**
+ * The outcome of a search for a turn: a set of compact moves (see
+ * MoveGenerator) with its score. Results are immutable, so they can be handed
+ * between threads freely.
+ *
+ * Besides its score, every result has an order, being the position at which
+ * it was found in a sequential search. Of two results with the same score the
+ * one with the lowest order is the better one, so a search divided over
+ * several threads picks the same result as a sequential search.
+ *
+ * @author Peter Wessels & Jonathan Juursema
+ *
+ */
+public class SearchResult {
+
+	private final int score;
+	private final long order;
+	private final int[] moves;
+
+	/**
+	 * Creates a result.
+	 *
+	 * @param score
+	 *            The score of the moves.
+	 * @param order
+	 *            The position of the moves in a sequential search.
+	 * @param moves
+	 *            The compact moves, which are not copied.
+	 */
+	public SearchResult(int score, long order, int[] moves) {
+		this.score = score;
+		this.order = order;
+		this.moves = moves;
+	}
+
+	/**
+	 * Returns the score of the moves.
+	 *
+	 * @return The score.
+	 */
+	public int getScore() {
+		return this.score;
+	}
+
+	/**
+	 * Returns the position of the moves in a sequential search.
+	 *
+	 * @return The order.
+	 */
+	public long getOrder() {
+		return this.order;
+	}
+
+	/**
+	 * Returns the compact moves. The array should not be changed.
+	 *
+	 * @return The compact moves.
+	 */
+	public int[] getMoves() {
+		return this.moves;
+	}
+
+	/**
+	 * Returns the better of two results. Either result may be null.
+	 *
+	 * @param first
+	 *            The first result.
+	 * @param second
+	 *            The second result.
+	 * @return The result with the highest score, or with the lowest order if
+	 *         the scores are equal.
+	 */
+	public static SearchResult better(SearchResult first, SearchResult second) {
+		if (first == null) {
+			return second;
+		} else if (second == null) {
+			return first;
+		} else if (first.score != second.score) {
+			return first.score > second.score ? first : second;
+		}
+		return first.order <= second.order ? first : second;
+	}
+
+}
@@ -1,18 +1,16 @@
 package strategies;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 import application.Util;
 import exceptions.IllegalMoveException;
 import exceptions.IllegalTurnException;
 import exceptions.SquareOutOfBoundsException;
 import game.Board;
-import game.BoardSquare;
+import game.Hand;
 import game.Move;
 import game.Tile;
 import game.Turn;
@@ -20,65 +18,155 @@ import players.Player;
 
 /**
  * The SmartStrategy is used to determine the most valuable set of moves. The
- * strategy implements the bruteforce algorithm that uses the function
- * board.GetPossiblePlaces. The set of moves will be determined by a recursive
- * method that will place all the tiles in the hand on a possible board squares
- * and checks if another tile can be added. If so, the tile will be added and
- * another tile from the hand will be selected to add to the sequence. If no
- * tiles can be added, the sequence of tiles will be added to the map which maps
- * the score of a set of moves to the list of moves. This way all the
- * possibilities will be stored in a single map. The map then will be sorted to
- * get the move with the most points. This set of moves will be added to a turn
- * and this turn will be send to the server.
+ * strategy lets the MoveGenerator enumerate every legal set of moves that can
+ * be made with the hand, and keeps the sets with the highest score. The first
+ * of these sets will be added to a turn and this turn will be send to the
+ * server. If no set of moves is possible, the whole hand is swapped.
+ * 
+ * In the parallel search mode the search is divided over all processors by a
+ * ParallelSearch, which only keeps the first of the sets with the highest
+ * score. The sequential mode is the default, as the parallel one has not been
+ * measured to be faster yet.
+ * 
+ * The search is done before a deadline. It starts with the sets of a single
+ * move and widens to sets of more moves while there is time, so there is a
+ * best set so far at any moment. When the deadline has passed, the best set
+ * found so far is played. A human-like strategy also takes at least a second
+ * for every turn, so a human opponent can follow the game.
+ * 
+ * In a game of two players, the strategy can use an EndgameSolver once the bag
+ * is empty, which looks ahead to the end of the game instead of only at the
+ * score of the turn itself.
+ * 
+ * The first turn of a game, on the empty board, is taken from the OpeningBook
+ * without searching.
  * 
  * @author Peter Wessels & Jonathan Juursema
  *
  */
 
-public class SmartStrategy implements StrategyInterface {
+public class SmartStrategy implements StrategyInterface, MoveGenerator.Visitor {
 
 	private Player player;
 	private Board board;
-
-	public List<Turn> possibleTurns = new ArrayList<Turn>();
-	public Map<Integer, List<Move>> turnsByScore = new HashMap<Integer, List<Move>>();
-	public List<Move> tilesToAdd = new ArrayList<Move>();
+	private MoveGenerator generator;
+	private SearchMode searchMode;
+	private boolean humanLike;
+	private boolean endgameSolver;
+	private int moveLimit = Hand.LIMIT;
+	private EndgameSolver.Table endgameTable;
+	private long deadline;
+
+	private int bestScore;
+	private List<int[]> bestMoves = new ArrayList<int[]>();
+	private int passScore;
+	private List<int[]> passMoves = new ArrayList<int[]>();
+
+	/**
+	 * The time in milliseconds a turn may take when no deadline is given.
+	 */
+	public static final int THINKINGTIME = 10000;
+
+	/**
+	 * The time in milliseconds a human-like strategy takes at least.
+	 */
+	public static final int HUMANTIME = 1000;
 
 	public SmartStrategy() {
+		this(SearchMode.SEQUENTIAL);
+	}
+
+	/**
+	 * Creates a SmartStrategy with the given search mode.
+	 * 
+	 * @param searchMode
+	 *            The search mode.
+	 */
+	public SmartStrategy(SearchMode searchMode) {
+		this.searchMode = searchMode;
+	}
+
+	/**
+	 * Sets whether this strategy is human-like, taking at least HUMANTIME for
+	 * every turn.
+	 * 
+	 * @param humanLike
+	 *            True to make the strategy human-like.
+	 */
+	public void setHumanLike(boolean humanLike) {
+		this.humanLike = humanLike;
+	}
+
+	/**
+	 * Sets whether this strategy solves the end of the game once the bag is
+	 * empty, see EndgameSolver. This assumes there is only one opponent, so it
+	 * should only be used in games of two players.
+	 * 
+	 * @param endgameSolver
+	 *            True to use the EndgameSolver.
+	 */
+	public void setEndgameSolver(boolean endgameSolver) {
+		this.endgameSolver = endgameSolver;
+	}
+
+	/**
+	 * Sets the maximal number of moves in a set. Searching only small sets is
+	 * much faster and plays a little weaker, which suits simulations of many
+	 * games.
+	 * 
+	 * @param moveLimit
+	 *            The maximal number of moves, at least 1.
+	 */
+	public void setMoveLimit(int moveLimit) {
+		this.moveLimit = Math.max(1, moveLimit);
 	}
 
 	@Override
-	public synchronized Turn requestTurn(Turn turn) {
-		try {
-			this.wait(1000);
-		} catch (InterruptedException e) {
-			Util.log(e);
-		}
+	public Turn requestTurn(Turn turn) {
+		return this.requestTurn(turn,
+						System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(THINKINGTIME));
+	}
 
+	@Override
+	public synchronized Turn requestTurn(Turn turn, long deadline) {
+		long start = System.nanoTime();
 		this.player = turn.getPlayer();
 		this.board = turn.getBoardCopy();
 
+		List<Move> highestScore = null;
 		try {
-			this.calculateMoves();
+			this.calculateMoves(deadline);
+			if (this.bestMoves.size() > 0) {
+				int[] moves = this.bestMoves.get(0);
+				highestScore = this.generator.toMoves(moves, moves.length);
+			}
 		} catch (SquareOutOfBoundsException e) {
 			Util.log(e);
 		}
 
-		SortedSet<Integer> keys = new TreeSet<Integer>(turnsByScore.keySet());
-		List<Move> highestScore = null;
+		if (this.humanLike) {
+			long now = System.nanoTime();
+			long wait = Math.min(start + TimeUnit.MILLISECONDS.toNanos(HUMANTIME), deadline) - now;
+			try {
+				if (wait > 0) {
+					TimeUnit.NANOSECONDS.timedWait(this, wait);
+				}
+			} catch (InterruptedException e) {
+				Util.log(e);
+			}
+		}
+
 		turn.getMoves().clear();
-		if (turnsByScore.size() > 0) {
-			highestScore = turnsByScore.get(keys.last());
-			if (highestScore.size() == 0) {
-				for (Tile t : player.getHand().getTilesInHand()) {
-					try {
-						turn.addSwapRequest(t);
-					} catch (IllegalTurnException e) {
-						Util.log(e);
-					}
+		if (highestScore != null) {
+			// Add the moves properly, so they are also on the copy of the
+			// board the turn is scored on.
+			for (Move m : highestScore) {
+				try {
+					turn.addMove(m);
+				} catch (SquareOutOfBoundsException | IllegalMoveException
+								| IllegalTurnException e) {
+					Util.log(e);
 				}
-			} else {
-				turn.getMoves().addAll(highestScore);
 			}
 		} else {
 			for (Tile t : player.getHand().getTilesInHand()) {
@@ -93,91 +181,95 @@ public class SmartStrategy implements StrategyInterface {
 		return turn;
 	}
 
-	public void calculateMoves() throws SquareOutOfBoundsException {
-		for (Tile t : player.getHand().getTilesInHand()) {
-
-			Turn simTurn = new Turn(board, player);
-
-			if (board.getPossiblePlaceByTile(t).size() > 0) {
-
-				for (BoardSquare b : board.getPossiblePlaceByTile(t)) {
-
-					try {
-						board.placeTile(t, b.getX(), b.getY());
-					} catch (SquareOutOfBoundsException e) {
-						Util.log(e);
-					}
-					Move move = new Move(t, b);
-
-					List<Move> firstStone = new ArrayList<Move>();
-					firstStone.add(move);
-					try {
-						simTurn.addMove(move);
-						turnsByScore.put(simTurn.calculateScore(), firstStone);
-					} catch (IllegalMoveException | IllegalTurnException e) {
-						Util.log(e);
-						continue;
-					}
-
-					board.placeTile(move.getTile(), move.getPosition().getX(), move.getPosition().getY());
-					recursiveMove(t, simTurn);
+	/**
+	 * Determines the sets of moves that can be made with the hand before the
+	 * deadline and keeps the ones with the highest score. Every pass allows
+	 * one move more per set. A completed pass replaces the result of the
+	 * previous one, a pass stopped by the deadline only does so if it found a
+	 * higher score.
+	 * 
+	 * @param deadline
+	 *            The moment, in System.nanoTime, at which the search stops.
+	 * @throws SquareOutOfBoundsException
+	 */
+	public void calculateMoves(long deadline) throws SquareOutOfBoundsException {
+		this.deadline = deadline;
+		this.bestScore = -1;
+		this.bestMoves.clear();
+		this.generator = new MoveGenerator(this.board, this.player.getHand());
+
+		if (this.board.getNumberOfTiles() == 0) {
+			int[] opening = OpeningBook.getOpening(this.player.getHand());
+			if (opening.length > 0) {
+				this.bestScore = OpeningBook
+								.getScore(OpeningBook.getOpeningTypes(this.player.getHand().getTypes()));
+				this.bestMoves.add(opening);
+			}
+			return;
+		}
 
-					board.removeTile(b.getX(), b.getY());
-					simTurn.removeMove(move);
+		if (this.endgameSolver) {
+			Hand opponent = EndgameSolver.getUnseenTiles(this.board, this.player.getHand());
+			if (opponent != null) {
+				if (this.endgameTable == null) {
+					this.endgameTable = new EndgameSolver.Table();
+				}
+				SearchResult result = new EndgameSolver(this.board, this.player.getHand(), opponent,
+								this.endgameTable).solve(deadline);
+				if (result != null) {
+					this.bestScore = result.getScore();
+					this.bestMoves.add(result.getMoves());
+					return;
 				}
 			}
-
 		}
 
-	}
-
-	public void recursiveMove(Tile tile, Turn turn) throws SquareOutOfBoundsException {
-
-		for (Tile t : player.getHand().getTilesInHand()) {
-
-			boolean ignore = false;
-			for (Move m : turn.getMoves()) {
-				if (m.getTile() == t) {
-					ignore = true;
+		boolean completed = true;
+		int tiles = Math.min(this.player.getHand().getAmountOfTiles(), this.moveLimit);
+		for (int limit = 1; limit <= tiles && completed; limit++) {
+			this.passScore = -1;
+			this.passMoves = new ArrayList<int[]>();
+			if (this.searchMode == SearchMode.PARALLEL) {
+				SearchResult result = ParallelSearch.search(this.board, this.player.getHand(),
+								limit, deadline);
+				if (result != null) {
+					this.passScore = result.getScore();
+					this.passMoves.add(result.getMoves());
 				}
+				completed = System.nanoTime() - deadline < 0;
+			} else {
+				this.generator.setLimit(limit);
+				completed = this.generator.generate(this);
 			}
 
-			if (ignore) {
-				continue;
+			if (completed || this.passScore > this.bestScore) {
+				this.bestScore = this.passScore;
+				this.bestMoves = this.passMoves;
 			}
+		}
+	}
 
-			if (board.getPossiblePlaceByTile(t, turn.getMoves()).size() > 0) {
-
-				for (BoardSquare b : board.getPossiblePlaceByTile(t, turn.getMoves())) {
-
-					Move move = new Move(t, b);
-					try {
-						turn.addMove(move);
-					} catch (IllegalMoveException | IllegalTurnException e) {
-						Util.log(e);
-						continue;
-					}
-
-					board.placeTile(move.getTile(), move.getPosition().getX(), move.getPosition().getY());
-					recursiveMove(t, turn);
-					board.removeTile(b.getX(), b.getY());
-					List<Move> copy = new ArrayList<Move>();
-					for (Move m : turn.getMoves()) {
-						copy.add(new Move(m.getTile(), m.getPosition()));
-					}
-
-					try {
-						turnsByScore.put(turn.calculateScore(), copy);
-					} catch (IllegalMoveException e) {
-						continue;
-					}
-					turn.removeMove(move);
-
-				}
-
-			}
+	/**
+	 * Returns the sets of moves with the highest score found by the last
+	 * calculateMoves, as compact moves (see MoveGenerator). Sets with the same
+	 * score are all kept, in the order in which they were generated.
+	 * 
+	 * @return The sets of moves.
+	 */
+	public List<int[]> getBestMoves() {
+		return this.bestMoves;
+	}
 
+	@Override
+	public boolean visit(int[] moves, int count, int score) {
+		if (score > this.passScore) {
+			this.passScore = score;
+			this.passMoves.clear();
+		}
+		if (score == this.passScore) {
+			this.passMoves.add(Arrays.copyOf(moves, count));
 		}
+		return System.nanoTime() - this.deadline < 0;
 	}
 
 }
@@ -11,6 +11,14 @@ import game.Turn;
  */
 public interface StrategyInterface {
 
+	/**
+	 * The ways in which a strategy can search for a turn: on the calling
+	 * thread only, or divided over all processors.
+	 */
+	public static enum SearchMode {
+		SEQUENTIAL, PARALLEL
+	};
+
 	/**
 	 * Requests the turn to be done. Can either be move or swap.
 	 * 
@@ -20,4 +28,21 @@ public interface StrategyInterface {
 	 */
 	public Turn requestTurn(Turn turn);
 
+	/**
+	 * Requests the turn to be done before a deadline. The strategy should
+	 * return the best turn it has found when the deadline has passed, so the
+	 * turn is submitted in time. Strategies that do not take long can ignore
+	 * the deadline.
+	 * 
+	 * @param turn
+	 *            The turn to be filled.
+	 * @param deadline
+	 *            The moment, in System.nanoTime, at which the turn should be
+	 *            returned.
+	 * @return The filled turn.
+	 */
+	public default Turn requestTurn(Turn turn, long deadline) {
+		return this.requestTurn(turn);
+	}
+
 }
@@ -0,0 +1,73 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import server.AIExecutor;
+import server.Game;
+
+public class AIExecutorTest {
+
+	Game first;
+	Game second;
+
+	@Before
+	public void setUp() throws Exception {
+		first = new Game(null, 2);
+		second = new Game(null, 2);
+	}
+
+	@Test
+	public void testFairness() throws Exception {
+		AIExecutor executor = new AIExecutor(1, 4);
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(5);
+		final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+
+		// Keep the only worker busy while the queue is filled.
+		assertTrue(executor.submit(first, () -> {
+			try {
+				blocked.await();
+			} catch (InterruptedException e) {
+				fail();
+			}
+			done.countDown();
+		}));
+		while (executor.getWaiting() > 0) {
+			Thread.sleep(1);
+		}
+		for (String name : new String[] { "first 1", "first 2", "first 3" }) {
+			assertTrue(executor.submit(first, () -> {
+				order.add(name);
+				done.countDown();
+			}));
+		}
+		assertTrue(executor.submit(second, () -> {
+			order.add("second 1");
+			done.countDown();
+		}));
+
+		// The queue is full.
+		assertFalse(executor.submit(second, () -> fail()));
+
+		blocked.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+
+		// The second game does not wait for all turns of the first.
+		assertEquals("first 1", order.get(0));
+		assertEquals("second 1", order.get(1));
+		assertEquals(5, executor.getServed());
+		assertTrue(executor.getMaxWait() > 0);
+		executor.shutdown();
+		assertFalse(executor.submit(first, () -> fail()));
+	}
+
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -166,6 +167,29 @@ public class BagTest {
 		assertEquals(0, hand.getTilesInHand());
 	}
 
+	@Test
+	public void seededTest() throws TooFewTilesInBagException, TileNotInBagException,
+					HandLimitReachedExeption {
+		Bag bag = new Bag(new Random(42));
+		Bag other = new Bag(new Random(42));
+		bag.fill();
+		other.fill();
+
+		// Both bags are drawn empty, a hand at a time, in the same order.
+		int draws = 0;
+		while (bag.getNumberOfTiles() > 0) {
+			List<Tile> drawn = bag.takeFromBag(new Hand(), 6);
+			List<Tile> otherDrawn = other.takeFromBag(new Hand(), 6);
+			assertEquals(6, drawn.size());
+			for (int i = 0; i < drawn.size(); i++) {
+				assertEquals(drawn.get(i).toProtocol(), otherDrawn.get(i).toProtocol());
+			}
+			draws += drawn.size();
+		}
+		assertEquals(Game.TILESPERTYPE * Tile.TYPES, draws);
+		assertEquals(0, other.getNumberOfTiles());
+	}
+
 	public void toStringTest() {
 		Bag bag = new Bag();
 		bag.fill();
@@ -84,12 +84,96 @@ public class BoardTest {
 
 		System.out.println(board.toString());
 
-		Board board2 = new Board();
-		board2.setBoard(board.copy(board2));
+		Board board2 = board.copy();
 
 		System.out.println(board2.toString());
 	}
 
+	@Test
+	public void testSparseBoard() throws SquareOutOfBoundsException {
+		assertEquals(0, board.getNumberOfTiles());
+
+		for (int i = -50; i < 50; i++) {
+			board.placeTile(new Tile(Tile.RED, Tile.CIRCLE), i, i);
+		}
+		assertEquals(100, board.getNumberOfTiles());
+
+		Board board2 = board.copy();
+		for (int i = -50; i < 50; i += 2) {
+			board.removeTile(i, i);
+		}
+		assertEquals(50, board.getNumberOfTiles());
+		assertEquals(100, board2.getNumberOfTiles());
+
+		for (int i = -50; i < 50; i++) {
+			assertEquals(i % 2 == 0, board.getSquare(i, i).isEmpty());
+			assertFalse(board2.getSquare(i, i).isEmpty());
+		}
+
+		assertTrue(board.isEmpty(Board.SIZE, 0));
+	}
+
+	@Test
+	public void testSnapshots() throws SquareOutOfBoundsException {
+		Tile t1 = new Tile(Tile.BLUE, Tile.CIRCLE);
+		Tile t2 = new Tile(Tile.RED, Tile.CIRCLE);
+		Tile t3 = new Tile(Tile.GREEN, Tile.CIRCLE);
+		board.placeTile(t1, 0, 0);
+
+		Board snapshot = board.copy();
+		snapshot.placeTile(t2, 1, 0);
+		snapshot.removeTile(0, 0);
+		board.placeTile(t3, -1, 0);
+
+		assertEquals(t1, board.getTile(0, 0));
+		assertEquals(null, board.getTile(1, 0));
+		assertEquals(2, board.getNumberOfTiles());
+
+		assertEquals(null, snapshot.getTile(0, 0));
+		assertEquals(t2, snapshot.getTile(1, 0));
+		assertEquals(null, snapshot.getTile(-1, 0));
+		assertEquals(1, snapshot.getNumberOfTiles());
+
+		Board snapshot2 = snapshot.copy();
+		snapshot2.placeTile(t1, 0, 0);
+		snapshot.removeTile(1, 0);
+
+		assertEquals(t1, snapshot2.getTile(0, 0));
+		assertEquals(t2, snapshot2.getTile(1, 0));
+		assertEquals(2, snapshot2.getNumberOfTiles());
+		assertEquals(0, snapshot.getNumberOfTiles());
+		assertArrayEquals(new int[] { 0, 1, 0, 0 }, snapshot2.getMinMax());
+	}
+
+	@Test
+	public void testBoundingBox() throws SquareOutOfBoundsException {
+		assertArrayEquals(new int[] { 0, 0, 0, 0 }, board.getMinMax());
+
+		board.placeTile(new Tile(Tile.BLUE, Tile.CIRCLE), 0, 0);
+		board.placeTile(new Tile(Tile.RED, Tile.CIRCLE), 3, 0);
+		board.placeTile(new Tile(Tile.RED, Tile.CIRCLE), 3, -2);
+		board.placeTile(new Tile(Tile.RED, Tile.CIRCLE), -1, 4);
+		assertArrayEquals(new int[] { -1, 3, -2, 4 }, board.getMinMax());
+		assertEquals(4, board.getOccupiedSquares().size());
+
+		board.removeTile(3, 0);
+		assertEquals(3, board.getMaxX());
+		board.removeTile(3, -2);
+		assertEquals(0, board.getMaxX());
+		assertEquals(0, board.getMinY());
+		board.removeTile(0, 0);
+		assertArrayEquals(new int[] { -1, 0, 0, 4 }, board.getMinMax());
+		assertEquals(-1, board.getMinX());
+		assertEquals(-1, board.getMaxX());
+		assertEquals(1, board.getNumberOfTiles());
+		assertEquals(Board.key(-1, 4), board.getOccupiedKey(0));
+	}
+
+	@Test(expected = SquareOutOfBoundsException.class)
+	public void testOutOfBounds() throws SquareOutOfBoundsException {
+		board.getSquare(0, Board.SIZE / 2);
+	}
+
 	@Test
 	public void testPossiblePlayes() throws SquareOutOfBoundsException {
 		board.placeTile(new Tile(Tile.BLUE, Tile.CIRCLE), 0, 0);
@@ -102,4 +186,78 @@ public class BoardTest {
 		assertEquals(12, board.getAllPossiblePlaces().size());
 	}
 
+	@Test
+	public void testFrontier() throws SquareOutOfBoundsException {
+		// On an empty board only the origin is possible.
+		assertEquals(1, board.getAllPossiblePlaces().size());
+		assertEquals(36, board.getAllPossiblePlaces().get(board.getSquare(0, 0)).size());
+
+		board.placeTile(new Tile(Tile.RED, Tile.CIRCLE), 0, 0);
+		board.placeTile(new Tile(Tile.RED, Tile.SQUARE), 1, 0);
+		assertEquals(6, board.getAllPossiblePlaces().size());
+		assertEquals(4, board.getAllPossiblePlaces().get(board.getSquare(2, 0)).size());
+		assertEquals(0, board.getPossibleTypes(0, 0));
+		assertEquals(0, board.getPossibleTypes(5, 5));
+
+		// The square between two sequences must fit both.
+		Board copy = board.copy();
+		copy.placeTile(new Tile(Tile.RED, Tile.STAR), 3, 0);
+		assertEquals(3, Long.bitCount(copy.getPossibleTypes(2, 0)));
+		assertFalse(copy.getPossiblePlaceByTile(new Tile(Tile.RED, Tile.STAR))
+						.contains(copy.getSquare(2, 0)));
+		assertEquals(4, Long.bitCount(board.getPossibleTypes(2, 0)));
+
+		// Removing the tile restores the frontier.
+		copy.removeTile(3, 0);
+		assertEquals(board.getPossibleTypes(2, 0), copy.getPossibleTypes(2, 0));
+		assertEquals(0, copy.getPossibleTypes(4, 0));
+		assertEquals(6, copy.getAllPossiblePlaces().size());
+	}
+
+	@Test
+	public void testPushAndPop() throws SquareOutOfBoundsException {
+		Tile red = new Tile(Tile.RED, Tile.CIRCLE);
+		board.placeTile(red, 0, 0);
+		board.placeTile(new Tile(Tile.RED, Tile.SQUARE), 1, 0);
+		String before = board.toString();
+		long frontier = board.getPossibleTypes(2, 0);
+
+		int token = board.pushTile(new Tile(Tile.RED, Tile.STAR), 2, 0);
+		board.pushTile(new Tile(Tile.RED, Tile.CROSS), 3, 0);
+		board.pushTile(null, 0, 0);
+		assertEquals(3, board.getNumberOfTiles());
+		assertEquals(3, board.getMaxX());
+		assertEquals(1, board.getMinX());
+
+		board.popTile(token);
+		assertEquals(before, board.toString());
+		assertSame(red, board.getTile(0, 0));
+		assertEquals(2, board.getNumberOfTiles());
+		assertEquals(1, board.getMaxX());
+		assertEquals(frontier, board.getPossibleTypes(2, 0));
+		assertEquals(0, board.getPossibleTypes(4, 0));
+		assertEquals(2, board.getRowSummary(0, 0) & 0xFF);
+	}
+
+	@Test
+	public void testHash() throws SquareOutOfBoundsException {
+		assertEquals(0, board.getHash());
+		Board other = new Board();
+
+		board.placeTile(new Tile(Tile.RED, Tile.CIRCLE), 0, 0);
+		board.placeTile(new Tile(Tile.RED, Tile.SQUARE), 1, 0);
+		other.placeTile(new Tile(Tile.RED, Tile.SQUARE), 1, 0);
+		other.placeTile(new Tile(Tile.RED, Tile.CIRCLE), 0, 0);
+		assertEquals(board.getHash(), other.getHash());
+		assertEquals(board.getHash(), board.copy().getHash());
+
+		other.placeTile(new Tile(Tile.RED, Tile.STAR), 1, 0);
+		assertNotEquals(board.getHash(), other.getHash());
+		int token = other.pushTile(null, 1, 0);
+		other.pushTile(new Tile(Tile.RED, Tile.SQUARE), 1, 0);
+		assertEquals(board.getHash(), other.getHash());
+		other.popTile(token);
+		assertNotEquals(board.getHash(), other.getHash());
+	}
+
 }
@@ -0,0 +1,139 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import game.Bag;
+import game.Board;
+import game.CanonicalHash;
+import game.Canonicalizer;
+import game.Hand;
+import game.Move;
+import game.Tile;
+import strategies.MoveGenerator;
+
+public class CanonicalizerTest {
+
+	Board board;
+	Hand hand;
+
+	@Before
+	public void setUp() throws Exception {
+		board = new Board();
+		hand = new Hand(false);
+		Bag bag = new Bag(new Random(18));
+		bag.fill();
+		bag.takeFromBag(hand, 6);
+
+		// Play a few turns to get a board of some size.
+		for (int turn = 0; turn < 8; turn++) {
+			final List<int[]> sets = new ArrayList<int[]>();
+			MoveGenerator generator = new MoveGenerator(board, hand);
+			generator.generate((moves, count, score) -> {
+				sets.add(Arrays.copyOf(moves, count));
+				return sets.size() < 50;
+			});
+			if (sets.isEmpty()) {
+				break;
+			}
+			int[] set = sets.get(sets.size() - 1);
+			for (Move move : generator.toMoves(set, set.length)) {
+				board.placeTile(move.getTile(), move.getPosition().getX(),
+								move.getPosition().getY());
+				hand.removeFromHand(move.getTile());
+			}
+			bag.takeFromBag(hand, 6 - hand.getAmountOfTiles());
+		}
+	}
+
+	@Test
+	public void testEquivalentPositions() throws Exception {
+		Canonicalizer.Form form = Canonicalizer.canonicalize(board, hand);
+		long hash = new CanonicalHash(board, hand).getHash();
+		Random random = new Random(1);
+		for (int symmetry = 0; symmetry < Canonicalizer.SYMMETRIES; symmetry++) {
+			Canonicalizer.Transform transform = new Canonicalizer.Transform(symmetry,
+							this.shuffle(random), this.shuffle(random));
+			Board transformedBoard = new Board();
+			for (int i = 0; i < board.getNumberOfTiles(); i++) {
+				int key = board.getOccupiedKey(i);
+				int x = Board.keyToX(key);
+				int y = Board.keyToY(key);
+				transformedBoard.placeTile(transform.getTile(board.getTile(x, y)),
+								transform.getX(x, y), transform.getY(x, y));
+			}
+			Hand transformedHand = new Hand(false);
+			for (int i = hand.getAmountOfTiles() - 1; i >= 0; i--) {
+				transformedHand.addToHand(transform.getTile(hand.getTile(i)));
+			}
+
+			Canonicalizer.Form other = Canonicalizer.canonicalize(transformedBoard,
+							transformedHand);
+			assertEquals(form, other);
+			assertEquals(form.getHash(), other.getHash());
+			assertEquals(hash, new CanonicalHash(transformedBoard, transformedHand).getHash());
+		}
+	}
+
+	@Test
+	public void testTransform() throws Exception {
+		Canonicalizer.Form form = Canonicalizer.canonicalize(board, hand);
+		Canonicalizer.Transform transform = form.getTransform();
+		Canonicalizer.Transform inverse = transform.inverse();
+
+		int[] canonical = form.getBoard();
+		for (int i = 0; i < canonical.length; i += 2) {
+			int x = Board.keyToX(canonical[i]);
+			int y = Board.keyToY(canonical[i]);
+			Tile tile = board.getTile(inverse.getX(x, y), inverse.getY(x, y));
+			assertEquals(canonical[i + 1], transform.getType(tile.getType()));
+			assertEquals(tile.getType(), inverse.getType(canonical[i + 1]));
+		}
+	}
+
+	@Test
+	public void testIncrementalHash() throws Exception {
+		CanonicalHash hash = new CanonicalHash(board, hand);
+		long before = hash.getHash();
+		Tile tile = hand.getTile(0);
+
+		hash.removeFromHand(tile);
+		hash.placeTile(tile, 50, 50);
+		Board changed = board.copy();
+		changed.placeTile(tile, 50, 50);
+		Hand rest = new Hand(false);
+		for (int i = 1; i < hand.getAmountOfTiles(); i++) {
+			rest.addToHand(hand.getTile(i));
+		}
+		assertEquals(new CanonicalHash(changed, rest).getHash(), hash.getHash());
+		assertFalse(before == hash.getHash());
+		assertFalse(Canonicalizer.canonicalize(board, hand)
+						.equals(Canonicalizer.canonicalize(changed, rest)));
+
+		hash.removeTile(tile, 50, 50);
+		hash.addToHand(tile);
+		assertEquals(before, hash.getHash());
+	}
+
+	private int[] shuffle(Random random) {
+		List<Integer> labels = new ArrayList<Integer>();
+		for (int i = 0; i < Tile.COLORS; i++) {
+			labels.add(i);
+		}
+		Collections.shuffle(labels, random);
+		int[] result = new int[labels.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = labels.get(i);
+		}
+		return result;
+	}
+
+}
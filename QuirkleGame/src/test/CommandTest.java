@@ -0,0 +1,142 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import game.Board;
+import game.Tile;
+import protocol.CommandDecoder;
+import protocol.MoveCodec;
+import protocol.Protocol;
+
+public class CommandTest {
+
+	@Test
+	public void testMoveCodec() {
+		int move = MoveCodec.decode("AB*-1*12");
+		assertEquals(Tile.getType('A', 'B'), MoveCodec.getType(move));
+		assertEquals(-1, MoveCodec.getX(move));
+		assertEquals(12, MoveCodec.getY(move));
+		assertEquals("AB*-1*12", MoveCodec.toProtocol(move));
+
+		move = MoveCodec.pack(Tile.TYPES - 1, -MoveCodec.MAXCOORDINATE - 1, MoveCodec.MAXCOORDINATE);
+		assertEquals(Tile.TYPES - 1, MoveCodec.getType(move));
+		assertEquals(-MoveCodec.MAXCOORDINATE - 1, MoveCodec.getX(move));
+		assertEquals(MoveCodec.MAXCOORDINATE, MoveCodec.getY(move));
+
+		// A tile that does not exist is kept, to be rejected later.
+		assertEquals(Tile.NO_TYPE, MoveCodec.getType(MoveCodec.decode("ZZ*0*0")));
+
+		// Coordinates off the board are kept off it, so the board rejects them.
+		move = MoveCodec.decode("AB*99999*-2147483648");
+		assertEquals(MoveCodec.MAXCOORDINATE, MoveCodec.getX(move));
+		assertEquals(-MoveCodec.MAXCOORDINATE - 1, MoveCodec.getY(move));
+		assertTrue(MoveCodec.MAXCOORDINATE >= Board.SIZE / 2);
+
+		for (String malformed : new String[] { "AB*1", "AB*1*", "AB*x*1", "AB1*1", "AB*1*1*",
+						"AB*123", "AB*12*", "AB*2147483648*1", "AB*--1*1" }) {
+			try {
+				MoveCodec.decode(malformed);
+				fail(malformed);
+			} catch (NumberFormatException e) {
+				// Expected.
+			}
+		}
+	}
+
+	@Test
+	public void testDecoder() {
+		List<String> received = new ArrayList<String>();
+		CommandDecoder decoder = new CommandDecoder(command -> {
+			assertSame(Protocol.Client.MAKEMOVE, command.getName());
+			received.add(command.toString());
+			assertEquals(2, command.getArgumentCount());
+			assertEquals("AB*0*0", command.getArgument(0));
+			assertEquals(MoveCodec.decode("AC*0*1"), command.getMove(1));
+		});
+
+		// Commands may arrive in parts, and end with one or two line ends.
+		this.decode(decoder, "MAKEMOVE_AB*0*0_AC*0*1\n\nMAKEMO");
+		assertEquals(1, received.size());
+		this.decode(decoder, "VE_AB*0*0_AC*0*1_\r\n");
+		assertEquals(2, received.size());
+		this.decode(decoder, "\n\n");
+		assertEquals(2, received.size());
+	}
+
+	@Test
+	public void testArguments() {
+		this.decode(new CommandDecoder(command -> {
+			assertSame(Protocol.Client.HALLO, command.getName());
+			// Like String.split, empty arguments are only ignored at the end.
+			assertArrayEquals("HALLO_name__CHAT_".split("_"),
+							this.join(command.getName(), command.getArguments()));
+		}), "HALLO_name__CHAT_\n");
+
+		this.decode(new CommandDecoder(command -> {
+			assertEquals("UNKNOWN", command.getName());
+			assertEquals(0, command.getArgumentCount());
+		}), "UNKNOWN\n");
+
+		this.decode(new CommandDecoder(command -> {
+			int[] moves = command.getMoves(2);
+			assertEquals(2, moves.length);
+			assertEquals(MoveCodec.decode("AC*0*1"), moves[1]);
+		}), "MOVE_p1_p2_AB*0*0_AC*0*1\n");
+	}
+
+	@Test
+	public void testAllocation() throws ReflectiveOperationException {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+			return;
+		}
+		// Only Java 14 and later can measure the current thread directly.
+		Method allocated;
+		try {
+			allocated = com.sun.management.ThreadMXBean.class
+							.getMethod("getCurrentThreadAllocatedBytes");
+		} catch (NoSuchMethodException e) {
+			return;
+		}
+
+		int[] sum = new int[1];
+		CommandDecoder decoder = new CommandDecoder(command -> {
+			if (command.getName() == Protocol.Client.MAKEMOVE) {
+				for (int i = 0; i < command.getArgumentCount(); i++) {
+					sum[0] += command.getMove(i);
+				}
+			}
+		});
+		char[] chars = "MAKEMOVE_AB*0*0_AC*0*1_AD*0*2_AE*0*3\n\n".toCharArray();
+		for (int i = 0; i < 1000; i++) {
+			decoder.decode(chars, 0, chars.length);
+		}
+
+		long before = (Long) allocated.invoke(threads);
+		for (int i = 0; i < 100000; i++) {
+			decoder.decode(chars, 0, chars.length);
+		}
+		long bytes = (Long) allocated.invoke(threads) - before;
+		// Decoding a command and its moves does not create any objects.
+		assertTrue(bytes + " bytes", bytes < 100000);
+	}
+
+	private void decode(CommandDecoder decoder, String chars) {
+		decoder.decode(chars.toCharArray(), 0, chars.length());
+	}
+
+	private String[] join(String name, String[] args) {
+		String[] all = new String[args.length + 1];
+		all[0] = name;
+		System.arraycopy(args, 0, all, 1, args.length);
+		return all;
+	}
+
+}
@@ -0,0 +1,117 @@
+package test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import protocol.Protocol;
+import server.Server;
+
+/**
+ * Measures what idle clients cost a server in each connection mode: how many
+ * connections are served, and the threads, heap and resident memory per
+ * connection. Every mode should be measured in a JVM of its own, as threads
+ * and memory are not given back reliably. Only platform threads are counted:
+ * the virtual threads of VIRTUALTHREADS show up in the heap instead, and that
+ * mode needs a JDK of 21 or later.
+ *
+ * Usage: ConnectionBenchmark [THREADS|VIRTUALTHREADS|EVENTLOOP] [clients]
+ *
+ * @author Jonathan Juursema & Peter Wessels
+ *
+ */
+public class ConnectionBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Server.ConnectionMode mode = Server.ConnectionMode
+						.valueOf(args.length > 0 ? args[0] : "EVENTLOOP");
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+		Server server = new Server(0, 1, mode);
+		Charset charset = Charset.forName(Protocol.Server.Settings.ENCODING);
+		int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+		long heap = ConnectionBenchmark.getHeap();
+		long resident = ConnectionBenchmark.getResident();
+
+		// Every client says hello and then stays idle in the lobby.
+		List<Socket> sockets = new ArrayList<Socket>();
+		long start = System.nanoTime();
+		int connected = 0;
+		try {
+			for (int i = 0; i < clients; i++) {
+				Socket socket = new Socket("localhost", server.getPort());
+				sockets.add(socket);
+				BufferedWriter tx = new BufferedWriter(
+								new OutputStreamWriter(socket.getOutputStream(), charset));
+				tx.write(Protocol.Client.HALLO + "_client" + i + Protocol.Server.Settings.COMMAND_END);
+				tx.flush();
+				BufferedReader rx = new BufferedReader(
+								new InputStreamReader(socket.getInputStream(), charset));
+				String line = rx.readLine();
+				while (line != null && line.isEmpty()) {
+					line = rx.readLine();
+				}
+				if (line == null || !line.startsWith(Protocol.Server.HALLO)) {
+					break;
+				}
+				connected++;
+			}
+		} catch (Exception e) {
+			System.out.println("Stopped at " + connected + " clients: " + e);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		threads = ManagementFactory.getThreadMXBean().getThreadCount() - threads;
+		heap = ConnectionBenchmark.getHeap() - heap;
+		resident = ConnectionBenchmark.getResident() - resident;
+		System.out.printf("%s: %d of %d clients connected in %.1f s%n", mode, connected, clients, seconds);
+		System.out.printf("  threads: %d (%.2f per client)%n", threads, (double) threads / connected);
+		System.out.printf("  heap:    %d KiB (%.1f KiB per client)%n", heap / 1024,
+						heap / 1024.0 / connected);
+		System.out.printf("  rss:     %d KiB (%.1f KiB per client)%n", resident / 1024,
+						resident / 1024.0 / connected);
+
+		for (Socket socket : sockets) {
+			socket.close();
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * Returns the heap in use after a collection.
+	 */
+	private static long getHeap() throws InterruptedException {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Returns the resident memory of the process, which includes the stacks of
+	 * threads, or 0 where it is not known.
+	 */
+	private static long getResident() {
+		try {
+			for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+				if (line.startsWith("VmRSS:")) {
+					return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+				}
+			}
+		} catch (Exception e) {
+			// Not on Linux.
+		}
+		return 0;
+	}
+
+}
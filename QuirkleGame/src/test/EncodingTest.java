@@ -0,0 +1,105 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+import protocol.Protocol;
+import server.Server;
+
+public class EncodingTest {
+
+	private static final Charset DEFAULT = Charset.forName(Protocol.Server.Settings.ENCODING);
+	private static final Charset COMPACT = Charset
+					.forName(Protocol.Server.Settings.COMPACTENCODING);
+
+	@Test
+	public void testNegotiated() throws Exception {
+		for (Server.ConnectionMode mode : new Server.ConnectionMode[] {
+						Server.ConnectionMode.EVENTLOOP, Server.ConnectionMode.THREADS }) {
+			Server server = new Server(0, 1, mode);
+			try (Socket socket = new Socket("localhost", server.getPort())) {
+				InputStream rx = socket.getInputStream();
+				OutputStream tx = socket.getOutputStream();
+
+				this.send(tx, DEFAULT, Protocol.Client.HALLO + "_j\u00fcr_CHAT_UTF8");
+				String hallo = this.receive(rx, DEFAULT);
+				assertTrue(hallo, hallo.startsWith(Protocol.Server.HALLO));
+				assertTrue(hallo, hallo.contains(Protocol.Server.Features.UTF8));
+
+				// Everything after the HALLO of the server is UTF-8, both ways.
+				assertEquals(Protocol.Server.CHAT + "_<j\u00fcr> < entered the lobby >",
+								this.receive(rx, COMPACT));
+				this.receive(rx, COMPACT);
+				this.send(tx, COMPACT, Protocol.Client.CHAT + "_h\u00e9llo");
+				assertEquals(Protocol.Server.CHAT + "_<j\u00fcr> h\u00e9llo", this.receive(rx, COMPACT));
+			}
+		}
+	}
+
+	@Test
+	public void testSupplementaryCharacter() throws Exception {
+		for (Server.ConnectionMode mode : new Server.ConnectionMode[] {
+						Server.ConnectionMode.EVENTLOOP, Server.ConnectionMode.THREADS }) {
+			Server server = new Server(0, 1, mode);
+			try (Socket socket = new Socket("localhost", server.getPort())) {
+				socket.setSoTimeout(5000);
+				InputStream rx = socket.getInputStream();
+				OutputStream tx = socket.getOutputStream();
+
+				// A surrogate pair is received while a single char is decoded at a time.
+				this.send(tx, DEFAULT, Protocol.Client.HALLO + "_j\uD83D\uDE00r_CHAT_UTF8");
+				assertTrue(this.receive(rx, DEFAULT).startsWith(Protocol.Server.HALLO));
+				assertEquals(Protocol.Server.CHAT + "_<j\uD83D\uDE00r> < entered the lobby >",
+								this.receive(rx, COMPACT));
+			}
+		}
+	}
+
+	@Test
+	public void testNotNegotiated() throws Exception {
+		Server server = new Server(0, 1, Server.ConnectionMode.EVENTLOOP);
+		try (Socket socket = new Socket("localhost", server.getPort())) {
+			InputStream rx = socket.getInputStream();
+			OutputStream tx = socket.getOutputStream();
+
+			this.send(tx, DEFAULT, Protocol.Client.HALLO + "_j\u00fcr_CHAT");
+			assertTrue(this.receive(rx, DEFAULT).startsWith(Protocol.Server.HALLO));
+			// A client that does not name UTF8 keeps a single UTF-16 stream,
+			// with the byte order mark only at its start.
+			assertEquals(Protocol.Server.CHAT + "_<j\u00fcr> < entered the lobby >",
+							this.receive(rx, Charset.forName("UTF-16BE")));
+		}
+	}
+
+	private byte[] encode(Charset charset, String command) {
+		return (command + Protocol.Server.Settings.COMMAND_END).getBytes(charset);
+	}
+
+	private void send(OutputStream tx, Charset charset, String command) throws Exception {
+		tx.write(this.encode(charset, command));
+		tx.flush();
+	}
+
+	/**
+	 * Reads a single command byte by byte, so nothing after it is read yet.
+	 */
+	private String receive(InputStream rx, Charset charset) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		String command = "";
+		while (command.isEmpty() || !command.endsWith(Protocol.Server.Settings.COMMAND_END)) {
+			int b = rx.read();
+			assertTrue(b >= 0);
+			bytes.write(b);
+			command = new String(bytes.toByteArray(), charset).replaceFirst("^\n+", "");
+		}
+		return command.substring(0, command.length() - Protocol.Server.Settings.COMMAND_END.length());
+	}
+
+}
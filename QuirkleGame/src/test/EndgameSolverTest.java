@@ -0,0 +1,138 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import exceptions.SquareOutOfBoundsException;
+import game.Board;
+import game.Hand;
+import game.Tile;
+import server.Game;
+import strategies.EndgameSolver;
+import strategies.MoveGenerator;
+import strategies.SearchResult;
+
+public class EndgameSolverTest {
+
+	Board board;
+	Hand hand;
+	Hand opponent;
+
+	@Before
+	public void setUp() throws Exception {
+		board = new Board();
+		board.placeTile(new Tile(Tile.RED, Tile.CIRCLE), 0, 0);
+		board.placeTile(new Tile(Tile.RED, Tile.SQUARE), 1, 0);
+		board.placeTile(new Tile(Tile.BLUE, Tile.SQUARE), 1, 1);
+
+		hand = new Hand(false);
+		hand.addToHand(new Tile(Tile.RED, Tile.STAR));
+		hand.addToHand(new Tile(Tile.GREEN, Tile.SQUARE));
+		hand.addToHand(new Tile(Tile.BLUE, Tile.CIRCLE));
+
+		opponent = new Hand(false);
+		opponent.addToHand(new Tile(Tile.RED, Tile.CROSS));
+		opponent.addToHand(new Tile(Tile.YELLOW, Tile.SQUARE));
+		opponent.addToHand(new Tile(Tile.BLUE, Tile.STAR));
+	}
+
+	@Test
+	public void testSolve() throws Exception {
+		long hash = board.getHash();
+		EndgameSolver solver = new EndgameSolver(board, hand, opponent);
+		SearchResult result = solver.solve(System.nanoTime() + 60000000000L);
+
+		assertTrue(solver.isSolved());
+		assertEquals(hash, board.getHash());
+		assertEquals(this.minimax(new Hand[] { hand, opponent }, new int[2], 0, false),
+						solver.getValue());
+		assertTrue(result.getMoves().length > 0);
+	}
+
+	@Test
+	public void testSharedTable() throws Exception {
+		EndgameSolver.Table table = new EndgameSolver.Table();
+		EndgameSolver solver = new EndgameSolver(board, hand, opponent, table);
+		solver.solve(System.nanoTime() + 60000000000L);
+
+		// The entries of the first solve are valid for the second.
+		EndgameSolver again = new EndgameSolver(board, hand, opponent, table);
+		again.solve(System.nanoTime() + 60000000000L);
+		assertTrue(again.isSolved());
+		assertEquals(solver.getValue(), again.getValue());
+	}
+
+	@Test
+	public void testUnseenTiles() throws Exception {
+		// At the start of the game most tiles are still unseen.
+		assertNull(EndgameSolver.getUnseenTiles(board, hand));
+
+		// At the end, they are tiles of their own that can be played.
+		board = new Board();
+		hand = new Hand(false);
+		int x = 0;
+		for (int type = 0; type < Tile.TYPES; type++) {
+			for (int i = 0; i < Game.TILESPERTYPE; i++) {
+				if (type == 0 && i == 0) {
+					hand.addToHand(new Tile(type));
+				} else if (type != 1 || i > 1) {
+					board.placeTile(new Tile(type), x++, 0);
+				}
+			}
+		}
+		Hand unseen = EndgameSolver.getUnseenTiles(board, hand);
+		assertEquals(2, unseen.getAmountOfTiles());
+		assertEquals(2, unseen.getAmountOfTiles(1));
+		assertNotSame(unseen.getTile(0), unseen.getTile(1));
+		assertNotSame(Tile.ofType(1), unseen.getTile(0));
+	}
+
+	/**
+	 * Determines the value of a position by trying every possible game,
+	 * without any pruning.
+	 */
+	private int minimax(Hand[] hands, int[] excluded, int side, boolean passed)
+					throws SquareOutOfBoundsException {
+		final List<int[]> turns = new ArrayList<int[]>();
+		MoveGenerator generator = new MoveGenerator(board, hands[side]);
+		generator.setExcluded(excluded[side]);
+		generator.generate((moves, count, score) -> {
+			int[] turn = Arrays.copyOf(moves, count + 1);
+			turn[count] = score;
+			turns.add(turn);
+			return true;
+		});
+		if (turns.isEmpty()) {
+			return passed ? 0 : -this.minimax(hands, excluded, 1 - side, true);
+		}
+
+		int best = Integer.MIN_VALUE;
+		for (int[] turn : turns) {
+			int before = excluded[side];
+			int token = -1;
+			for (int i = 0; i < turn.length - 1; i++) {
+				int pushed = board.pushTile(hands[side].getTile(MoveGenerator.getSlot(turn[i])),
+								MoveGenerator.getX(turn[i]), MoveGenerator.getY(turn[i]));
+				token = token < 0 ? pushed : token;
+				excluded[side] |= 1 << MoveGenerator.getSlot(turn[i]);
+			}
+			int value = turn[turn.length - 1];
+			if (Integer.bitCount(excluded[side]) == hands[side].getAmountOfTiles()) {
+				value += Game.BONUS_WHEN_FINISH_FIRST;
+			} else {
+				value -= this.minimax(hands, excluded, 1 - side, false);
+			}
+			board.popTile(token);
+			excluded[side] = before;
+			best = Math.max(best, value);
+		}
+		return best;
+	}
+
+}
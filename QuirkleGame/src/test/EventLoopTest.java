@@ -0,0 +1,138 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import protocol.Protocol;
+import server.Server;
+
+public class EventLoopTest {
+
+	Server server;
+
+	@Before
+	public void setUp() throws Exception {
+		server = new Server(0, 1, Server.ConnectionMode.EVENTLOOP);
+	}
+
+	@Test
+	public void testCommands() throws Exception {
+		try (Socket socket = new Socket("localhost", server.getPort())) {
+			BufferedReader rx = this.reader(socket);
+			BufferedWriter tx = this.writer(socket);
+
+			this.send(tx, Protocol.Client.GETLEADERBOARD);
+			assertTrue(this.receive(rx).startsWith(Protocol.Server.ERROR));
+
+			this.send(tx, Protocol.Client.HALLO + "_tester_CHAT");
+			assertTrue(this.receive(rx).startsWith(Protocol.Server.HALLO));
+		}
+	}
+
+	@Test
+	public void testManyConnections() throws Exception {
+		int threads = Thread.activeCount();
+		List<Socket> sockets = new ArrayList<Socket>();
+		try {
+			for (int i = 0; i < 50; i++) {
+				Socket socket = new Socket("localhost", server.getPort());
+				sockets.add(socket);
+				this.send(this.writer(socket), Protocol.Client.HALLO + "_client" + i);
+			}
+			for (Socket socket : sockets) {
+				assertTrue(this.receive(this.reader(socket)).startsWith(Protocol.Server.HALLO));
+			}
+			// The connections do not get a thread each.
+			assertTrue(Thread.activeCount() - threads < 10);
+		} finally {
+			for (Socket socket : sockets) {
+				socket.close();
+			}
+		}
+	}
+
+	@Test
+	public void testOtherModes() throws Exception {
+		// Without virtual threads, VIRTUALTHREADS falls back to threads.
+		for (Server.ConnectionMode mode : new Server.ConnectionMode[] {
+						Server.ConnectionMode.THREADS, Server.ConnectionMode.VIRTUALTHREADS }) {
+			Server other = new Server(0, 1, mode);
+			try (Socket first = new Socket("localhost", other.getPort());
+							Socket second = new Socket("localhost", other.getPort())) {
+				this.send(this.writer(first), Protocol.Client.HALLO + "_tester");
+				assertTrue(this.receive(this.reader(first)).startsWith(Protocol.Server.HALLO));
+
+				// The name is taken now.
+				this.send(this.writer(second), Protocol.Client.HALLO + "_tester");
+				assertTrue(this.receive(this.reader(second)).startsWith(Protocol.Server.ERROR));
+			}
+		}
+	}
+
+	@Test
+	public void testSameNameAtOnce() throws Exception {
+		for (Server.ConnectionMode mode : new Server.ConnectionMode[] {
+						Server.ConnectionMode.EVENTLOOP, Server.ConnectionMode.THREADS }) {
+			Server other = new Server(0, 1, mode);
+			List<Socket> sockets = new ArrayList<Socket>();
+			try {
+				for (int i = 0; i < 20; i++) {
+					sockets.add(new Socket("localhost", other.getPort()));
+				}
+				for (Socket socket : sockets) {
+					this.send(this.writer(socket), Protocol.Client.HALLO + "_tester");
+				}
+				// Exactly one of the clients gets the name.
+				int registered = 0;
+				for (Socket socket : sockets) {
+					String reply = this.receive(this.reader(socket));
+					if (reply.startsWith(Protocol.Server.HALLO)) {
+						registered++;
+					} else {
+						assertEquals(Protocol.Server.ERROR + "_4_AlreadyExists", reply);
+					}
+				}
+				assertEquals(1, registered);
+			} finally {
+				for (Socket socket : sockets) {
+					socket.close();
+				}
+			}
+		}
+	}
+
+	private BufferedReader reader(Socket socket) throws Exception {
+		return new BufferedReader(new InputStreamReader(socket.getInputStream(),
+						Charset.forName(Protocol.Server.Settings.ENCODING)));
+	}
+
+	private BufferedWriter writer(Socket socket) throws Exception {
+		return new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+						Charset.forName(Protocol.Server.Settings.ENCODING)));
+	}
+
+	private void send(BufferedWriter tx, String command) throws Exception {
+		tx.write(command + Protocol.Server.Settings.COMMAND_END);
+		tx.flush();
+	}
+
+	private String receive(BufferedReader rx) throws Exception {
+		String line = rx.readLine();
+		while (line.isEmpty()) {
+			line = rx.readLine();
+		}
+		return line;
+	}
+
+}
@@ -12,6 +12,7 @@ import org.junit.Test;
 import exceptions.HandLimitReachedExeption;
 import exceptions.TileNotInHandException;
 import game.Hand;
+import game.LineSummary;
 import game.Tile;
 import players.DummyPlayer;
 
@@ -152,4 +153,69 @@ public class HandTest {
 		assertTrue(hand.toString().contains("(6)"));
 
 	}
+
+	@Test
+	public void typesTest() throws HandLimitReachedExeption {
+		hand = new Hand();
+		Tile red = new Tile(Tile.RED, Tile.STAR);
+		hand.addToHand(red);
+		hand.addToHand(new Tile(Tile.BLUE, Tile.CROSS));
+
+		assertSame(red, hand.getTileFromProtocol("AE"));
+		assertSame(red, hand.getTileOfType(red.getType()));
+		assertNull(hand.getTileFromProtocol("AA"));
+		assertEquals(2, Long.bitCount(hand.getTypes()));
+	}
+
+	@Test
+	public void masksTest() throws HandLimitReachedExeption, TileNotInHandException {
+		hand = new Hand(false);
+		Tile redStar = new Tile(Tile.RED, Tile.STAR);
+		Tile otherRedStar = new Tile(Tile.RED, Tile.STAR);
+		hand.addToHand(redStar);
+		hand.addToHand(otherRedStar);
+		hand.addToHand(new Tile(Tile.BLUE, Tile.CROSS));
+
+		assertEquals(2, hand.getAmountOfTiles(redStar.getType()));
+		assertEquals((1 << (Tile.RED - Tile.FIRSTCOLOR)) | (1 << (Tile.BLUE - Tile.FIRSTCOLOR)),
+						hand.getColors());
+		assertEquals((1 << (Tile.STAR - Tile.FIRSTSHAPE)) | (1 << (Tile.CROSS - Tile.FIRSTSHAPE)),
+						hand.getShapes());
+
+		// Only the red star fits a line of red circles.
+		int line = LineSummary.of(new Tile(Tile.RED, Tile.CIRCLE));
+		line = LineSummary.add(line, new Tile(Tile.RED, Tile.SQUARE));
+		assertEquals(1L << redStar.getType(), hand.getTypesExtending(line));
+
+		hand.removeFromHand(redStar);
+		assertEquals(1L << redStar.getType(), hand.getTypesExtending(line));
+		hand.removeFromHand(otherRedStar);
+		assertEquals(0, hand.getTypesExtending(line));
+		assertEquals(1, hand.getTilesInHand().size());
+	}
+
+	@Test
+	public void hashTest() throws HandLimitReachedExeption, TileNotInHandException {
+		hand = new Hand(false);
+		Hand other = new Hand(false);
+		Tile redStar = new Tile(Tile.RED, Tile.STAR);
+		Tile blueCross = new Tile(Tile.BLUE, Tile.CROSS);
+		assertEquals(0, hand.getHash());
+
+		hand.addToHand(redStar);
+		hand.addToHand(blueCross);
+		other.addToHand(new Tile(Tile.BLUE, Tile.CROSS));
+		other.addToHand(new Tile(Tile.RED, Tile.STAR));
+		assertEquals(hand.getHash(), other.getHash());
+
+		// Two tiles of a type do not cancel out.
+		hand.addToHand(new Tile(Tile.RED, Tile.STAR));
+		assertNotEquals(hand.getHash(), other.getHash());
+		hand.removeFromHand(redStar);
+		assertEquals(hand.getHash(), other.getHash());
+
+		hand.hardResetHand();
+		assertEquals(0, hand.getHash());
+	}
+
 }
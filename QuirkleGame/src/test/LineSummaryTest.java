@@ -0,0 +1,71 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import exceptions.SquareOutOfBoundsException;
+import game.Board;
+import game.LineSummary;
+import game.Tile;
+
+public class LineSummaryTest {
+
+	Board board;
+
+	@Before
+	public void setUp() throws Exception {
+		board = new Board();
+		board.placeTile(new Tile(Tile.RED, Tile.CIRCLE), 0, 0);
+		board.placeTile(new Tile(Tile.RED, Tile.SQUARE), 1, 0);
+		board.placeTile(new Tile(Tile.RED, Tile.STAR), 3, 0);
+	}
+
+	@Test
+	public void testValid() {
+		int line = LineSummary.of(new Tile(Tile.RED, Tile.CIRCLE));
+		assertTrue(LineSummary.isValid(LineSummary.EMPTY));
+		assertTrue(LineSummary.isValid(line));
+		assertTrue(LineSummary.isValid(LineSummary.add(line, new Tile(Tile.RED, Tile.STAR))));
+		assertTrue(LineSummary.isValid(LineSummary.add(line, new Tile(Tile.BLUE, Tile.CIRCLE))));
+		assertFalse(LineSummary.isValid(LineSummary.add(line, new Tile(Tile.RED, Tile.CIRCLE))));
+		assertFalse(LineSummary.isValid(LineSummary.add(line, new Tile(Tile.BLUE, Tile.STAR))));
+	}
+
+	@Test
+	public void testScore() {
+		int line = LineSummary.EMPTY;
+		assertEquals(0, LineSummary.getScore(line));
+		line = LineSummary.add(line, new Tile(Tile.RED, Tile.CIRCLE));
+		assertEquals(0, LineSummary.getScore(line));
+		line = LineSummary.add(line, new Tile(Tile.ORANGE, Tile.CIRCLE));
+		assertEquals(2, LineSummary.getScore(line));
+		line = LineSummary.add(line, new Tile(Tile.YELLOW, Tile.CIRCLE));
+		line = LineSummary.add(line, new Tile(Tile.GREEN, Tile.CIRCLE));
+		line = LineSummary.add(line, new Tile(Tile.BLUE, Tile.CIRCLE));
+		line = LineSummary.add(line, new Tile(Tile.PURPLE, Tile.CIRCLE));
+		assertEquals(6, LineSummary.getLength(line));
+		assertEquals(12, LineSummary.getScore(line));
+		assertEquals(0, LineSummary.allowedTypes(line));
+	}
+
+	@Test
+	public void testBoardSummaries() throws SquareOutOfBoundsException {
+		assertEquals(2, LineSummary.getLength(board.getRowSummary(0, 0)));
+		assertEquals(1, LineSummary.getLength(board.getColumnSummary(0, 0)));
+		assertEquals(3, LineSummary.getLength(board.getRowSummary(2, 0)));
+		assertEquals(0, LineSummary.getLength(board.getColumnSummary(2, 0)));
+
+		// Joining and splitting runs updates every tile in them.
+		board.placeTile(new Tile(Tile.RED, Tile.CROSS), 2, 0);
+		assertEquals(4, LineSummary.getLength(board.getRowSummary(0, 0)));
+		assertEquals(4, LineSummary.getLength(board.getRowSummary(3, 0)));
+		board.removeTile(1, 0);
+		assertEquals(1, LineSummary.getLength(board.getRowSummary(0, 0)));
+		assertEquals(2, LineSummary.getLength(board.getRowSummary(3, 0)));
+		assertEquals(1 << (Tile.RED - Tile.FIRSTCOLOR),
+						LineSummary.getColors(board.getRowSummary(3, 0)));
+	}
+
+}
@@ -0,0 +1,71 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import game.Bag;
+import game.Board;
+import game.Hand;
+import game.Turn;
+import players.HumanPlayer;
+import players.Player;
+import strategies.MonteCarloStrategy;
+import strategies.SmartStrategy;
+
+public class MonteCarloStrategyTest {
+
+	Board board;
+	Bag bag;
+	Player player;
+
+	@Before
+	public void setUp() throws Exception {
+		board = new Board();
+		bag = new Bag(new Random(19));
+		bag.fill();
+		player = new HumanPlayer("Test", null);
+		player.assignHand(new Hand());
+		bag.takeFromBag(player.getHand(), Hand.LIMIT);
+		for (int i = 0; i < 4; i++) {
+			Turn turn = new SmartStrategy().requestTurn(new Turn(board, player));
+			turn.applyTurn(board, bag);
+		}
+	}
+
+	@Test
+	public void testUnseenTypes() throws Exception {
+		assertEquals(bag.getNumberOfTiles(),
+						MonteCarloStrategy.getUnseenTypes(board, player.getHand()).length);
+	}
+
+	@Test
+	public void testPlayouts() throws Exception {
+		long hash = board.getHash();
+		MonteCarloStrategy strategy = new MonteCarloStrategy();
+		strategy.setOpponents(2);
+		long start = System.nanoTime();
+		int[] moves = strategy.search(board, player.getHand(),
+						start + TimeUnit.MILLISECONDS.toNanos(200));
+
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+		assertNotNull(moves);
+		assertTrue(strategy.getPlayouts() >= MonteCarloStrategy.CANDIDATES);
+		assertEquals(hash, board.getHash());
+	}
+
+	@Test
+	public void testRequestTurn() throws Exception {
+		int tiles = board.getNumberOfTiles();
+		Turn turn = new MonteCarloStrategy().requestTurn(new Turn(board, player),
+						System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100));
+		assertTrue(turn.isMoveRequest());
+		turn.applyTurn(board, bag);
+		assertEquals(tiles + turn.getMoves().size(), board.getNumberOfTiles());
+	}
+
+}
@@ -0,0 +1,186 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import exceptions.SquareOutOfBoundsException;
+import game.Bag;
+import game.Board;
+import game.BoardSquare;
+import game.Hand;
+import game.Move;
+import game.Tile;
+import game.Turn;
+import players.HumanPlayer;
+import players.Player;
+import strategies.MoveGenerator;
+import strategies.ParallelSearch;
+import strategies.SearchResult;
+import strategies.SmartStrategy;
+import strategies.StrategyInterface.SearchMode;
+
+public class MoveGeneratorTest {
+
+	Board board;
+	Player player;
+
+	@Before
+	public void setUp() throws Exception {
+		board = new Board();
+		player = new HumanPlayer("Test", null);
+		player.assignHand(new Hand());
+	}
+
+	@Test
+	public void testEmptyBoard() throws Exception {
+		player.getHand().addToHand(new Tile(Tile.RED, Tile.CIRCLE));
+		player.getHand().addToHand(new Tile(Tile.RED, Tile.SQUARE));
+		player.getHand().addToHand(new Tile(Tile.RED, Tile.STAR));
+		// A second red star does not give any new sets.
+		player.getHand().addToHand(new Tile(Tile.RED, Tile.STAR));
+
+		final List<int[]> sets = new ArrayList<int[]>();
+		MoveGenerator generator = new MoveGenerator(board, player.getHand());
+		assertTrue(generator.generate(new MoveGenerator.Visitor() {
+			@Override
+			public boolean visit(int[] moves, int count, int score) {
+				assertEquals(count == 1 ? 0 : count, score);
+				sets.add(Arrays.copyOf(moves, count));
+				return true;
+			}
+		}));
+
+		// 3 single tiles, in both directions 2 * 3 * 2 pairs and 6 * 3 triples
+		// covering the origin.
+		assertEquals(3 + 2 * (12 + 18), sets.size());
+		for (int[] moves : sets) {
+			assertEquals(0, MoveGenerator.getX(moves[0]));
+			assertEquals(0, MoveGenerator.getY(moves[0]));
+		}
+		assertEquals(0, board.getNumberOfTiles());
+		assertEquals(0, board.getHash());
+
+		// The visitor can stop the generation.
+		assertFalse(generator.generate(new MoveGenerator.Visitor() {
+			@Override
+			public boolean visit(int[] moves, int count, int score) {
+				return false;
+			}
+		}));
+	}
+
+	@Test
+	public void testAgainstTurns() throws Exception {
+		Bag bag = new Bag(new Random(3));
+		bag.fill();
+		bag.takeFromBag(player.getHand(), Hand.LIMIT);
+
+		for (int i = 0; i < 6; i++) {
+			final List<int[]> sets = new ArrayList<int[]>();
+			final List<Integer> scores = new ArrayList<Integer>();
+			MoveGenerator generator = new MoveGenerator(board, player.getHand());
+			generator.generate(new MoveGenerator.Visitor() {
+				@Override
+				public boolean visit(int[] moves, int count, int score) {
+					sets.add(Arrays.copyOf(moves, count));
+					scores.add(score);
+					return true;
+				}
+			});
+
+			// Every set is a legal turn with the same score.
+			Set<Long> hashes = new HashSet<Long>();
+			for (int j = 0; j < sets.size(); j++) {
+				Turn turn = new Turn(board, player);
+				for (Move move : generator.toMoves(sets.get(j), sets.get(j).length)) {
+					turn.addMove(move);
+				}
+				assertEquals((int) scores.get(j), turn.calculateScore());
+				assertTrue(hashes.add(turn.getBoardCopy().getHash()));
+			}
+
+			// Every legal turn is generated.
+			Set<Long> expected = new HashSet<Long>();
+			this.search(new ArrayList<Move>(), expected);
+			assertEquals(expected, hashes);
+
+			Turn turn = new SmartStrategy().requestTurn(new Turn(board, player));
+			turn.applyTurn(board, bag);
+		}
+	}
+
+	@Test
+	public void testParallelSearch() throws Exception {
+		Bag bag = new Bag(new Random(5));
+		bag.fill();
+		bag.takeFromBag(player.getHand(), Hand.LIMIT);
+
+		for (int i = 0; i < 8; i++) {
+			// The parallel search finds the first best set of the sequential
+			// search.
+			final SearchResult[] sequential = new SearchResult[1];
+			new MoveGenerator(board, player.getHand()).generate(new MoveGenerator.Visitor() {
+				@Override
+				public boolean visit(int[] moves, int count, int score) {
+					if (sequential[0] == null || score > sequential[0].getScore()) {
+						sequential[0] = new SearchResult(score, 0, Arrays.copyOf(moves, count));
+					}
+					return true;
+				}
+			});
+			long hash = board.getHash();
+			SearchResult parallel = ParallelSearch.search(board, player.getHand());
+			assertEquals(hash, board.getHash());
+			SmartStrategy strategy = new SmartStrategy(SearchMode.PARALLEL);
+			Turn turn = strategy.requestTurn(new Turn(board, player));
+			if (sequential[0] == null) {
+				assertNull(parallel);
+				assertTrue(turn.isSwapRequest());
+			} else {
+				assertEquals(sequential[0].getScore(), parallel.getScore());
+				assertArrayEquals(sequential[0].getMoves(), parallel.getMoves());
+				assertEquals(parallel.getScore(), turn.calculateScore());
+			}
+			turn.applyTurn(board, bag);
+		}
+	}
+
+	/**
+	 * Finds every legal turn by trying each tile on each position, and
+	 * collects the hashes of the resulting boards.
+	 */
+	private void search(List<Move> moves, Set<Long> hashes) throws SquareOutOfBoundsException {
+		for (Tile t : player.getHand().getTilesInHand()) {
+			boolean used = false;
+			for (Move m : moves) {
+				used |= m.getTile() == t;
+			}
+			if (used) {
+				continue;
+			}
+			for (BoardSquare b : board.getPossiblePlaceByTile(t, moves)) {
+				Move move = new Move(t, b);
+				if (move.validate(board, moves) != Move.LEGAL) {
+					continue;
+				}
+				int token = board.pushTile(t, b.getX(), b.getY());
+				if (hashes.add(board.getHash())) {
+					moves.add(move);
+					this.search(moves, hashes);
+					moves.remove(moves.size() - 1);
+				}
+				board.popTile(token);
+			}
+		}
+	}
+
+}
@@ -212,4 +212,22 @@ public class MoveTest {
 			assertTrue(e.getMessage().contains("B2"));
 		}
 	}
+
+	@Test
+	public void validateTest() throws Exception {
+		DummyPlayer player = new DummyPlayer("Peter");
+		Turn turn = new Turn(board, player);
+		Board copy = turn.getBoardCopy();
+
+		assertEquals(Move.NOT_ADJACENT, new Move(redCircle, copy.getSquare(1, 0)).validate(copy, turn.getMoves()));
+		turn.addMove(new Move(redCircle, copy.getSquare(0, 0)));
+		turn.addMove(new Move(yellowCircle, copy.getSquare(1, 0)));
+
+		assertEquals(Move.LEGAL, new Move(blueCircle, copy.getSquare(2, 0)).validate(copy, turn.getMoves()));
+		assertEquals(Move.NOT_ADJACENT, new Move(blueCircle, copy.getSquare(1, 0)).validate(copy, turn.getMoves()));
+		assertEquals(Move.NOT_ADJACENT, new Move(blueCircle, copy.getSquare(5, 5)).validate(copy, turn.getMoves()));
+		assertEquals(Move.NOT_COLLINEAR, new Move(redSQUARE, copy.getSquare(0, 1)).validate(copy, turn.getMoves()));
+		assertEquals(Move.DUPLICATE, new Move(redCircle, copy.getSquare(2, 0)).validate(copy, turn.getMoves()));
+		assertEquals(Move.WRONG_IDENTITY, new Move(blueSQUARE, copy.getSquare(-1, 0)).validate(copy, turn.getMoves()));
+	}
 }
@@ -0,0 +1,71 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import game.Bag;
+import game.Board;
+import game.Hand;
+import game.Move;
+import game.Tile;
+import strategies.MoveGenerator;
+import strategies.OpeningBook;
+
+public class OpeningBookTest {
+
+	Board board;
+	Hand hand;
+
+	@Before
+	public void setUp() throws Exception {
+		board = new Board();
+		hand = new Hand(false);
+	}
+
+	@Test
+	public void testOpening() throws Exception {
+		hand.addToHand(new Tile(Tile.RED, Tile.CIRCLE));
+		hand.addToHand(new Tile(Tile.BLUE, Tile.SQUARE));
+		hand.addToHand(new Tile(Tile.RED, Tile.SQUARE));
+		// A second red circle does not make the line longer.
+		hand.addToHand(new Tile(Tile.RED, Tile.CIRCLE));
+		hand.addToHand(new Tile(Tile.GREEN, Tile.STAR));
+
+		int[] opening = OpeningBook.getOpening(hand);
+		assertEquals(2, opening.length);
+		assertEquals(2, OpeningBook.getScore(OpeningBook.getOpeningTypes(hand.getTypes())));
+
+		List<Move> moves = new MoveGenerator(board, hand).toMoves(opening, opening.length);
+		for (Move move : moves) {
+			board.placeTile(move.getTile(), move.getPosition().getX(), move.getPosition().getY());
+		}
+		assertEquals(Tile.RED, board.getTile(0, 0).getColor());
+		assertEquals(Tile.RED, board.getTile(1, 0).getColor());
+	}
+
+	@Test
+	public void testAgainstSearch() throws Exception {
+		Random random = new Random(17);
+		for (int game = 0; game < 50; game++) {
+			Bag bag = new Bag(new Random(random.nextLong()));
+			bag.fill();
+			Hand hand = new Hand(false);
+			bag.takeFromBag(hand, 6);
+
+			final int[] best = { -1 };
+			new MoveGenerator(board, hand).generate((moves, count, score) -> {
+				best[0] = Math.max(best[0], score);
+				return true;
+			});
+			long types = OpeningBook.getOpeningTypes(hand.getTypes());
+			assertEquals(best[0], OpeningBook.getScore(types));
+			assertEquals(Long.bitCount(types), OpeningBook.getOpening(hand).length);
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import networking.OutboundQueue;
+
+public class OutboundQueueTest {
+
+	@Test
+	public void testCoalescing() throws Exception {
+		OutboundQueue queue = new OutboundQueue(OutboundQueue.LIMIT, OutboundQueue.Policy.DISCONNECT);
+		assertNull(queue.poll());
+
+		assertEquals(1, queue.offer("MOVE\n\n"));
+		assertEquals(2, queue.offer("TURN\n\n"));
+		assertEquals(3, queue.offer("ADDTOHAND\n\n"));
+		assertEquals(3, queue.getDepth());
+
+		// All queued messages are taken as one.
+		assertEquals("MOVE\n\nTURN\n\nADDTOHAND\n\n", queue.take().toString());
+		assertEquals(0, queue.getDepth());
+		assertEquals(3, queue.getMaxDepth());
+		assertEquals(3, queue.getWritten());
+		assertEquals(1, queue.getBatches());
+
+		assertEquals(1, queue.offer("CHAT\n\n"));
+		assertEquals("CHAT\n\n", queue.poll().toString());
+		assertEquals(4, queue.getWritten());
+		assertEquals(2, queue.getBatches());
+	}
+
+	@Test
+	public void testDisconnect() throws Exception {
+		OutboundQueue queue = new OutboundQueue(2, OutboundQueue.Policy.DISCONNECT);
+		queue.offer("a");
+		queue.offer("b");
+		assertFalse(queue.isOverflowed());
+
+		assertEquals(-1, queue.offer("c"));
+		assertTrue(queue.isOverflowed());
+		assertEquals(-1, queue.offer("d"));
+		// The connection is dropped, so the queued messages are not written.
+		assertNull(queue.take());
+	}
+
+	@Test
+	public void testBlock() throws Exception {
+		OutboundQueue queue = new OutboundQueue(1, OutboundQueue.Policy.BLOCK);
+		queue.offer("a");
+
+		Thread sender = new Thread(() -> {
+			try {
+				queue.offer("b");
+			} catch (InterruptedException e) {
+				fail();
+			}
+		});
+		sender.start();
+		sender.join(200);
+		// The sender waits until the writer made room.
+		assertTrue(sender.isAlive());
+
+		assertEquals("a", queue.take().toString());
+		sender.join(1000);
+		assertFalse(sender.isAlive());
+		assertEquals("b", queue.take().toString());
+		assertFalse(queue.isOverflowed());
+	}
+
+	@Test
+	public void testCharset() throws Exception {
+		OutboundQueue queue = new OutboundQueue(OutboundQueue.LIMIT, OutboundQueue.Policy.BLOCK);
+		queue.offer("HALLO\n\n");
+		queue.setCharset(StandardCharsets.UTF_8);
+		queue.offer("CHAT\n\n");
+
+		// The messages before the change are taken separately.
+		assertEquals("HALLO\n\n", queue.take().toString());
+		assertEquals(StandardCharsets.UTF_16, queue.getCharset());
+		assertEquals(1, queue.getDepth());
+		assertEquals("CHAT\n\n", queue.take().toString());
+		assertEquals(StandardCharsets.UTF_8, queue.getCharset());
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		OutboundQueue queue = new OutboundQueue(OutboundQueue.LIMIT, OutboundQueue.Policy.BLOCK);
+		queue.offer("a");
+		queue.close();
+		assertEquals(-1, queue.offer("b"));
+
+		// What was queued before closing is still written.
+		assertEquals("a", queue.take().toString());
+		assertNull(queue.take());
+	}
+
+}
@@ -0,0 +1,55 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import simulator.GameResult;
+import simulator.Simulator;
+import simulator.Statistics;
+import strategies.SmartStrategy;
+import strategies.StrategyInterface;
+
+public class SimulatorTest {
+
+	Simulator simulator;
+
+	@Before
+	public void setUp() throws Exception {
+		Supplier<StrategyInterface> strategy = SmartStrategy::new;
+		simulator = new Simulator(Arrays.asList(strategy, strategy));
+	}
+
+	@Test
+	public void testReplay() throws Exception {
+		GameResult result = simulator.play(20);
+		GameResult replay = simulator.play(20);
+		assertEquals(2, result.getPlayers());
+		for (int seat = 0; seat < 2; seat++) {
+			assertEquals(result.getScore(seat), replay.getScore(seat));
+			assertEquals(result.getTurns(seat), replay.getTurns(seat));
+			assertTrue(result.getScore(seat) > 0);
+		}
+	}
+
+	@Test
+	public void testRun() throws Exception {
+		Statistics statistics = simulator.run(8, 1, 2);
+		assertEquals(8, statistics.getGames());
+		assertEquals(0, statistics.getFailures());
+		assertEquals(8, statistics.getWins(0) + statistics.getWins(1) + statistics.getDraws());
+
+		int games = 0;
+		for (int count : statistics.getDistribution(0)) {
+			games += count;
+		}
+		assertEquals(8, games);
+		assertTrue(statistics.getAverageThinkingTime(0) > 0);
+		assertTrue(statistics.toString().contains("SmartStrategy"));
+	}
+
+}
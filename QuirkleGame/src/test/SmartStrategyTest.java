@@ -0,0 +1,78 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import game.Bag;
+import game.Board;
+import game.Hand;
+import game.Turn;
+import players.HumanPlayer;
+import players.Player;
+import strategies.SmartStrategy;
+import strategies.StrategyInterface.SearchMode;
+
+public class SmartStrategyTest {
+
+	Board board;
+	Bag bag;
+	Player player;
+
+	@Before
+	public void setUp() throws Exception {
+		board = new Board();
+		bag = new Bag(new Random(7));
+		bag.fill();
+		player = new HumanPlayer("Test", null);
+		player.assignHand(new Hand());
+		bag.takeFromBag(player.getHand(), Hand.LIMIT);
+	}
+
+	@Test
+	public void testDeadline() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			Turn turn = new SmartStrategy().requestTurn(new Turn(board, player));
+			turn.applyTurn(board, bag);
+		}
+
+		// Even when the deadline has passed already, the best set so far is
+		// played.
+		for (SearchMode mode : SearchMode.values()) {
+			long start = System.nanoTime();
+			Turn turn = new SmartStrategy(mode).requestTurn(new Turn(board, player), start);
+			assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SmartStrategy.HUMANTIME));
+			assertTrue(turn.isMoveRequest());
+			assertEquals(1, turn.getMoves().size());
+		}
+	}
+
+	@Test
+	public void testMoveLimit() throws Exception {
+		SmartStrategy strategy = new SmartStrategy();
+		strategy.setMoveLimit(2);
+		for (int i = 0; i < 10; i++) {
+			Turn turn = strategy.requestTurn(new Turn(board, player));
+			assertTrue(turn.getMoves().size() <= 2);
+			turn.applyTurn(board, bag);
+		}
+	}
+
+	@Test
+	public void testHumanLike() {
+		SmartStrategy strategy = new SmartStrategy();
+		long start = System.nanoTime();
+		strategy.requestTurn(new Turn(board, player));
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(SmartStrategy.HUMANTIME));
+
+		strategy.setHumanLike(true);
+		start = System.nanoTime();
+		strategy.requestTurn(new Turn(board, player));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(SmartStrategy.HUMANTIME));
+	}
+
+}
@@ -41,4 +41,19 @@ public class TileTest {
 		}
 	}
 
+	@Test
+	public void testType() {
+		assertEquals(Tile.NO_TYPE, new Tile(Tile.BLACK, Tile.DUMMY).getType());
+		for (int type = 0; type < Tile.TYPES; type++) {
+			Tile t = Tile.ofType(type);
+			assertEquals(type, t.getType());
+			assertEquals(type, new Tile(t.getColor(), t.getShape()).getType());
+			assertEquals(type, new Tile(type).getType());
+			assertNotSame(t, new Tile(type));
+			assertEquals(type, Tile.getType(t.toProtocol()));
+		}
+		assertEquals("EC", t1.toProtocol());
+		assertSame(t1.toProtocol(), Tile.ofType(t1.getType()).toProtocol());
+	}
+
 }